@@ -0,0 +1,93 @@
+package fr.skyblock.utils;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare la résolution Location -> île de l'index au parcours linéaire qu'il remplace.
+ * Les îles partagent quelques mondes pour mesurer la table de régions, pas seulement le cas à une île.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IslandLocationIndexBenchmark {
+
+    private record IslandBox(UUID id, World world, double x, double y, double z, int size) {
+    }
+
+    @Param({"100", "1000", "10000"})
+    public int islandCount;
+
+    @Param({"4"})
+    public int worldCount;
+
+    private IslandLocationIndex index;
+    private List<IslandBox> islands;
+    private Location[] probes;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<World> worlds = new ArrayList<>();
+        for (int i = 0; i < worldCount; i++) {
+            worlds.add(TestWorlds.world("island_bench_" + i));
+        }
+
+        index = new IslandLocationIndex();
+        islands = new ArrayList<>(islandCount);
+        for (int i = 0; i < islandCount; i++) {
+            IslandBox island = new IslandBox(UUID.randomUUID(), worlds.get(i % worldCount),
+                    random.nextInt(200_000) - 100_000, 100, random.nextInt(200_000) - 100_000, 50 + random.nextInt(200));
+            islands.add(island);
+            index.update(island.id(), island.world().getName(), island.x(), island.y(), island.z(), island.size());
+        }
+
+        // Moitié des points dans une île, moitié dans le vide
+        probes = new Location[1024];
+        for (int i = 0; i < probes.length; i++) {
+            if (i % 2 == 0) {
+                IslandBox island = islands.get(random.nextInt(islands.size()));
+                probes[i] = new Location(island.world(), island.x() + random.nextInt(island.size() / 2),
+                        island.y(), island.z() - random.nextInt(island.size() / 2));
+            } else {
+                probes[i] = new Location(worlds.get(random.nextInt(worldCount)),
+                        random.nextInt(200_000) - 100_000, 100, random.nextInt(200_000) - 100_000);
+            }
+        }
+    }
+
+    private Location nextProbe() {
+        Location probe = probes[cursor];
+        cursor = (cursor + 1) & (probes.length - 1);
+        return probe;
+    }
+
+    @Benchmark
+    public UUID index() {
+        return index.getIslandIdAt(nextProbe());
+    }
+
+    @Benchmark
+    public UUID linearScan() {
+        Location location = nextProbe();
+        World world = location.getWorld();
+        for (IslandBox island : islands) {
+            if (!island.world().getName().equals(world.getName())) continue;
+            double dx = location.getX() - island.x();
+            double dy = location.getY() - island.y();
+            double dz = location.getZ() - island.z();
+            if (dx * dx + dy * dy + dz * dz <= (double) island.size() * island.size()) {
+                return island.id();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package fr.skyblock.utils;
+
+import fr.skyblock.models.Island;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de la résolution monde -> île par événement : recherche dans le cache par UID contre
+ * l'ancienne analyse du nom du monde suivie d'une recherche de l'île par ID.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IslandWorldCacheBenchmark {
+
+    private static final String PREFIX = "island_";
+
+    @Param({"50", "500"})
+    public int worldCount;
+
+    private IslandWorldCache cache;
+    private final Map<UUID, Island> islands = new ConcurrentHashMap<>();
+    private World[] worlds;
+    private int cursor;
+
+    // Analyse faite par WorldManager.getIslandIdFromWorldName
+    private static UUID parse(String worldName) {
+        if (!worldName.startsWith(PREFIX)) return null;
+        try {
+            String plain = worldName.contains("/") ? worldName.substring(worldName.lastIndexOf('/') + 1) : worldName;
+            return UUID.fromString(plain.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        cache = new IslandWorldCache(IslandWorldCacheBenchmark::parse);
+        // Une partie des événements vient de mondes qui ne sont pas des îles
+        worlds = new World[256];
+        List<World> islandWorlds = new ArrayList<>();
+        for (int i = 0; i < worldCount; i++) {
+            UUID islandId = UUID.randomUUID();
+            Island island = new Island(islandId, UUID.randomUUID(), "Île " + i, null);
+            islands.put(islandId, island);
+            World world = TestWorlds.world(PREFIX + islandId);
+            cache.register(world);
+            cache.attach(island);
+            islandWorlds.add(world);
+        }
+        World lobby = TestWorlds.world("world");
+        Random random = new Random(42);
+        for (int i = 0; i < worlds.length; i++) {
+            worlds[i] = i % 8 == 0 ? lobby : islandWorlds.get(random.nextInt(islandWorlds.size()));
+        }
+    }
+
+    private World nextWorld() {
+        World world = worlds[cursor];
+        cursor = (cursor + 1) & (worlds.length - 1);
+        return world;
+    }
+
+    @Benchmark
+    public Island cachedLookup() {
+        IslandWorldCache.Entry entry = cache.get(nextWorld());
+        return entry != null ? entry.getIsland() : null;
+    }
+
+    @Benchmark
+    public Island parseWorldName() {
+        UUID islandId = parse(nextWorld().getName());
+        return islandId != null ? islands.get(islandId) : null;
+    }
+}
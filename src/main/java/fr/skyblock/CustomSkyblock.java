@@ -5,6 +5,7 @@ import fr.skyblock.commands.IslandAdminCommand;
 import fr.skyblock.listeners.MenuListener;
 import fr.skyblock.listeners.PlayerListener;
 import fr.skyblock.listeners.IslandListener;
+import fr.skyblock.listeners.WorldListener;
 import fr.skyblock.managers.*;
 import fr.skyblock.hooks.PrisonTycoonHook;
 
@@ -16,10 +17,16 @@ public final class CustomSkyblock extends JavaPlugin {
     private static CustomSkyblock instance;
     private DatabaseManager databaseManager;
     private WorldManager worldManager;
+    private WorldPrewarmManager worldPrewarmManager;
+    private SpareWorldManager spareWorldManager;
     private IslandManager islandManager;
+    private IslandWorthManager islandWorthManager;
+    private LeaderboardManager leaderboardManager;
+    private IslandBankManager islandBankManager;
     private MenuManager menuManager;
     private EconomyManager economyManager;
     private SchematicManager schematicManager;
+    private IslandTemplateManager islandTemplateManager;
     private InvitationManager invitationManager;
     private TaskManager taskManager;
     private WarpManager warpManager;
@@ -51,11 +58,17 @@ public final class CustomSkyblock extends JavaPlugin {
 
         // Initialisation des managers
         this.databaseManager = new DatabaseManager(this);
+        this.islandBankManager = new IslandBankManager(this);
         this.economyManager = new EconomyManager(this);
         this.worldManager = new WorldManager(this);
+        this.worldPrewarmManager = new WorldPrewarmManager(this);
+        this.spareWorldManager = new SpareWorldManager(this);
         this.schematicManager = new SchematicManager(this);
+        this.islandTemplateManager = new IslandTemplateManager(this);
         this.invitationManager = new InvitationManager(this);
         this.islandManager = new IslandManager(this);
+        this.islandWorthManager = new IslandWorthManager(this);
+        this.leaderboardManager = new LeaderboardManager(this);
         this.menuManager = new MenuManager(this);
         this.warpManager = new WarpManager(this);
         this.prisonTycoonHook = new PrisonTycoonHook(this);
@@ -78,12 +91,14 @@ public final class CustomSkyblock extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
         getServer().getPluginManager().registerEvents(new IslandListener(this), this);
         getServer().getPluginManager().registerEvents(new MenuListener(this), this);
+        getServer().getPluginManager().registerEvents(new WorldListener(this), this);
 
 
         // Démarrer les tâches périodiques
         this.taskManager = new TaskManager(this);
 
-        getLogger().info("CustomSkyblock activé avec succès !");
+        getLogger().info("CustomSkyblock activé avec succès ! (données chargées en "
+                + databaseManager.getStartupLoadMillis() + "ms)");
     }
 
     @Override
@@ -91,12 +106,21 @@ public final class CustomSkyblock extends JavaPlugin {
         if (taskManager != null) {
             taskManager.stopAllTasks();
         }
+        if (islandWorthManager != null) {
+            islandWorthManager.shutdown();
+        }
         if (worldManager != null) {
             worldManager.saveAllIslandWorlds();
         }
         if (economyManager != null) {
             economyManager.saveAllBalances();
         }
+        if (warpManager != null) {
+            warpManager.saveAll();
+        }
+        if (islandBankManager != null) {
+            islandBankManager.saveAll();
+        }
 
         if (databaseManager != null) {
             databaseManager.saveAll();
@@ -136,10 +160,30 @@ public final class CustomSkyblock extends JavaPlugin {
         return worldManager;
     }
 
+    public WorldPrewarmManager getWorldPrewarmManager() {
+        return worldPrewarmManager;
+    }
+
+    public SpareWorldManager getSpareWorldManager() {
+        return spareWorldManager;
+    }
+
     public IslandManager getIslandManager() {
         return islandManager;
     }
 
+    public IslandWorthManager getIslandWorthManager() {
+        return islandWorthManager;
+    }
+
+    public LeaderboardManager getLeaderboardManager() {
+        return leaderboardManager;
+    }
+
+    public IslandBankManager getIslandBankManager() {
+        return islandBankManager;
+    }
+
     public MenuManager getMenuManager() {
         return menuManager;
     }
@@ -152,6 +196,10 @@ public final class CustomSkyblock extends JavaPlugin {
         return schematicManager;
     }
 
+    public IslandTemplateManager getIslandTemplateManager() {
+        return islandTemplateManager;
+    }
+
     public InvitationManager getInvitationManager() {
         return invitationManager;
     }
@@ -1,8 +1,15 @@
 package fr.skyblock.commands;
 
 import fr.skyblock.CustomSkyblock;
+import fr.skyblock.managers.DatabaseManager;
+import fr.skyblock.managers.IslandBankManager;
+import fr.skyblock.managers.IslandWorthManager;
+import fr.skyblock.managers.LeaderboardManager;
+import fr.skyblock.managers.SpareWorldManager;
 import fr.skyblock.models.Island;
 import fr.skyblock.models.SkyblockPlayer;
+import fr.skyblock.utils.LatencyRecorder;
+import fr.skyblock.utils.LruCache;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
@@ -190,11 +197,15 @@ public class IslandAdminCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        if (plugin.getIslandManager().teleportToIsland(player, island)) {
-            sender.sendMessage(ChatColor.GREEN + "Téléporté à l'île de " + target.getName() + " !");
-        } else {
-            sender.sendMessage(ChatColor.RED + "Erreur lors de la téléportation !");
-        }
+        String targetName = target.getName();
+        plugin.getIslandManager().teleportToIsland(player, island).thenAccept(arrived -> {
+            if (!player.isOnline()) return;
+            if (arrived) {
+                sender.sendMessage(ChatColor.GREEN + "Téléporté à l'île de " + targetName + " !");
+            } else {
+                sender.sendMessage(ChatColor.RED + "Erreur lors de la téléportation !");
+            }
+        });
     }
 
     private void handleAdminCreate(CommandSender sender, String[] args) {
@@ -256,8 +267,10 @@ public class IslandAdminCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
+        int oldLevel = island.getLevel();
         island.setLevel(level);
         plugin.getDatabaseManager().saveIsland(island);
+        plugin.getLeaderboardManager().onLevelChange(oldLevel, level);
 
         sender.sendMessage(ChatColor.GREEN + "Niveau de l'île de " + target.getName() + " défini à " + level + " !");
         if (target.isOnline()) {
@@ -338,8 +351,8 @@ public class IslandAdminCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        island.addToBank(amount);
-        plugin.getDatabaseManager().saveIsland(island);
+        UUID actorId = sender instanceof Player admin ? admin.getUniqueId() : null;
+        plugin.getIslandBankManager().deposit(island, amount, IslandBankManager.Reason.ADMIN_ADD, actorId);
 
         sender.sendMessage(ChatColor.GREEN + String.format("%.2f $ ajoutés à la banque de l'île de %s !", amount, target.getName()));
         if (target.isOnline()) {
@@ -379,8 +392,8 @@ public class IslandAdminCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        if (island.removeFromBank(amount)) {
-            plugin.getDatabaseManager().saveIsland(island);
+        UUID actorId = sender instanceof Player admin ? admin.getUniqueId() : null;
+        if (plugin.getIslandBankManager().withdraw(island, amount, IslandBankManager.Reason.ADMIN_REMOVE, actorId)) {
             sender.sendMessage(ChatColor.GREEN + String.format("%.2f $ retirés de la banque de l'île de %s !", amount, target.getName()));
             if (target.isOnline()) {
                 target.sendMessage(ChatColor.YELLOW + String.format("%.2f $ ont été retirés de votre banque d'île par un administrateur !", amount));
@@ -440,18 +453,85 @@ public class IslandAdminCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.AQUA + "Îles actives (7 jours): " + ChatColor.WHITE + plugin.getDatabaseManager().getActiveIslands(7));
         sender.sendMessage(ChatColor.AQUA + "Îles actives (30 jours): " + ChatColor.WHITE + plugin.getDatabaseManager().getActiveIslands(30));
 
-        // Statistiques sur les niveaux
-        List<Island> topIslands = plugin.getDatabaseManager().getTopIslandsByLevel(5);
+        // Statistiques de l'écriture différée
+        DatabaseManager db = plugin.getDatabaseManager();
+        sender.sendMessage(ChatColor.GOLD + "--- Écriture différée ---");
+        sender.sendMessage(ChatColor.AQUA + "Îles en attente: " + ChatColor.WHITE + db.getDirtyIslandCount());
+        sender.sendMessage(ChatColor.AQUA + "Imprimantes/caisses en attente: " + ChatColor.WHITE + db.getDirtyContentCount());
+        sender.sendMessage(ChatColor.AQUA + "Sauvegardes demandées / fusionnées: " + ChatColor.WHITE +
+                db.getSaveRequests() + " / " + db.getCoalescedSaves());
+        sender.sendMessage(ChatColor.AQUA + "Îles écrites: " + ChatColor.WHITE + db.getFlushedIslands() +
+                ChatColor.GRAY + " (" + db.getFlushCount() + " vidages)");
+        sender.sendMessage(ChatColor.AQUA + "Mises à jour partielles: " + ChatColor.WHITE + db.getPartialUpdatedIslands());
+        sender.sendMessage(ChatColor.AQUA + "Dernier checkpoint: " + ChatColor.WHITE + plugin.getTaskManager().getLastCheckpointReport() +
+                (plugin.getTaskManager().isCheckpointRunning() ? ChatColor.YELLOW + " (en cours)" : ""));
+
+        // Déchargement adaptatif des mondes
+        sender.sendMessage(ChatColor.GOLD + "--- Mondes d'îles ---");
+        sender.sendMessage(ChatColor.AQUA + "Mondes chargés: " + ChatColor.WHITE + plugin.getWorldManager().getLoadedIslandWorldCount() +
+                " / " + plugin.getWorldManager().getMaxLoadedWorlds() + ChatColor.GRAY + " (" +
+                plugin.getWorldManager().getUnloadedWorldCount() + " déchargés)");
+        sender.sendMessage(ChatColor.AQUA + "Délai d'inactivité actuel: " + ChatColor.WHITE +
+                plugin.getWorldManager().getCurrentIdleTimeout() / 1000L + "s");
+
+        SpareWorldManager spareWorlds = plugin.getSpareWorldManager();
+        LatencyRecorder claimLatencies = spareWorlds.getClaimLatencies();
+        sender.sendMessage(ChatColor.AQUA + "Mondes de réserve: " + ChatColor.WHITE + spareWorlds.getAvailableCount() +
+                " / " + spareWorlds.getTargetSize() + ChatColor.GRAY + " (+" + spareWorlds.getRefillsLastHour() + " sur la dernière heure)");
+        sender.sendMessage(ChatColor.AQUA + "Réclamations: " + ChatColor.WHITE + spareWorlds.getClaimCount() +
+                ChatColor.GRAY + " (" + spareWorlds.getEmptyClaimCount() + " réserve vide) " + ChatColor.AQUA + "p50 / p95: " +
+                ChatColor.WHITE + claimLatencies.percentile(50) + " / " + claimLatencies.percentile(95) + "ms");
+
+        // Calcul de la valeur des îles
+        IslandWorthManager worth = plugin.getIslandWorthManager();
+        sender.sendMessage(ChatColor.GOLD + "--- Valeur des îles ---");
+        sender.sendMessage(ChatColor.AQUA + "Calculs terminés: " + ChatColor.WHITE + worth.getCompletedCalculations());
+        sender.sendMessage(ChatColor.AQUA + "Thread principal par calcul p50 / p95: " + ChatColor.WHITE + worth.getMainThreadMicros().percentile(50) +
+                " / " + worth.getMainThreadMicros().percentile(95) + "µs" + ChatColor.GRAY + " (durée totale p95: " +
+                worth.getTotalMillis().percentile(95) + "ms)");
+        sender.sendMessage(ChatColor.AQUA + "Copies réparties sur p50 / p95: " + ChatColor.WHITE + worth.getSnapshotTicks().percentile(50) +
+                " / " + worth.getSnapshotTicks().percentile(95) + " ticks" + ChatColor.GRAY + " (budget " +
+                worth.getSnapshotBudgetMicros() + "µs par tick)");
+
+        // Journal des banques d'îles
+        IslandBankManager bank = plugin.getIslandBankManager();
+        sender.sendMessage(ChatColor.AQUA + "Mouvements de banque écrits: " + ChatColor.WHITE + bank.getWrittenTransactions() +
+                ChatColor.GRAY + " (" + bank.getPendingCount() + " en attente, dernier lot en " + bank.getLastFlushMillis() + "ms)");
+
+        // Latence de préchauffage des mondes
+        LatencyRecorder prewarm = plugin.getWorldPrewarmManager().getLatencies();
+        sender.sendMessage(ChatColor.GOLD + "--- Préchauffage des mondes ---");
+        sender.sendMessage(ChatColor.AQUA + "Chargements: " + ChatColor.WHITE + prewarm.getTotal() +
+                ChatColor.GRAY + " (" + plugin.getWorldPrewarmManager().getPendingWarmupCount() + " en cours)");
+        sender.sendMessage(ChatColor.AQUA + "Latence p50 / p95 / p99: " + ChatColor.WHITE + prewarm.percentile(50) + " / " +
+                prewarm.percentile(95) + " / " + prewarm.percentile(99) + "ms");
+
+        // Statistiques du cache
+        LruCache<UUID, Island> islandsCache = db.getIslandsCache();
+        long lookups = islandsCache.getHits() + islandsCache.getMisses();
+        double hitRate = lookups > 0 ? islandsCache.getHits() * 100.0 / lookups : 100.0;
+        sender.sendMessage(ChatColor.GOLD + "--- Cache ---");
+        sender.sendMessage(ChatColor.AQUA + "Îles en cache: " + ChatColor.WHITE + db.getCachedIslandCount() +
+                ChatColor.GRAY + " | " + ChatColor.AQUA + "Joueurs en cache: " + ChatColor.WHITE + db.getCachedPlayerCount());
+        sender.sendMessage(ChatColor.AQUA + "Hits / Miss îles: " + ChatColor.WHITE + islandsCache.getHits() + " / " +
+                islandsCache.getMisses() + ChatColor.GRAY + String.format(" (%.1f%%)", hitRate));
+        sender.sendMessage(ChatColor.AQUA + "Évictions îles / joueurs: " + ChatColor.WHITE + islandsCache.getEvictions() +
+                " / " + db.getPlayersCache().getEvictions());
+        sender.sendMessage(ChatColor.AQUA + "Dernier vidage: " + ChatColor.WHITE + db.getLastFlushCount() +
+                " îles en " + db.getLastFlushMillis() + "ms");
+
+        // Statistiques sur les niveaux (classement en mémoire)
+        LeaderboardManager leaderboard = plugin.getLeaderboardManager();
+        List<LeaderboardManager.Entry> topIslands = leaderboard.getPage(0, 5);
         if (!topIslands.isEmpty()) {
             sender.sendMessage(ChatColor.GOLD + "--- Top 5 îles ---");
-            for (int i = 0; i < topIslands.size(); i++) {
-                Island island = topIslands.get(i);
-                Player owner = Bukkit.getPlayer(island.getOwner());
-                String ownerName = owner != null ? owner.getName() : "Inconnu";
-                sender.sendMessage("" + ChatColor.AQUA + (i + 1) + ". " + ChatColor.WHITE + ownerName +
-                        ChatColor.GRAY + " - Niveau " + ChatColor.YELLOW + island.getLevel());
+            for (LeaderboardManager.Entry entry : topIslands) {
+                sender.sendMessage("" + ChatColor.AQUA + entry.rank() + ". " + ChatColor.WHITE + entry.ownerName() +
+                        ChatColor.GRAY + " - Niveau " + ChatColor.YELLOW + entry.level());
             }
         }
+        sender.sendMessage(ChatColor.AQUA + "Classement: " + ChatColor.WHITE + leaderboard.getEntries().size() + "/" +
+                leaderboard.getSize() + " îles" + ChatColor.GRAY + " (relu en " + leaderboard.getLastRefreshMillis() + "ms)");
     }
 
     private void handleCleanup(CommandSender sender, String[] args) {
@@ -487,29 +567,29 @@ public class IslandAdminCommand implements CommandExecutor, TabCompleter {
         switch (args[1].toLowerCase()) {
             case "reset" -> {
                 sender.sendMessage(ChatColor.YELLOW + "Reset de l'économie en cours...");
-                // Reset de tous les soldes
-                for (SkyblockPlayer player : new ArrayList<>(plugin.getDatabaseManager().getAllPlayers())) {
-                    plugin.getEconomyManager().setBalance(player.getUuid(),
-                            plugin.getConfig().getDouble("economy.starting-money", 50.0));
+                // Reset de tous les soldes, en base pour tous les joueurs (pas seulement ceux en cache)
+                if (!plugin.getEconomyManager().resetAllBalances(plugin.getConfig().getDouble("economy.starting-money", 50.0))) {
+                    sender.sendMessage(ChatColor.RED + "Erreur lors du reset des soldes des joueurs !");
+                    return;
                 }
-                // Reset des banques d'îles
-                for (Island island : plugin.getDatabaseManager().getAllIslands()) {
-                    island.setBank(0.0);
-                    plugin.getDatabaseManager().saveIsland(island);
+                // Reset des banques de toutes les îles, par une seule transaction journalisée
+                UUID actorId = sender instanceof Player admin ? admin.getUniqueId() : null;
+                int resetIslands = plugin.getIslandBankManager().resetAllBanks(actorId);
+                if (resetIslands < 0) {
+                    sender.sendMessage(ChatColor.RED + "Erreur lors du reset des banques d'îles !");
+                    return;
                 }
-                sender.sendMessage(ChatColor.GREEN + "Économie reset avec succès !");
+                sender.sendMessage(ChatColor.GREEN + "Économie reset avec succès ! (" + resetIslands + " banques vidées)");
             }
             case "stats" -> {
                 double totalMoney = 0;
-                double totalBankMoney = 0;
 
-                for (SkyblockPlayer player : new ArrayList<>(plugin.getDatabaseManager().getAllPlayers())) {
-                    totalMoney += plugin.getEconomyManager().getBalance(player.getUuid());
+                // Tous les joueurs et toutes les îles en base, pas seulement ceux en cache
+                for (UUID playerId : plugin.getDatabaseManager().getAllPlayerIds()) {
+                    totalMoney += plugin.getEconomyManager().getBalance(playerId);
                 }
 
-                for (Island island : plugin.getDatabaseManager().getAllIslands()) {
-                    totalBankMoney += island.getBank();
-                }
+                double totalBankMoney = plugin.getIslandBankManager().getTotalBalance();
 
                 sender.sendMessage(ChatColor.GOLD + "=== Statistiques Économie ===");
                 sender.sendMessage(ChatColor.AQUA + "Argent total joueurs: " + ChatColor.WHITE +
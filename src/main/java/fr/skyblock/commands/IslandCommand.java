@@ -1,6 +1,9 @@
 package fr.skyblock.commands;
 
 import fr.skyblock.CustomSkyblock;
+import fr.skyblock.managers.IslandBankManager;
+import fr.skyblock.managers.IslandWorthManager;
+import fr.skyblock.managers.LeaderboardManager;
 import fr.skyblock.models.Island;
 import fr.skyblock.models.IslandWarp;
 import fr.skyblock.models.SkyblockPlayer;
@@ -51,7 +54,7 @@ public class IslandCommand implements CommandExecutor, TabCompleter {
             case "sethome" -> handleSetHome(player);
             case "bank", "b" -> handleBank(player, args);
             case "level", "l" -> handleLevel(player);
-            case "top" -> handleTop(player);
+            case "top" -> handleTop(player, args);
             case "expand" -> handleExpand(player, args);
             case "flags", "settings" -> handleFlags(player);
             case "warp", "w" -> handleWarp(player, args);
@@ -78,7 +81,7 @@ public class IslandCommand implements CommandExecutor, TabCompleter {
         player.sendMessage(ChatColor.AQUA + "/is leave" + ChatColor.WHITE + " - Quitter une île");
         player.sendMessage(ChatColor.AQUA + "/is bank [deposit|withdraw] [montant]" + ChatColor.WHITE + " - Gérer la banque");
         player.sendMessage(ChatColor.AQUA + "/is level" + ChatColor.WHITE + " - Voir le niveau de l'île");
-        player.sendMessage(ChatColor.AQUA + "/is top" + ChatColor.WHITE + " - Classement des îles");
+        player.sendMessage(ChatColor.AQUA + "/is top [page]" + ChatColor.WHITE + " - Classement des îles");
         player.sendMessage(ChatColor.AQUA + "/is expand <taille>" + ChatColor.WHITE + " - Agrandir l'île");
         player.sendMessage(ChatColor.AQUA + "/is flags" + ChatColor.WHITE + " - Gérer les paramètres");
         player.sendMessage(ChatColor.AQUA + "/is delete" + ChatColor.WHITE + " - Supprimer votre île");
@@ -127,11 +130,14 @@ public class IslandCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        if (plugin.getIslandManager().teleportToIsland(player, island)) {
-            player.sendMessage(ChatColor.GREEN + "Bienvenue sur votre île !");
-        } else {
-            player.sendMessage(ChatColor.RED + "Erreur lors de la téléportation !");
-        }
+        plugin.getIslandManager().teleportToIsland(player, island).thenAccept(arrived -> {
+            if (!player.isOnline()) return;
+            if (arrived) {
+                player.sendMessage(ChatColor.GREEN + "Bienvenue sur votre île !");
+            } else {
+                player.sendMessage(ChatColor.RED + "Erreur lors de la téléportation !");
+            }
+        });
     }
 
     private void handleDelete(Player player) {
@@ -427,8 +433,7 @@ public class IslandCommand implements CommandExecutor, TabCompleter {
 
                         if (plugin.getEconomyManager().hasBalance(player.getUniqueId(), amount)) {
                             plugin.getEconomyManager().removeBalance(player.getUniqueId(), amount);
-                            island.addToBank(amount);
-                            plugin.getDatabaseManager().saveIsland(island);
+                            plugin.getIslandBankManager().deposit(island, amount, IslandBankManager.Reason.DEPOSIT, player.getUniqueId());
 
                             player.sendMessage(ChatColor.GREEN + "Vous avez déposé " +
                                     plugin.getEconomyManager().formatMoney(amount) +
@@ -452,9 +457,8 @@ public class IslandCommand implements CommandExecutor, TabCompleter {
                             return;
                         }
 
-                        if (island.removeFromBank(amount)) {
+                        if (plugin.getIslandBankManager().withdraw(island, amount, IslandBankManager.Reason.WITHDRAW, player.getUniqueId())) {
                             plugin.getEconomyManager().addBalance(player.getUniqueId(), amount);
-                            plugin.getDatabaseManager().saveIsland(island);
 
                             player.sendMessage(ChatColor.GREEN + "Vous avez retiré " +
                                     plugin.getEconomyManager().formatMoney(amount) +
@@ -489,21 +493,53 @@ public class IslandCommand implements CommandExecutor, TabCompleter {
         }
 
         player.sendMessage(ChatColor.GOLD + "Niveau de votre île: " + ChatColor.WHITE + island.getLevel());
-        // TODO: Ajouter plus de détails sur le calcul du niveau
+        player.sendMessage(ChatColor.GOLD + "Valeur des blocs: " + ChatColor.WHITE + String.format("%.1f", island.getWorth()));
+
+        // Valeur tenue à jour bloc par bloc : un comptage n'est lancé que si l'île n'est pas encore suivie
+        IslandWorthManager worthManager = plugin.getIslandWorthManager();
+        if (worthManager.isTracked(island.getId())) return;
+
+        if (worthManager.isCalculating(island.getId())) {
+            player.sendMessage(ChatColor.YELLOW + "Calcul de la valeur déjà en cours...");
+            return;
+        }
+
+        player.sendMessage(ChatColor.YELLOW + "Calcul de la valeur de l'île en cours...");
+        worthManager.recalculate(island).whenComplete((worth, error) -> {
+            if (!player.isOnline()) return;
+            if (error != null) {
+                player.sendMessage(ChatColor.RED + "Impossible de calculer la valeur de l'île pour le moment.");
+            } else {
+                player.sendMessage(ChatColor.GREEN + "Nouvelle valeur de l'île: " + ChatColor.WHITE + String.format("%.1f", worth));
+            }
+        });
     }
 
-    private void handleTop(Player player) {
-        List<Island> topIslands = plugin.getDatabaseManager().getTopIslandsByLevel(10);
+    private void handleTop(Player player, String[] args) {
+        int page = 0;
+        if (args.length >= 2) {
+            try {
+                page = Math.max(0, Integer.parseInt(args[1]) - 1);
+            } catch (NumberFormatException e) {
+                player.sendMessage(ChatColor.RED + "Page invalide !");
+                return;
+            }
+        }
 
-        player.sendMessage(ChatColor.GOLD + "=== " + ChatColor.YELLOW + "Top 10 des îles" + ChatColor.GOLD + " ===");
+        // Classement matérialisé : aucune requête ni résolution de nom ici
+        List<LeaderboardManager.Entry> topIslands = plugin.getLeaderboardManager().getPage(page, 10);
+        int pages = Math.max(1, (plugin.getLeaderboardManager().getEntries().size() + 9) / 10);
 
-        for (int i = 0; i < topIslands.size(); i++) {
-            Island island = topIslands.get(i);
-            Player owner = Bukkit.getPlayer(island.getOwner());
-            String ownerName = owner != null ? owner.getName() : "Inconnu";
+        player.sendMessage(ChatColor.GOLD + "=== " + ChatColor.YELLOW + "Top des îles" + ChatColor.GOLD +
+                " (page " + (page + 1) + "/" + pages + ") ===");
 
-            player.sendMessage("" + ChatColor.AQUA + (i + 1) + ". " + ChatColor.WHITE + ownerName +
-                    ChatColor.GRAY + " - Niveau " + ChatColor.YELLOW + island.getLevel());
+        for (LeaderboardManager.Entry entry : topIslands) {
+            player.sendMessage("" + ChatColor.AQUA + entry.rank() + ". " + ChatColor.WHITE + entry.ownerName() +
+                    ChatColor.GRAY + " - Niveau " + ChatColor.YELLOW + entry.level() +
+                    ChatColor.GRAY + " - Valeur " + ChatColor.YELLOW + String.format("%.1f", entry.worth()));
+        }
+        if (topIslands.isEmpty()) {
+            player.sendMessage(ChatColor.GRAY + "Aucune île sur cette page.");
         }
     }
 
@@ -1,21 +1,30 @@
 package fr.skyblock.listeners;
 
 import fr.skyblock.CustomSkyblock;
+import fr.skyblock.managers.IslandWorthManager;
 import fr.skyblock.models.Island;
+import fr.skyblock.utils.IslandWorldCache;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.PistonMoveReaction;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Monster;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Animals;
+import org.bukkit.event.Cancellable;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.block.BlockIgniteEvent;
 import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
@@ -26,6 +35,8 @@ import org.bukkit.event.inventory.InventoryOpenEvent;
 import org.bukkit.block.Chest;
 import org.bukkit.block.ShulkerBox;
 
+import java.util.List;
+
 public class IslandListener implements Listener {
 
     private final CustomSkyblock plugin;
@@ -39,11 +50,12 @@ public class IslandListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockBreak(BlockBreakEvent event) {
         Player player = event.getPlayer();
-        Location location = event.getBlock().getLocation();
 
-        if (!isInSkyblockWorld(location)) return;
+        IslandWorldCache.Entry entry = islandWorld(event.getBlock().getWorld());
+        if (entry == null) return;
 
-        Island island = plugin.getIslandManager().getIslandAtLocation(location);
+        Island island = plugin.getIslandManager().getLoadedIsland(entry);
+        if (island == null && denyWhileLoading(entry, event, player)) return;
         if (island == null) {
             // Hors de toute île - autoriser seulement les admins
             if (!player.hasPermission("skyblock.admin")) {
@@ -62,7 +74,7 @@ public class IslandListener implements Listener {
         }
 
         // Visiteur - vérifier le flag
-        if (!island.getFlag(Island.IslandFlag.VISITOR_BREAK)) {
+        if (!island.isAllowed(Island.IslandFlag.VISITOR_BREAK, false)) {
             event.setCancelled(true);
             player.sendMessage(ChatColor.RED + "Vous n'êtes pas autorisé à casser des blocs sur cette île !");
         }
@@ -71,11 +83,12 @@ public class IslandListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockPlace(BlockPlaceEvent event) {
         Player player = event.getPlayer();
-        Location location = event.getBlock().getLocation();
 
-        if (!isInSkyblockWorld(location)) return;
+        IslandWorldCache.Entry entry = islandWorld(event.getBlock().getWorld());
+        if (entry == null) return;
 
-        Island island = plugin.getIslandManager().getIslandAtLocation(location);
+        Island island = plugin.getIslandManager().getLoadedIsland(entry);
+        if (island == null && denyWhileLoading(entry, event, player)) return;
         if (island == null) {
             // Hors de toute île - autoriser seulement les admins
             if (!player.hasPermission("skyblock.admin")) {
@@ -94,7 +107,7 @@ public class IslandListener implements Listener {
         }
 
         // Visiteur - vérifier le flag
-        if (!island.getFlag(Island.IslandFlag.VISITOR_PLACE)) {
+        if (!island.isAllowed(Island.IslandFlag.VISITOR_PLACE, false)) {
             event.setCancelled(true);
             player.sendMessage(ChatColor.RED + "Vous n'êtes pas autorisé à placer des blocs sur cette île !");
         }
@@ -115,10 +128,13 @@ public class IslandListener implements Listener {
     public void onPlayerInteract(PlayerInteractEvent event) {
         Player player = event.getPlayer();
         Block block = event.getClickedBlock();
+        if (block == null) return;
 
-        if (block == null || !isInSkyblockWorld(block.getLocation())) return;
+        IslandWorldCache.Entry entry = islandWorld(block.getWorld());
+        if (entry == null) return;
 
-        Island island = plugin.getIslandManager().getIslandAtLocation(block.getLocation());
+        Island island = plugin.getIslandManager().getLoadedIsland(entry);
+        if (island == null && denyWhileLoading(entry, event, player)) return;
         if (island == null) return;
 
         // Membre ou propriétaire - toujours autorisé
@@ -131,7 +147,7 @@ public class IslandListener implements Listener {
         // Vérifier si c'est un bloc interactif
         Material material = block.getType();
         if (isInteractiveBlock(material)) {
-            if (!island.getFlag(Island.IslandFlag.VISITOR_INTERACT)) {
+            if (!island.isAllowed(Island.IslandFlag.VISITOR_INTERACT, false)) {
                 event.setCancelled(true);
                 player.sendMessage(ChatColor.RED + "Vous n'êtes pas autorisé à interagir avec cet objet !");
             }
@@ -143,9 +159,13 @@ public class IslandListener implements Listener {
         if (!(event.getPlayer() instanceof Player player)) return;
 
         Location location = event.getInventory().getLocation();
-        if (location == null || !isInSkyblockWorld(location)) return;
+        if (location == null) return;
+
+        IslandWorldCache.Entry entry = islandWorld(location.getWorld());
+        if (entry == null) return;
 
-        Island island = plugin.getIslandManager().getIslandAtLocation(location);
+        Island island = plugin.getIslandManager().getLoadedIsland(entry);
+        if (island == null && denyWhileLoading(entry, event, player)) return;
         if (island == null) return;
 
         // Membre ou propriétaire - toujours autorisé
@@ -159,7 +179,7 @@ public class IslandListener implements Listener {
         if (event.getInventory().getHolder() instanceof Chest ||
                 event.getInventory().getHolder() instanceof ShulkerBox) {
 
-            if (!island.getFlag(Island.IslandFlag.VISITOR_CHEST)) {
+            if (!island.isAllowed(Island.IslandFlag.VISITOR_CHEST, false)) {
                 event.setCancelled(true);
                 player.sendMessage(ChatColor.RED + "Vous n'êtes pas autorisé à ouvrir les coffres sur cette île !");
             }
@@ -173,14 +193,15 @@ public class IslandListener implements Listener {
         if (!(event.getEntity() instanceof Player victim)) return;
         if (!(event.getDamager() instanceof Player attacker)) return;
 
-        Location location = victim.getLocation();
-        if (!isInSkyblockWorld(location)) return;
+        IslandWorldCache.Entry entry = islandWorld(victim.getWorld());
+        if (entry == null) return;
 
-        Island island = plugin.getIslandManager().getIslandAtLocation(location);
+        Island island = plugin.getIslandManager().getLoadedIsland(entry);
+        if (island == null && denyWhileLoading(entry, event, attacker)) return;
         if (island == null) return;
 
         // Vérifier le flag PVP
-        if (!island.getFlag(Island.IslandFlag.PVP)) {
+        if (!island.isAllowed(Island.IslandFlag.PVP, false)) {
             event.setCancelled(true);
             attacker.sendMessage(ChatColor.RED + "Le PvP est désactivé sur cette île !");
         }
@@ -190,10 +211,11 @@ public class IslandListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onEntityExplode(EntityExplodeEvent event) {
-        Location location = event.getLocation();
-        if (!isInSkyblockWorld(location)) return;
+        IslandWorldCache.Entry entry = islandWorld(event.getEntity().getWorld());
+        if (entry == null) return;
 
-        Island island = plugin.getIslandManager().getIslandAtLocation(location);
+        Island island = plugin.getIslandManager().getLoadedIsland(entry);
+        if (island == null && denyWhileLoading(entry, event, null)) return;
         if (island == null) {
             // Hors de toute île - bloquer les explosions
             event.setCancelled(true);
@@ -201,7 +223,7 @@ public class IslandListener implements Listener {
         }
 
         // Vérifier le flag d'explosion
-        if (!island.getFlag(Island.IslandFlag.EXPLOSION_DAMAGE)) {
+        if (!island.isAllowed(Island.IslandFlag.EXPLOSION_DAMAGE, false)) {
             event.setCancelled(true);
         }
     }
@@ -210,27 +232,29 @@ public class IslandListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockBurn(BlockBurnEvent event) {
-        Location location = event.getBlock().getLocation();
-        if (!isInSkyblockWorld(location)) return;
+        IslandWorldCache.Entry entry = islandWorld(event.getBlock().getWorld());
+        if (entry == null) return;
 
-        Island island = plugin.getIslandManager().getIslandAtLocation(location);
+        Island island = plugin.getIslandManager().getLoadedIsland(entry);
+        if (island == null && denyWhileLoading(entry, event, null)) return;
         if (island == null) {
             event.setCancelled(true);
             return;
         }
 
         // Vérifier le flag de propagation du feu
-        if (!island.getFlag(Island.IslandFlag.FIRE_SPREAD)) {
+        if (!island.isAllowed(Island.IslandFlag.FIRE_SPREAD, false)) {
             event.setCancelled(true);
         }
     }
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockIgnite(BlockIgniteEvent event) {
-        Location location = event.getBlock().getLocation();
-        if (!isInSkyblockWorld(location)) return;
+        IslandWorldCache.Entry entry = islandWorld(event.getBlock().getWorld());
+        if (entry == null) return;
 
-        Island island = plugin.getIslandManager().getIslandAtLocation(location);
+        Island island = plugin.getIslandManager().getLoadedIsland(entry);
+        if (island == null && denyWhileLoading(entry, event, event.getPlayer())) return;
         if (island == null) {
             // Hors de toute île - bloquer l'allumage sauf admin
             if (event.getPlayer() == null || !event.getPlayer().hasPermission("skyblock.admin")) {
@@ -243,7 +267,7 @@ public class IslandListener implements Listener {
         if (event.getPlayer() != null) {
             Player player = event.getPlayer();
 
-            if (!island.isMember(player.getUniqueId()) && !island.getFlag(Island.IslandFlag.VISITOR_INTERACT)) {
+            if (!island.isAllowed(Island.IslandFlag.VISITOR_INTERACT, island.isMember(player.getUniqueId()))) {
                 event.setCancelled(true);
                 player.sendMessage(ChatColor.RED + "Vous n'êtes pas autorisé à allumer du feu ici !");
                 return;
@@ -251,7 +275,7 @@ public class IslandListener implements Listener {
         }
 
         // Vérifier le flag de propagation du feu pour l'allumage naturel
-        if (event.getCause() == BlockIgniteEvent.IgniteCause.SPREAD && !island.getFlag(Island.IslandFlag.FIRE_SPREAD)) {
+        if (event.getCause() == BlockIgniteEvent.IgniteCause.SPREAD && !island.isAllowed(Island.IslandFlag.FIRE_SPREAD, false)) {
             event.setCancelled(true);
         }
     }
@@ -261,11 +285,12 @@ public class IslandListener implements Listener {
     @EventHandler(priority = EventPriority.NORMAL)
     public void onEntitySpawn(EntitySpawnEvent event) {
         Entity entity = event.getEntity();
-        Location location = event.getLocation();
 
-        if (!isInSkyblockWorld(location)) return;
+        IslandWorldCache.Entry entry = islandWorld(entity.getWorld());
+        if (entry == null) return;
 
-        Island island = plugin.getIslandManager().getIslandAtLocation(location);
+        Island island = plugin.getIslandManager().getLoadedIsland(entry);
+        if (island == null && denyWhileLoading(entry, event, null)) return;
         if (island == null) {
 
             if (event instanceof CreatureSpawnEvent) {
@@ -283,21 +308,121 @@ public class IslandListener implements Listener {
 
         // Vérifier les flags de spawn selon le type d'entité
         if (entity instanceof Monster) {
-            if (!island.getFlag(Island.IslandFlag.MOB_SPAWNING)) {
+            if (!island.isAllowed(Island.IslandFlag.MOB_SPAWNING, false)) {
                 event.setCancelled(true);
             }
         } else if (entity instanceof Animals) {
-            if (!island.getFlag(Island.IslandFlag.ANIMAL_SPAWNING)) {
+            if (!island.isAllowed(Island.IslandFlag.ANIMAL_SPAWNING, false)) {
                 event.setCancelled(true);
             }
         }
     }
 
+    // === SUIVI DE LA VALEUR DES ÎLES ===
+    // En MONITOR et ignoreCancelled : seuls les changements réellement appliqués sont comptés
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void trackBlockPlace(BlockPlaceEvent event) {
+        trackChange(event.getBlockPlaced(), event.getBlockReplacedState().getType(), event.getBlockPlaced().getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void trackBlockBreak(BlockBreakEvent event) {
+        trackChange(event.getBlock(), event.getBlock().getType(), Material.AIR);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void trackBlockBurn(BlockBurnEvent event) {
+        trackChange(event.getBlock(), event.getBlock().getType(), Material.AIR);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void trackEntityExplode(EntityExplodeEvent event) {
+        trackDestroyed(event.getEntity().getWorld(), event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void trackBlockExplode(BlockExplodeEvent event) {
+        trackDestroyed(event.getBlock().getWorld(), event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void trackPistonExtend(BlockPistonExtendEvent event) {
+        trackPistonMove(event.getBlock().getWorld(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void trackPistonRetract(BlockPistonRetractEvent event) {
+        trackPistonMove(event.getBlock().getWorld(), event.getBlocks(), event.getDirection());
+    }
+
+    private void trackChange(Block block, Material removed, Material added) {
+        IslandWorthManager worth = plugin.getIslandWorthManager();
+        if (!worth.affectsWorth(removed, added)) return;
+
+        Island island = trackedIsland(block.getWorld());
+        if (island != null) {
+            worth.recordChange(island, block.getX(), block.getZ(), removed, added);
+        }
+    }
+
+    private void trackDestroyed(World world, List<Block> blocks) {
+        if (blocks.isEmpty()) return;
+        Island island = trackedIsland(world);
+        if (island == null) return;
+
+        IslandWorthManager worth = plugin.getIslandWorthManager();
+        for (Block block : blocks) {
+            worth.recordChange(island, block.getX(), block.getZ(), block.getType(), Material.AIR);
+        }
+    }
+
+    /**
+     * Chaque bloc quitte sa position et arrive à la suivante (sauf ceux que le piston détruit) ;
+     * à l'intérieur de l'île les deux écritures s'annulent, seuls les passages de limite comptent
+     */
+    private void trackPistonMove(World world, List<Block> blocks, BlockFace direction) {
+        if (blocks.isEmpty()) return;
+        Island island = trackedIsland(world);
+        if (island == null) return;
+
+        IslandWorthManager worth = plugin.getIslandWorthManager();
+        for (Block block : blocks) {
+            Material material = block.getType();
+            worth.recordChange(island, block.getX(), block.getZ(), material, Material.AIR);
+            if (block.getPistonMoveReaction() != PistonMoveReaction.BREAK) {
+                worth.recordChange(island, block.getX() + direction.getModX(), block.getZ() + direction.getModZ(),
+                        Material.AIR, material);
+            }
+        }
+    }
+
+    private Island trackedIsland(World world) {
+        IslandWorldCache.Entry entry = islandWorld(world);
+        return entry != null ? plugin.getIslandManager().getLoadedIsland(entry) : null;
+    }
+
     // === MÉTHODES UTILITAIRES ===
 
-    private boolean isInSkyblockWorld(Location location) {
-        return location.getWorld() != null &&
-                plugin.getIslandManager().isIslandWorld(location.getWorld());
+    /**
+     * Île pas encore en cache : son chargement tourne hors du thread principal,
+     * l'action est refusée en attendant plutôt que de bloquer le tick
+     */
+    private boolean denyWhileLoading(IslandWorldCache.Entry entry, Cancellable event, Player player) {
+        if (!plugin.getDatabaseManager().isIslandLoading(entry.getIslandId())) return false;
+
+        event.setCancelled(true);
+        if (player != null) {
+            player.sendMessage(ChatColor.YELLOW + "L'île est en cours de chargement, réessayez dans un instant.");
+        }
+        return true;
+    }
+
+    /**
+     * Monde d'île via le cache par monde (pas d'analyse du nom, pas d'allocation), ou null
+     */
+    private IslandWorldCache.Entry islandWorld(World world) {
+        return plugin.getIslandManager().getIslandWorldEntry(world);
     }
 
     private boolean isInteractiveBlock(Material material) {
@@ -5,6 +5,7 @@ import fr.skyblock.models.Island;
 import fr.skyblock.models.SkyblockPlayer;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -17,7 +18,9 @@ import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class PlayerListener implements Listener {
 
@@ -53,6 +56,11 @@ public class PlayerListener implements Listener {
             plugin.getEconomyManager().rewardPlayer(player.getUniqueId(), 50.0, "Bonus de première connexion");
         }
 
+        // Préchauffer le monde de son île : le /is home suivant n'attendra pas le chargement
+        if (skyblockPlayer.hasIsland()) {
+            plugin.getWorldPrewarmManager().prewarm(skyblockPlayer.getIslandId());
+        }
+
         // Vérifier si le joueur est dans le monde skyblock
         checkPlayerWorld(player);
 
@@ -103,12 +111,14 @@ public class PlayerListener implements Listener {
         if (plugin.getIslandManager().isIslandWorld(to.getWorld())) {
             playersInSkyblockWorld.add(player.getUniqueId());
 
-            // Obtenir l'île associée au monde
-            Island island = plugin.getIslandManager().getIslandFromWorld(to.getWorld());
-            if (island != null) {
+            // Obtenir l'île associée au monde (chargée en arrière-plan si besoin), une fois
+            // la téléportation effectuée : pendant l'événement le joueur est encore dans l'ancien monde
+            World toWorld = to.getWorld();
+            plugin.getServer().getScheduler().runTask(plugin, () -> withIsland(toWorld, island -> {
+                if (!player.isOnline() || !player.getWorld().equals(toWorld)) return;
                 handleIslandEntry(player, island);
-                plugin.getWorldManager().markPlayerEntered(to.getWorld().getName());
-            }
+                plugin.getWorldManager().markPlayerEntered(toWorld.getName());
+            }));
         } else {
             playersInSkyblockWorld.remove(player.getUniqueId());
             resetWorldBorder(player);
@@ -135,21 +145,24 @@ public class PlayerListener implements Listener {
         boolean toIslandWorld = to.getWorld() != null && plugin.getIslandManager().isIslandWorld(to.getWorld());
 
         if (fromIslandWorld != toIslandWorld || !from.getWorld().equals(to.getWorld())) {
-            Island fromIsland = fromIslandWorld ? plugin.getIslandManager().getIslandFromWorld(from.getWorld()) : null;
-            Island toIsland = toIslandWorld ? plugin.getIslandManager().getIslandFromWorld(to.getWorld()) : null;
-
-            if (fromIsland != null) {
-                handleIslandExit(player, fromIsland);
-                if (from.getWorld() != null && from.getWorld().getPlayers().size() <= 1) {
-                    plugin.getWorldManager().markPlayerLeft(from.getWorld().getName());
-                }
+            if (fromIslandWorld) {
+                World fromWorld = from.getWorld();
+                boolean lastPlayer = fromWorld.getPlayers().size() <= 1;
+                withIsland(fromWorld, fromIsland -> {
+                    handleIslandExit(player, fromIsland);
+                    if (lastPlayer) {
+                        plugin.getWorldManager().markPlayerLeft(fromWorld.getName());
+                    }
+                });
             }
-            if (toIsland != null) {
-                handleIslandEntry(player, toIsland);
-                if (to.getWorld() != null) {
-                    plugin.getWorldManager().markPlayerEntered(to.getWorld().getName());
-                }
-            } else if (!toIslandWorld) {
+            if (toIslandWorld) {
+                World toWorld = to.getWorld();
+                withIsland(toWorld, toIsland -> {
+                    if (!player.isOnline() || !player.getWorld().equals(toWorld)) return;
+                    handleIslandEntry(player, toIsland);
+                    plugin.getWorldManager().markPlayerEntered(toWorld.getName());
+                });
+            } else {
                 // Joueur quitte tous les mondes d'îles
                 resetWorldBorder(player);
             }
@@ -270,11 +283,34 @@ public class PlayerListener implements Listener {
             playersInSkyblockWorld.add(player.getUniqueId());
 
             // Vérifier s'il est sur une île
-            Island island = plugin.getIslandManager().getIslandFromWorld(player.getWorld());
+            World world = player.getWorld();
+            withIsland(world, island -> {
+                if (player.isOnline() && player.getWorld().equals(world)) {
+                    plugin.getIslandManager().updateWorldBorder(player, island);
+                }
+            });
+        }
+    }
+
+    /**
+     * Exécute l'action avec l'île du monde sans bloquer le tick : immédiatement si elle est
+     * en cache, sinon sur le thread principal une fois le chargement asynchrone terminé
+     */
+    private void withIsland(World world, Consumer<Island> action) {
+        CompletableFuture<Island> future = plugin.getIslandManager().getIslandFromWorldAsync(world);
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            Island island = future.join();
             if (island != null) {
-                plugin.getIslandManager().updateWorldBorder(player, island);
+                action.accept(island);
             }
+            return;
         }
+
+        future.thenAccept(island -> {
+            if (island != null) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> action.accept(island));
+            }
+        });
     }
 
     private void processIncomingInvitations(Player player) {
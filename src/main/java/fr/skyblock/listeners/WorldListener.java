@@ -0,0 +1,51 @@
+package fr.skyblock.listeners;
+
+import fr.skyblock.CustomSkyblock;
+import fr.skyblock.models.Island;
+import fr.skyblock.utils.IslandWorldCache;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.UUID;
+
+public class WorldListener implements Listener {
+
+    private final CustomSkyblock plugin;
+
+    public WorldListener(CustomSkyblock plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        World world = event.getWorld();
+        IslandWorldCache.Entry entry = plugin.getWorldManager().getIslandWorldCache().register(world);
+        UUID islandId = entry != null ? entry.getIslandId() : null;
+        if (islandId != null) {
+            plugin.getDatabaseManager().indexIslandWorld(islandId, world);
+            // Précharger l'île pour que les listeners la trouvent en cache
+            plugin.getDatabaseManager().loadIslandAsync(islandId);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        String worldName = event.getWorld().getName();
+        plugin.getDatabaseManager().unindexWorld(worldName);
+        plugin.getWorldManager().getIslandWorldCache().unregister(event.getWorld());
+
+        // L'île peut encore être écrite après le déchargement (écriture différée)
+        UUID islandId = plugin.getWorldManager().getIslandIdFromWorldName(worldName);
+        if (islandId != null) {
+            plugin.getIslandWorthManager().forget(islandId);
+            Island island = plugin.getDatabaseManager().getIslandsCache().peek(islandId);
+            if (island != null) {
+                island.releaseCenterWorld();
+            }
+        }
+    }
+}
@@ -2,26 +2,44 @@ package fr.skyblock.managers;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import fr.skyblock.CustomSkyblock;
 import fr.skyblock.models.DepositBoxData;
 import fr.skyblock.models.Island;
+import fr.skyblock.models.IslandWarp;
 import fr.skyblock.models.PrinterData;
 import fr.skyblock.models.SkyblockPlayer;
+import fr.skyblock.utils.IslandLocationIndex;
 import fr.skyblock.utils.ItemStackAdapter;
 import fr.skyblock.utils.LocationAdapter;
+import fr.skyblock.utils.LruCache;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.lang.reflect.Type;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class DatabaseManager {
 
@@ -33,13 +51,117 @@ public class DatabaseManager {
             .setPrettyPrinting() // Pour un debug plus facile
             .create();
 
-    private final Map<UUID, Island> islandsCache = new ConcurrentHashMap<>();
-    private final Map<UUID, SkyblockPlayer> playersCache = new ConcurrentHashMap<>();
+    // Lecture en flux des tables d'imprimantes / caisses lors du chargement complet
+    private static final int CONTENTS_FETCH_SIZE = 1000;
+    // Îles créditées par requête UPDATE ... FROM (VALUES ...) (2 paramètres par île)
+    private static final int BANK_CREDIT_BATCH_ROWS = 10000;
+
+    private static final Type UUID_SET_TYPE = new TypeToken<Set<UUID>>() {}.getType();
+    private static final Type FLAGS_TYPE = new TypeToken<Map<Island.IslandFlag, Boolean>>() {}.getType();
+    private static final Type DEPOSIT_BOXES_TYPE = new TypeToken<Map<String, DepositBoxData>>() {}.getType();
+    private static final Type PRINTERS_TYPE = new TypeToken<Map<String, PrinterData>>() {}.getType();
+    private static final Type PLAYER_DATA_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    private static final String ISLAND_UPSERT_QUERY = "INSERT INTO islands (id, owner_uuid, name, level, bank, size, center_world, center_x, center_y, center_z, center_yaw, center_pitch, members, flag_bits, creation_time, last_activity, max_deposit_boxes, max_hoppers, hopper_transfer_speed, max_printers, printer_generation_speed, worth) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET " +
+            "owner_uuid = EXCLUDED.owner_uuid, name = EXCLUDED.name, level = EXCLUDED.level, size = EXCLUDED.size, " +
+            "center_world = EXCLUDED.center_world, center_x = EXCLUDED.center_x, center_y = EXCLUDED.center_y, center_z = EXCLUDED.center_z, " +
+            "center_yaw = EXCLUDED.center_yaw, center_pitch = EXCLUDED.center_pitch, members = EXCLUDED.members, flag_bits = EXCLUDED.flag_bits, " +
+            "creation_time = EXCLUDED.creation_time, last_activity = EXCLUDED.last_activity, " +
+            "max_deposit_boxes = EXCLUDED.max_deposit_boxes, max_hoppers = EXCLUDED.max_hoppers, hopper_transfer_speed = EXCLUDED.hopper_transfer_speed, " +
+            "max_printers = EXCLUDED.max_printers, printer_generation_speed = EXCLUDED.printer_generation_speed, worth = EXCLUDED.worth";
+
+    private static final String PLAYER_UPSERT_QUERY = "INSERT INTO skyblock_players (uuid, name, island_id, first_join, last_seen, island_resets, member_of_islands, player_data) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (uuid) DO UPDATE SET " +
+            "name = EXCLUDED.name, island_id = EXCLUDED.island_id, first_join = EXCLUDED.first_join, " +
+            "last_seen = EXCLUDED.last_seen, island_resets = EXCLUDED.island_resets, " +
+            "member_of_islands = EXCLUDED.member_of_islands, player_data = EXCLUDED.player_data";
+
+    // Caches bornés (LRU) ; les îles et joueurs actifs sont épinglés
+    private final LruCache<UUID, Island> islandsCache = new LruCache<>();
+    private final LruCache<UUID, SkyblockPlayer> playersCache = new LruCache<>();
+    private final int maxCachedIslands;
+    private final long maxCachedIslandBytes;
+    private final int maxCachedPlayers;
+    private final IslandLocationIndex locationIndex = new IslandLocationIndex();
+    // Index inverses : propriétaire -> île, membre -> îles
+    private final Map<UUID, UUID> islandsByOwner = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> islandsByMember = new ConcurrentHashMap<>();
+
+    // Chargements asynchrones : une seule requête en cours par île, partagée par tous les appelants
+    private final ExecutorService loadExecutor;
+    private final Map<UUID, CompletableFuture<Island>> pendingLoads = new ConcurrentHashMap<>();
+    // Îles absentes de la base (monde orphelin), pour ne pas relancer de requête à chaque événement
+    private final Set<UUID> missingIslands = ConcurrentHashMap.newKeySet();
+
+    // File d'écriture différée : une seule entrée par île, la plus récente
+    private final Map<UUID, Island> dirtyIslands = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    // Vrai pendant un vidage ou une tranche de checkpoint : l'éviction attend que ses écritures soient validées
+    private volatile boolean flushing;
+    private final int flushBatchSize;
+    // Lignes d'imprimantes et de caisses de dépôt en attente, écrites après les îles du même
+    // vidage (clé étrangère) : une seule opération par ligne, la plus récente
+    private final Map<String, ContentWrite> dirtyContents = new ConcurrentHashMap<>();
+    private BukkitTask flushTask;
+
+    // Métriques de l'écriture différée
+    private final AtomicLong saveRequests = new AtomicLong();
+    private final AtomicLong coalescedSaves = new AtomicLong();
+    private final AtomicLong flushedIslands = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong partialUpdatedIslands = new AtomicLong();
+    // Requêtes UPDATE partielles déjà construites, par masque de colonnes
+    private final Map<Integer, String> partialUpdateQueries = new ConcurrentHashMap<>();
+    private volatile long lastFlushMillis;
+    private volatile int lastFlushCount;
+    private long startupLoadMillis;
+
+    // Tient les index inverses à jour quand une île en cache change de membres ou de propriétaire
+    private final Island.MembershipListener membershipIndexer = new Island.MembershipListener() {
+        @Override
+        public void onMemberAdded(Island island, UUID member) {
+            addMemberIndex(member, island.getId());
+        }
+
+        @Override
+        public void onMemberRemoved(Island island, UUID member) {
+            removeMemberIndex(member, island.getId());
+        }
+
+        @Override
+        public void onOwnerChanged(Island island, UUID previousOwner, UUID newOwner) {
+            islandsByOwner.remove(previousOwner, island.getId());
+            islandsByOwner.put(newOwner, island.getId());
+        }
+    };
 
     public DatabaseManager(CustomSkyblock plugin) {
         this.plugin = plugin;
+        this.flushBatchSize = Math.max(1, plugin.getConfig().getInt("database.write-behind.batch-size", 100));
+        this.maxCachedIslands = Math.max(1, plugin.getConfig().getInt("database.cache.max-islands", 5000));
+        this.maxCachedIslandBytes = Math.max(0L, plugin.getConfig().getLong("database.cache.max-islands-memory-mb", 0L)) * 1024L * 1024L;
+        this.maxCachedPlayers = Math.max(1, plugin.getConfig().getInt("database.cache.max-players", 10000));
+        this.loadExecutor = createThreadPool(Math.max(1, plugin.getConfig().getInt("database.load-threads", 2)), "Skyblock-IslandLoader-");
         initPostgreSQL();
         loadAll();
+        startFlushTask();
+    }
+
+    private static ExecutorService createThreadPool(int threads, String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void startFlushTask() {
+        long interval = Math.max(1L, plugin.getConfig().getLong("database.write-behind.flush-interval", 100L));
+        this.flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flushDirtyIslands, interval, interval);
     }
 
     private void initPostgreSQL() {
@@ -59,6 +181,8 @@ public class DatabaseManager {
             hikariConfig.setMaximumPoolSize(10);
             this.dataSource = new HikariDataSource(hikariConfig);
             createTables();
+            migrateLegacyJsonContents();
+            migrateLegacyFlags();
         } catch (ClassNotFoundException e) {
             plugin.getLogger().severe("PostgreSQL JDBC Driver not found: " + e.getMessage());
         }
@@ -80,6 +204,7 @@ public class DatabaseManager {
                 "center_pitch REAL," +
                 "members TEXT," +
                 "flags TEXT," +
+                "flag_bits INT," +
                 "creation_time BIGINT DEFAULT 0," +
                 "last_activity BIGINT DEFAULT 0," +
                 "max_deposit_boxes INT DEFAULT 1," +
@@ -87,6 +212,7 @@ public class DatabaseManager {
                 "hopper_transfer_speed DOUBLE PRECISION DEFAULT 1.0," +
                 "max_printers INT DEFAULT 10," +
                 "printer_generation_speed DOUBLE PRECISION DEFAULT 1.0," +
+                "worth DOUBLE PRECISION DEFAULT 0," +
                 "deposit_boxes TEXT," +
                 "printers TEXT" +
                 ");";
@@ -109,8 +235,74 @@ public class DatabaseManager {
         String addForeignKey = "ALTER TABLE skyblock_players ADD CONSTRAINT skyblock_players_island_id_fkey " +
                 "FOREIGN KEY (island_id) REFERENCES islands(id) ON DELETE SET NULL;";
 
+        // Imprimantes et caisses de dépôt : une ligne par objet (anciennement des colonnes JSON de islands)
+        String printersTable = "CREATE TABLE IF NOT EXISTS island_printers (" +
+                "id VARCHAR(64) PRIMARY KEY," +
+                "island_id VARCHAR(36) NOT NULL REFERENCES islands(id) ON DELETE CASCADE," +
+                "owner_uuid VARCHAR(36) NOT NULL," +
+                "data TEXT NOT NULL" +
+                ");";
+        String depositBoxesTable = "CREATE TABLE IF NOT EXISTS island_deposit_boxes (" +
+                "id VARCHAR(64) PRIMARY KEY," +
+                "island_id VARCHAR(36) NOT NULL REFERENCES islands(id) ON DELETE CASCADE," +
+                "owner_uuid VARCHAR(36) NOT NULL," +
+                "data TEXT NOT NULL" +
+                ");";
+
+        // Warps et promotions (anciennement warps.yml / promotions.yml)
+        String warpsTable = "CREATE TABLE IF NOT EXISTS island_warps (" +
+                "id VARCHAR(36) PRIMARY KEY," +
+                "island_id VARCHAR(36) NOT NULL REFERENCES islands(id) ON DELETE CASCADE," +
+                "name VARCHAR(64) NOT NULL," +
+                "description TEXT," +
+                "is_public BOOLEAN DEFAULT TRUE," +
+                "creation_time BIGINT DEFAULT 0," +
+                "visits BIGINT DEFAULT 0," +
+                "world VARCHAR(255)," +
+                "x DOUBLE PRECISION," +
+                "y DOUBLE PRECISION," +
+                "z DOUBLE PRECISION," +
+                "yaw REAL," +
+                "pitch REAL" +
+                ");";
+        String promotionsTable = "CREATE TABLE IF NOT EXISTS island_promotions (" +
+                "island_id VARCHAR(36) PRIMARY KEY REFERENCES islands(id) ON DELETE CASCADE," +
+                "expiration_time BIGINT NOT NULL" +
+                ");";
+        // Journal des mouvements de banque en ajout seul ; chaque lot applique aussi
+        // bank = bank + total dans islands (voir IslandBankManager)
+        String bankLedgerTable = "CREATE TABLE IF NOT EXISTS island_bank_ledger (" +
+                "seq BIGSERIAL PRIMARY KEY," +
+                "island_id VARCHAR(36) NOT NULL," +
+                "amount DOUBLE PRECISION NOT NULL," +
+                "reason VARCHAR(32) NOT NULL," +
+                "actor_uuid VARCHAR(36)," +
+                "created_at BIGINT NOT NULL" +
+                ");";
+        // Journal des visites en ajout seul, replié périodiquement dans island_warps.visits
+        String warpVisitsTable = "CREATE TABLE IF NOT EXISTS island_warp_visits (" +
+                "seq BIGSERIAL PRIMARY KEY," +
+                "warp_id VARCHAR(36) NOT NULL," +
+                "visits INT NOT NULL" +
+                ");";
+
         try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
             stmt.execute(islandsTable);
+            // Flags en masque d'entiers (anciennement JSON dans la colonne flags)
+            stmt.execute("ALTER TABLE islands ADD COLUMN IF NOT EXISTS flag_bits INT;");
+            stmt.execute("ALTER TABLE islands ADD COLUMN IF NOT EXISTS worth DOUBLE PRECISION DEFAULT 0;");
+            // Le classement ne lit que le haut de l'index, sans trier la table
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_islands_leaderboard ON islands (level DESC, worth DESC, id);");
+            stmt.execute(printersTable);
+            stmt.execute(depositBoxesTable);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_island_printers_island ON island_printers (island_id);");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_island_deposit_boxes_island ON island_deposit_boxes (island_id);");
+            stmt.execute(warpsTable);
+            stmt.execute(promotionsTable);
+            stmt.execute(warpVisitsTable);
+            stmt.execute(bankLedgerTable);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_island_bank_ledger_island ON island_bank_ledger (island_id, seq);");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_island_warps_island ON island_warps (island_id);");
             stmt.execute(dropOldConstraint); // Supprimer l'ancienne contrainte incorrecte
             stmt.execute(playersTable);
 
@@ -132,124 +324,325 @@ public class DatabaseManager {
 
     // --- Gestion des Îles ---
 
+    /**
+     * Marque l'île comme modifiée : elle sera écrite par le prochain vidage de la file
+     * d'écriture différée. Plusieurs sauvegardes de la même île entre deux vidages
+     * n'entraînent qu'une seule écriture.
+     */
     public void saveIsland(Island island) {
-        try {
-            saveIslandInternal(island);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to save island " + island.getId() + ": " + e.getMessage());
+        cacheIsland(island);
+        saveRequests.incrementAndGet();
+        if (dirtyIslands.put(island.getId(), island) != null) {
+            coalescedSaves.incrementAndGet();
         }
     }
 
     /**
      * Force save island data even if world is unloaded (used before unloading)
+     * Écrit l'île immédiatement, de manière synchrone, en court-circuitant la file.
      */
     public void forceSaveIsland(Island island) {
+        cacheIsland(island);
         try {
-            saveIslandInternal(island);
+            synchronized (flushLock) {
+                dirtyIslands.remove(island.getId());
+                writeIslands(Collections.singletonList(island));
+            }
         } catch (Exception e) {
+            dirtyIslands.putIfAbsent(island.getId(), island);
             plugin.getLogger().warning("Failed to force save island " + island.getId() + ": " + e.getMessage());
         }
     }
 
-    private void saveIslandInternal(Island island) {
-        islandsCache.put(island.getId(), island);
+    /**
+     * Vide la file d'écriture différée par batchs JDBC
+     */
+    public void flushDirtyIslands() {
+        if (dirtyIslands.isEmpty() && dirtyContents.isEmpty()) return;
+
+        synchronized (flushLock) {
+            flushing = true;
+            try {
+                flushDirtyIslandsLocked();
+            } finally {
+                flushing = false;
+            }
+        }
+    }
+
+    private void flushDirtyIslandsLocked() {
+        long start = System.nanoTime();
+        int written = 0;
+        List<Island> batch = new ArrayList<>(flushBatchSize);
+
+        for (UUID islandId : new ArrayList<>(dirtyIslands.keySet())) {
+            Island island = dirtyIslands.remove(islandId);
+            if (island == null) continue;
+            batch.add(island);
+            if (batch.size() >= flushBatchSize) {
+                written += writeBatchOrRequeue(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += writeBatchOrRequeue(batch);
+        }
+        writeContentsOrRequeue();
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+        lastFlushMillis = elapsedMillis;
+        lastFlushCount = written;
+        flushedIslands.addAndGet(written);
+        flushCount.incrementAndGet();
+        if (plugin.getConfig().getBoolean("debug.enabled", false)) {
+            plugin.getLogger().info("Écriture différée: " + written + " îles sauvegardées en " + elapsedMillis + "ms");
+        }
+    }
 
-        String query = "INSERT INTO islands (id, owner_uuid, name, level, bank, size, center_world, center_x, center_y, center_z, center_yaw, center_pitch, members, flags, creation_time, last_activity, max_deposit_boxes, max_hoppers, hopper_transfer_speed, max_printers, printer_generation_speed, deposit_boxes, printers) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
-                "ON CONFLICT (id) DO UPDATE SET " +
-                "owner_uuid = EXCLUDED.owner_uuid, name = EXCLUDED.name, level = EXCLUDED.level, bank = EXCLUDED.bank, size = EXCLUDED.size, " +
-                "center_world = EXCLUDED.center_world, center_x = EXCLUDED.center_x, center_y = EXCLUDED.center_y, center_z = EXCLUDED.center_z, " +
-                "center_yaw = EXCLUDED.center_yaw, center_pitch = EXCLUDED.center_pitch, members = EXCLUDED.members, flags = EXCLUDED.flags, " +
-                "creation_time = EXCLUDED.creation_time, last_activity = EXCLUDED.last_activity, " +
-                "max_deposit_boxes = EXCLUDED.max_deposit_boxes, max_hoppers = EXCLUDED.max_hoppers, hopper_transfer_speed = EXCLUDED.hopper_transfer_speed, " +
-                "max_printers = EXCLUDED.max_printers, printer_generation_speed = EXCLUDED.printer_generation_speed, deposit_boxes = EXCLUDED.deposit_boxes, printers = EXCLUDED.printers";
+    private int writeBatchOrRequeue(List<Island> batch) {
+        try {
+            writeIslands(batch);
+            return batch.size();
+        } catch (SQLException | RuntimeException e) {
+            // Remettre en file sans écraser une version plus récente
+            batch.forEach(island -> dirtyIslands.putIfAbsent(island.getId(), island));
+            plugin.getLogger().severe("Error flushing " + batch.size() + " islands: " + e.getMessage());
+            return 0;
+        }
+    }
 
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, island.getId().toString());
-            ps.setString(2, island.getOwner().toString());
-            ps.setString(3, island.getName());
-            ps.setInt(4, island.getLevel());
-            ps.setDouble(5, island.getBank());
-            ps.setInt(6, island.getSize());
-
-            Location center = island.getCenter();
-            if (center != null) {
-                try {
-                    // Vérifier si le monde existe avant d'accéder à ses propriétés
-                    World world = center.getWorld();
-                    if (world != null && Bukkit.getWorld(world.getName()) != null) {
-                        ps.setString(7, world.getName());
-                        ps.setDouble(8, center.getX());
-                        ps.setDouble(9, center.getY());
-                        ps.setDouble(10, center.getZ());
-                        ps.setFloat(11, center.getYaw());
-                        ps.setFloat(12, center.getPitch());
-                    } else {
-                        // Le monde n'est plus chargé, sauvegarder sans les coordonnées
-                        plugin.getLogger().info("World unloaded for island " + island.getId() + ", saving without location data");
-                        ps.setNull(7, Types.VARCHAR);
-                        ps.setNull(8, Types.DOUBLE);
-                        ps.setNull(9, Types.DOUBLE);
-                        ps.setNull(10, Types.DOUBLE);
-                        ps.setNull(11, Types.FLOAT);
-                        ps.setNull(12, Types.FLOAT);
+    /**
+     * Écrit un lot d'îles dans une transaction : upsert complet pour les îles encore
+     * absentes de la table, UPDATE limité aux colonnes modifiées pour les autres.
+     */
+    private void writeIslands(List<Island> islands) throws SQLException {
+        List<Island> inserts = new ArrayList<>();
+        Map<Integer, List<Island>> updatesByMask = new HashMap<>();
+        Map<Island, Integer> drainedMasks = new HashMap<>();
+
+        for (Island island : islands) {
+            int mask = island.drainDirtyColumns();
+            drainedMasks.put(island, mask);
+            if (!island.isPersisted()) {
+                inserts.add(island);
+            } else if (mask != 0) {
+                updatesByMask.computeIfAbsent(mask, k -> new ArrayList<>()).add(island);
+            }
+        }
+        if (inserts.isEmpty() && updatesByMask.isEmpty()) return;
+
+        try {
+            IslandBankManager bankManager = plugin.getIslandBankManager();
+            if (!inserts.isEmpty() && bankManager != null) {
+                // Une insertion lie bank - mouvements en attente : aucun lot du journal ne doit être
+                // validé avant elle, son UPDATE ne trouverait pas encore la ligne
+                bankManager.runWhileFlushBlocked(() -> writeIslandTransaction(inserts, updatesByMask));
+            } else {
+                writeIslandTransaction(inserts, updatesByMask);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Les colonnes n'ont pas été écrites : les remettre dans le masque
+            drainedMasks.forEach(Island::restoreDirtyColumns);
+            throw e;
+        }
+
+        inserts.forEach(Island::markPersisted);
+        updatesByMask.values().forEach(updated -> partialUpdatedIslands.addAndGet(updated.size()));
+    }
+
+    private void writeIslandTransaction(List<Island> inserts, Map<Integer, List<Island>> updatesByMask) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!inserts.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement(ISLAND_UPSERT_QUERY)) {
+                        for (Island island : inserts) {
+                            bindIslandUpsert(ps, island);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
                     }
-                } catch (Exception e) {
-                    // Erreur lors de l'accès au monde, sauvegarder sans les coordonnées
-                    plugin.getLogger().info("Error accessing world for island " + island.getId() + ": " + e.getMessage() + ", saving without location data");
-                    ps.setNull(7, Types.VARCHAR);
-                    ps.setNull(8, Types.DOUBLE);
-                    ps.setNull(9, Types.DOUBLE);
-                    ps.setNull(10, Types.DOUBLE);
-                    ps.setNull(11, Types.FLOAT);
-                    ps.setNull(12, Types.FLOAT);
                 }
-            } else {
-                ps.setNull(7, Types.VARCHAR);
-                ps.setNull(8, Types.DOUBLE);
-                ps.setNull(9, Types.DOUBLE);
-                ps.setNull(10, Types.DOUBLE);
-                ps.setNull(11, Types.FLOAT);
-                ps.setNull(12, Types.FLOAT);
-            }
-
-            ps.setString(13, gson.toJson(island.getMembers()));
-            ps.setString(14, gson.toJson(island.getFlags()));
-            ps.setLong(15, island.getCreationTime());
-            ps.setLong(16, island.getLastActivity());
-            
-            // Nouvelles colonnes pour les améliorations d'île
-            ps.setInt(17, island.getMaxDepositBoxes());
-            ps.setInt(18, island.getMaxHoppers());
-            ps.setDouble(19, island.getHopperTransferSpeed());
-            ps.setInt(20, island.getMaxPrinters());
-            ps.setDouble(21, island.getPrinterGenerationSpeed());
-            ps.setString(22, gson.toJson(island.getDepositBoxes()));
-            ps.setString(23, gson.toJson(island.getPrinters()));
+                for (Map.Entry<Integer, List<Island>> entry : updatesByMask.entrySet()) {
+                    int mask = entry.getKey();
+                    String query = partialUpdateQueries.computeIfAbsent(mask, DatabaseManager::buildPartialUpdateQuery);
+                    try (PreparedStatement ps = conn.prepareStatement(query)) {
+                        for (Island island : entry.getValue()) {
+                            int index = 1;
+                            for (Island.Column column : Island.Column.values()) {
+                                if ((mask & column.mask()) != 0) {
+                                    index = bindColumn(ps, index, island, column);
+                                }
+                            }
+                            ps.setString(index, island.getId().toString());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                // Annuler aussi sur une erreur de liaison : setAutoCommit(true) validerait le reste
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
 
-            ps.executeUpdate();
-            plugin.getLogger().info("Île sauvegardée: " + island.getId());
+    private static String buildPartialUpdateQuery(int mask) {
+        StringJoiner assignments = new StringJoiner(", ");
+        for (Island.Column column : Island.Column.values()) {
+            if ((mask & column.mask()) == 0) continue;
+            for (String columnName : column.getColumnNames()) {
+                assignments.add(columnName + " = ?");
+            }
+        }
+        return "UPDATE islands SET " + assignments + " WHERE id = ?";
+    }
 
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error saving island " + island.getId() + ": " + e.getMessage());
-            e.printStackTrace();
+    private void bindIslandUpsert(PreparedStatement ps, Island island) throws SQLException {
+        ps.setString(1, island.getId().toString());
+        int index = 2;
+        for (Island.Column column : Island.Column.values()) {
+            index = bindColumn(ps, index, island, column);
         }
     }
 
+    /**
+     * Lie la valeur d'une colonne à partir de l'index donné et retourne l'index suivant
+     */
+    private int bindColumn(PreparedStatement ps, int index, Island island, Island.Column column) throws SQLException {
+        switch (column) {
+            case OWNER -> ps.setString(index, island.getOwner().toString());
+            case NAME -> ps.setString(index, island.getName());
+            case LEVEL -> ps.setInt(index, island.getLevel());
+            // Insertion seulement : les mouvements encore en file seront ajoutés par le journal
+            case BANK -> ps.setDouble(index, island.getBank() - unflushedBankAmount(island.getId()));
+            case SIZE -> ps.setInt(index, island.getSize());
+            case CENTER -> {
+                bindCenter(ps, index, island);
+                return index + column.getColumnNames().length;
+            }
+            case MEMBERS -> ps.setString(index, gson.toJson(island.getMembers()));
+            case FLAGS -> ps.setInt(index, island.getFlagBits());
+            case CREATION_TIME -> ps.setLong(index, island.getCreationTime());
+            case LAST_ACTIVITY -> ps.setLong(index, island.getLastActivity());
+            case MAX_DEPOSIT_BOXES -> ps.setInt(index, island.getMaxDepositBoxes());
+            case MAX_HOPPERS -> ps.setInt(index, island.getMaxHoppers());
+            case HOPPER_TRANSFER_SPEED -> ps.setDouble(index, island.getHopperTransferSpeed());
+            case MAX_PRINTERS -> ps.setInt(index, island.getMaxPrinters());
+            case PRINTER_GENERATION_SPEED -> ps.setDouble(index, island.getPrinterGenerationSpeed());
+            case WORTH -> ps.setDouble(index, island.getWorth());
+        }
+        return index + 1;
+    }
+
+    private void bindCenter(PreparedStatement ps, int index, Island island) throws SQLException {
+        Location center = island.getCenterPosition();
+        String worldName = null;
+        try {
+            // Le nom du monde est connu même si le monde n'est pas (encore) chargé
+            worldName = island.getCenterWorldName();
+        } catch (IllegalArgumentException e) {
+            // Monde déchargé entre-temps (référence perdue) : sauvegarder sans les coordonnées
+            plugin.getLogger().info("Error accessing world for island " + island.getId() + ": " + e.getMessage() + ", saving without location data");
+        }
+        if (center != null && worldName != null) {
+            ps.setString(index, worldName);
+            ps.setDouble(index + 1, center.getX());
+            ps.setDouble(index + 2, center.getY());
+            ps.setDouble(index + 3, center.getZ());
+            ps.setFloat(index + 4, center.getYaw());
+            ps.setFloat(index + 5, center.getPitch());
+            return;
+        }
+        ps.setNull(index, Types.VARCHAR);
+        ps.setNull(index + 1, Types.DOUBLE);
+        ps.setNull(index + 2, Types.DOUBLE);
+        ps.setNull(index + 3, Types.DOUBLE);
+        ps.setNull(index + 4, Types.FLOAT);
+        ps.setNull(index + 5, Types.FLOAT);
+    }
+
     public Island loadIsland(UUID islandId) {
-        if (islandsCache.containsKey(islandId)) {
-            return islandsCache.get(islandId);
+        Island cached = islandsCache.get(islandId);
+        if (cached != null) {
+            return cached;
         }
 
+        // Un chargement asynchrone est déjà en cours : partager sa requête
+        CompletableFuture<Island> pending = pendingLoads.get(islandId);
+        if (pending != null) {
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                return null;
+            }
+        }
+        return queryIsland(islandId);
+    }
+
+    /**
+     * Charge une île sans bloquer l'appelant, sur le pool de chargement.
+     * Les demandes simultanées pour la même île partagent une seule requête.
+     */
+    public CompletableFuture<Island> loadIslandAsync(UUID islandId) {
+        Island cached = islandsCache.get(islandId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return pendingLoads.computeIfAbsent(islandId, id -> {
+            CompletableFuture<Island> future = CompletableFuture.supplyAsync(() -> queryIsland(id), loadExecutor);
+            future.whenComplete((island, error) -> {
+                pendingLoads.remove(id);
+                if (error != null) {
+                    plugin.getLogger().severe("Error loading island " + id + " asynchronously: " + error.getMessage());
+                }
+            });
+            return future;
+        });
+    }
+
+    /**
+     * Lecture non bloquante pour le thread principal : l'île si elle est en cache, sinon null.
+     * Sur un défaut de cache, le chargement asynchrone est lancé (voir isIslandLoading).
+     */
+    public Island getIslandIfLoaded(UUID islandId) {
+        Island island = islandsCache.get(islandId);
+        if (island == null && !missingIslands.contains(islandId)) {
+            loadIslandAsync(islandId);
+        }
+        return island;
+    }
+
+    public boolean isIslandLoading(UUID islandId) {
+        return pendingLoads.containsKey(islandId);
+    }
+
+    private Island queryIsland(UUID islandId) {
+        return withBankFlushBlocked(() -> readIsland(islandId));
+    }
+
+    private Island readIsland(UUID islandId) {
         String query = "SELECT * FROM islands WHERE id = ?";
         try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
             ps.setString(1, islandId.toString());
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
                 Island island = mapResultSetToIsland(rs);
-                islandsCache.put(islandId, island);
+                loadIslandContents(conn, id -> id.equals(islandId) ? island : null, islandId);
+                // Chargée entre-temps par un autre chemin : garder l'instance déjà partagée
+                Island existing = islandsCache.peek(islandId);
+                if (existing != null) {
+                    return existing;
+                }
+                cacheIsland(island);
                 return island;
             }
+            missingIslands.add(islandId);
         } catch (SQLException e) {
             plugin.getLogger().severe("Error loading island " + islandId + ": " + e.getMessage());
         }
@@ -257,67 +650,788 @@ public class DatabaseManager {
     }
 
     public void deleteIsland(UUID islandId) {
-        islandsCache.remove(islandId);
-        String query = "DELETE FROM islands WHERE id = ?";
+        Island removed = islandsCache.remove(islandId);
+        if (removed != null) {
+            removed.setMembershipListener(null);
+            unindexMembership(removed);
+        }
+        if (plugin.getWorldManager() != null) {
+            plugin.getWorldManager().getIslandWorldCache().detach(islandId);
+        }
+        locationIndex.remove(islandId);
+        // Sous le verrou d'écriture : un flush en cours ne peut pas réinsérer l'île après le DELETE
+        synchronized (flushLock) {
+            dirtyIslands.remove(islandId);
+            dirtyContents.values().removeIf(write -> islandId.equals(write.islandId()));
+            String query = "DELETE FROM islands WHERE id = ?";
+            try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
+                ps.setString(1, islandId.toString());
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Error deleting island " + islandId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // --- Index spatial ---
+
+    /**
+     * Obtient l'ID de l'île qui contient la location, sans parcourir les îles
+     */
+    public UUID getIslandIdAtLocation(Location location) {
+        return locationIndex.getIslandIdAt(location);
+    }
+
+    /**
+     * Indexe une île d'après son centre, si son monde est chargé
+     */
+    private void indexIsland(Island island) {
+        Location center = island.getCenter();
+        if (center == null) return;
+
+        World world;
+        try {
+            world = center.getWorld();
+        } catch (IllegalArgumentException e) {
+            return; // Monde déchargé, l'île sera indexée à son rechargement
+        }
+        if (world == null) return;
+        locationIndex.update(island.getId(), world.getName(), center.getX(), center.getY(), center.getZ(), island.getSize());
+    }
+
+    /**
+     * Indexe l'île d'un monde qui vient d'être chargé
+     */
+    public void indexIslandWorld(UUID islandId, World world) {
+        Island island = islandsCache.peek(islandId);
+        if (island == null) return;
+
+        Location center = island.getCenter();
+        double x = center != null ? center.getX() : 0;
+        double y = center != null ? center.getY() : 64;
+        double z = center != null ? center.getZ() : 0;
+        locationIndex.update(islandId, world.getName(), x, y, z, island.getSize());
+    }
+
+    /**
+     * Retire de l'index les îles d'un monde déchargé
+     */
+    public void unindexWorld(String worldName) {
+        locationIndex.removeWorld(worldName);
+    }
+
+    public int getIndexedIslandCount() {
+        return locationIndex.size();
+    }
+
+    /**
+     * Îles actuellement en cache seulement : les îles évincées n'y figurent pas
+     */
+    public Collection<Island> getCachedIslands() {
+        return islandsCache.values();
+    }
+
+    public Island getIslandByOwner(UUID ownerUuid) {
+        UUID islandId = islandsByOwner.get(ownerUuid);
+        return islandId != null ? loadIsland(islandId) : null;
+    }
+
+    /**
+     * Obtient une île dont le joueur est membre (hors propriétaire), ou null
+     */
+    public Island getIslandByMember(UUID memberUuid) {
+        Set<UUID> islandIds = islandsByMember.get(memberUuid);
+        if (islandIds == null) return null;
+        for (UUID islandId : islandIds) {
+            Island island = loadIsland(islandId);
+            if (island != null) {
+                return island;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtient les IDs des îles dont le joueur est membre (hors propriétaire)
+     */
+    public Set<UUID> getIslandIdsByMember(UUID memberUuid) {
+        Set<UUID> islandIds = islandsByMember.get(memberUuid);
+        return islandIds != null ? Collections.unmodifiableSet(islandIds) : Collections.emptySet();
+    }
+
+    // --- Index propriétaire / membres ---
+
+    /**
+     * Met l'île en cache ; à sa première mise en cache, l'indexe et s'abonne à ses
+     * changements de membres et de propriétaire
+     */
+    private void cacheIsland(Island island) {
+        missingIslands.remove(island.getId());
+        Island previous = islandsCache.put(island.getId(), island);
+        if (previous != island) {
+            if (previous != null) {
+                previous.setMembershipListener(null);
+                unindexMembership(previous);
+            }
+            indexMembership(island);
+            island.setMembershipListener(membershipIndexer);
+            if (plugin.getWorldManager() != null) {
+                plugin.getWorldManager().getIslandWorldCache().attach(island);
+            }
+            // Index des imprimantes et caisses : pointer sur les instances de cette île
+            if (plugin.getPrinterManager() != null) {
+                plugin.getPrinterManager().onIslandCached(island);
+            }
+            if (plugin.getDepositBoxManager() != null) {
+                plugin.getDepositBoxManager().onIslandCached(island);
+            }
+        }
+        indexIsland(island);
+    }
+
+    private void indexMembership(Island island) {
+        islandsByOwner.put(island.getOwner(), island.getId());
+        for (UUID member : island.getMembers()) {
+            addMemberIndex(member, island.getId());
+        }
+    }
+
+    private void unindexMembership(Island island) {
+        islandsByOwner.remove(island.getOwner(), island.getId());
+        for (UUID member : island.getMembers()) {
+            removeMemberIndex(member, island.getId());
+        }
+    }
+
+    private void addMemberIndex(UUID member, UUID islandId) {
+        islandsByMember.computeIfAbsent(member, k -> ConcurrentHashMap.newKeySet()).add(islandId);
+    }
+
+    private void removeMemberIndex(UUID member, UUID islandId) {
+        islandsByMember.computeIfPresent(member, (k, islandIds) -> {
+            islandIds.remove(islandId);
+            return islandIds.isEmpty() ? null : islandIds;
+        });
+    }
+
+    // --- Imprimantes et Caisses de Dépôt ---
+
+    // Écritures mises en file d'écriture différée : aucun accès JDBC sur le thread appelant.
+    // Le JSON est produit tout de suite, l'objet pouvant encore changer avant le vidage.
+
+    public void savePrinter(UUID islandId, PrinterData printer) {
+        queueContentWrite(new ContentWrite("island_printers", printer.getId(), islandId, printer.getOwner(), gson.toJson(printer)));
+    }
+
+    public void deletePrinter(UUID islandId, String printerId) {
+        queueContentWrite(new ContentWrite("island_printers", printerId, islandId, null, null));
+    }
+
+    public void saveDepositBox(UUID islandId, DepositBoxData depositBox) {
+        queueContentWrite(new ContentWrite("island_deposit_boxes", depositBox.getId(), islandId, depositBox.getOwner(), gson.toJson(depositBox)));
+    }
+
+    public void deleteDepositBox(UUID islandId, String depositBoxId) {
+        queueContentWrite(new ContentWrite("island_deposit_boxes", depositBoxId, islandId, null, null));
+    }
+
+    private void queueContentWrite(ContentWrite write) {
+        if (!write.isDelete()) {
+            // La clé étrangère exige la ligne de l'île : la mettre dans le même vidage, écrite avant
+            Island island = islandsCache.peek(write.islandId());
+            if (island != null && !island.isPersisted()) {
+                saveIsland(island);
+            }
+        }
+        dirtyContents.put(write.key(), write);
+    }
+
+    /**
+     * Écrit les lignes d'imprimantes et de caisses en attente dans une transaction ;
+     * en cas d'échec elles sont remises en file. À appeler sous flushLock.
+     */
+    private void writeContentsOrRequeue() {
+        if (dirtyContents.isEmpty()) return;
+
+        List<ContentWrite> writes = new ArrayList<>();
+        for (String key : new ArrayList<>(dirtyContents.keySet())) {
+            ContentWrite write = dirtyContents.remove(key);
+            if (write != null) {
+                writes.add(write);
+            }
+        }
+        if (writes.isEmpty()) return;
+
+        Map<String, List<ContentWrite>> upserts = new HashMap<>();
+        Map<String, List<ContentWrite>> deletes = new HashMap<>();
+        for (ContentWrite write : writes) {
+            (write.isDelete() ? deletes : upserts).computeIfAbsent(write.table(), k -> new ArrayList<>()).add(write);
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<String, List<ContentWrite>> entry : upserts.entrySet()) {
+                    String query = "INSERT INTO " + entry.getKey() + " (id, island_id, owner_uuid, data) VALUES (?, ?, ?, ?) " +
+                            "ON CONFLICT (id) DO UPDATE SET island_id = EXCLUDED.island_id, owner_uuid = EXCLUDED.owner_uuid, data = EXCLUDED.data";
+                    try (PreparedStatement ps = conn.prepareStatement(query)) {
+                        for (ContentWrite write : entry.getValue()) {
+                            ps.setString(1, write.id());
+                            ps.setString(2, write.islandId().toString());
+                            ps.setString(3, write.owner().toString());
+                            ps.setString(4, write.json());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                for (Map.Entry<String, List<ContentWrite>> entry : deletes.entrySet()) {
+                    try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + entry.getKey() + " WHERE id = ?")) {
+                        for (ContentWrite write : entry.getValue()) {
+                            ps.setString(1, write.id());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            // Remettre en file sans écraser une opération plus récente sur la même ligne
+            writes.forEach(write -> dirtyContents.putIfAbsent(write.key(), write));
+            plugin.getLogger().severe("Error flushing " + writes.size() + " printer/deposit box rows: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Écriture en attente d'une ligne d'imprimante ou de caisse (json null pour une suppression)
+     */
+    private record ContentWrite(String table, String id, UUID islandId, UUID owner, String json) {
+        private boolean isDelete() {
+            return json == null;
+        }
+
+        private String key() {
+            return table + ':' + id;
+        }
+    }
+
+    /**
+     * Toutes les imprimantes en base, par île, îles hors cache comprises
+     */
+    public Map<UUID, List<PrinterData>> loadPrinters() {
+        return loadContentRows("island_printers", PrinterData.class);
+    }
+
+    /**
+     * Toutes les caisses de dépôt en base, par île, îles hors cache comprises
+     */
+    public Map<UUID, List<DepositBoxData>> loadDepositBoxes() {
+        return loadContentRows("island_deposit_boxes", DepositBoxData.class);
+    }
+
+    private <T> Map<UUID, List<T>> loadContentRows(String table, Class<T> type) {
+        Map<UUID, List<T>> rows = new HashMap<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT island_id, id, data FROM " + table)) {
+            ps.setFetchSize(CONTENTS_FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try {
+                        T content = gson.fromJson(rs.getString("data"), type);
+                        rows.computeIfAbsent(UUID.fromString(rs.getString("island_id")), k -> new ArrayList<>()).add(content);
+                    } catch (JsonParseException e) {
+                        plugin.getLogger().warning("Could not load " + table + " row " + rs.getString("id") + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error loading " + table + ": " + e.getMessage());
+        }
+        return rows;
+    }
+
+    /**
+     * Rattache les imprimantes et caisses de dépôt aux îles données
+     * (toutes les lignes si islandId est null, sinon celles de cette île)
+     */
+    private void loadIslandContents(Connection conn, Function<UUID, Island> islands, UUID islandId) throws SQLException {
+        String filter = islandId != null ? " WHERE island_id = ?" : "";
+
+        try (PreparedStatement ps = conn.prepareStatement("SELECT island_id, id, data FROM island_printers" + filter)) {
+            if (islandId != null) ps.setString(1, islandId.toString());
+            else ps.setFetchSize(CONTENTS_FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Island island = islands.apply(UUID.fromString(rs.getString("island_id")));
+                    if (island == null) continue;
+                    try {
+                        island.addPrinter(gson.fromJson(rs.getString("data"), PrinterData.class));
+                    } catch (JsonParseException e) {
+                        plugin.getLogger().warning("Could not load printer " + rs.getString("id") + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("SELECT island_id, id, data FROM island_deposit_boxes" + filter)) {
+            if (islandId != null) ps.setString(1, islandId.toString());
+            else ps.setFetchSize(CONTENTS_FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Island island = islands.apply(UUID.fromString(rs.getString("island_id")));
+                    if (island == null) continue;
+                    try {
+                        island.addDepositBox(gson.fromJson(rs.getString("data"), DepositBoxData.class));
+                    } catch (JsonParseException e) {
+                        plugin.getLogger().warning("Could not load deposit box " + rs.getString("id") + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Migration unique : déplace le contenu des colonnes JSON islands.printers et
+     * islands.deposit_boxes vers les tables island_printers et island_deposit_boxes.
+     * Les éléments sont recopiés tels quels, sans désérialiser les Location.
+     */
+    private void migrateLegacyJsonContents() {
+        String select = "SELECT id, printers, deposit_boxes FROM islands " +
+                "WHERE (printers IS NOT NULL AND printers <> '{}') OR (deposit_boxes IS NOT NULL AND deposit_boxes <> '{}')";
+        String insertPrinter = "INSERT INTO island_printers (id, island_id, owner_uuid, data) VALUES (?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+        String insertDepositBox = "INSERT INTO island_deposit_boxes (id, island_id, owner_uuid, data) VALUES (?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+        String clearColumns = "UPDATE islands SET printers = NULL, deposit_boxes = NULL WHERE id = ?";
+
+        int migratedIslands = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement selectPs = conn.prepareStatement(select);
+                 PreparedStatement printerPs = conn.prepareStatement(insertPrinter);
+                 PreparedStatement depositBoxPs = conn.prepareStatement(insertDepositBox);
+                 PreparedStatement clearPs = conn.prepareStatement(clearColumns);
+                 ResultSet rs = selectPs.executeQuery()) {
+                while (rs.next()) {
+                    String islandId = rs.getString("id");
+                    addLegacyRows(printerPs, islandId, rs.getString("printers"));
+                    addLegacyRows(depositBoxPs, islandId, rs.getString("deposit_boxes"));
+                    clearPs.setString(1, islandId);
+                    clearPs.addBatch();
+                    migratedIslands++;
+                }
+                printerPs.executeBatch();
+                depositBoxPs.executeBatch();
+                clearPs.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            plugin.getLogger().severe("Could not migrate printers/deposit boxes to their tables: " + e.getMessage());
+            return;
+        }
+
+        if (migratedIslands > 0) {
+            plugin.getLogger().info("Imprimantes et caisses de dépôt migrées pour " + migratedIslands + " îles");
+        }
+    }
+
+    /**
+     * Migration unique : convertit la colonne JSON islands.flags en masque dans islands.flag_bits.
+     * Les flags absents du JSON gardent leur valeur par défaut.
+     */
+    private void migrateLegacyFlags() {
+        String select = "SELECT id, flags FROM islands WHERE flag_bits IS NULL";
+        String update = "UPDATE islands SET flag_bits = ?, flags = NULL WHERE id = ?";
+
+        int migratedIslands = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement selectPs = conn.prepareStatement(select);
+                 PreparedStatement updatePs = conn.prepareStatement(update);
+                 ResultSet rs = selectPs.executeQuery()) {
+                while (rs.next()) {
+                    updatePs.setInt(1, decodeLegacyFlags(rs.getString("flags")));
+                    updatePs.setString(2, rs.getString("id"));
+                    updatePs.addBatch();
+                    migratedIslands++;
+                }
+                updatePs.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            plugin.getLogger().severe("Could not migrate island flags to flag_bits: " + e.getMessage());
+            return;
+        }
+
+        if (migratedIslands > 0) {
+            plugin.getLogger().info("Flags migrés vers flag_bits pour " + migratedIslands + " îles");
+        }
+    }
+
+    private int decodeLegacyFlags(String json) {
+        int bits = Island.DEFAULT_FLAG_BITS;
+        if (json == null || json.isEmpty()) return bits;
+
+        Map<Island.IslandFlag, Boolean> flags = gson.fromJson(json, FLAGS_TYPE);
+        if (flags == null) return bits;
+        for (Map.Entry<Island.IslandFlag, Boolean> entry : flags.entrySet()) {
+            // Flag inconnu de cette version : clé null
+            if (entry.getKey() == null || entry.getValue() == null) continue;
+            bits = entry.getValue() ? bits | entry.getKey().mask() : bits & ~entry.getKey().mask();
+        }
+        return bits;
+    }
+
+    private void addLegacyRows(PreparedStatement ps, String islandId, String json) throws SQLException {
+        if (json == null || json.isEmpty()) return;
+        JsonElement root = JsonParser.parseString(json);
+        if (!root.isJsonObject()) return;
+
+        for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject().entrySet()) {
+            JsonObject element = entry.getValue().getAsJsonObject();
+            ps.setString(1, entry.getKey());
+            ps.setString(2, islandId);
+            ps.setString(3, element.get("owner").getAsString());
+            ps.setString(4, element.toString());
+            ps.addBatch();
+        }
+    }
+
+    // --- Warps et Promotions ---
+
+    private static final String WARP_INSERT_COLUMNS = "INSERT INTO island_warps (id, island_id, name, description, is_public, creation_time, visits, world, x, y, z, yaw, pitch) ";
+
+    /**
+     * Charge tous les warps ; les visites encore dans le journal sont ajoutées au compteur replié
+     */
+    public List<IslandWarp> loadWarps() {
+        List<IslandWarp> warps = new ArrayList<>();
+        String query = "SELECT w.*, COALESCE(v.pending, 0) AS pending_visits FROM island_warps w " +
+                "LEFT JOIN (SELECT warp_id, SUM(visits) AS pending FROM island_warp_visits GROUP BY warp_id) v ON v.warp_id = w.id";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String worldName = rs.getString("world");
+                Location location = new Location(worldName != null ? Bukkit.getWorld(worldName) : null,
+                        rs.getDouble("x"), rs.getDouble("y"), rs.getDouble("z"), rs.getFloat("yaw"), rs.getFloat("pitch"));
+
+                IslandWarp warp = new IslandWarp(UUID.fromString(rs.getString("id")), UUID.fromString(rs.getString("island_id")),
+                        rs.getString("name"), rs.getString("description"), location);
+                warp.setPublic(rs.getBoolean("is_public"));
+                warp.setCreationTime(rs.getLong("creation_time"));
+                warp.setVisits((int) (rs.getLong("visits") + rs.getLong("pending_visits")));
+                warps.add(warp);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error loading warps: " + e.getMessage());
+        }
+        return warps;
+    }
+
+    /**
+     * Insère ou met à jour un warp. Le compteur de visites n'est écrit qu'à l'insertion :
+     * ensuite il n'évolue que par le journal des visites.
+     */
+    public void saveWarp(IslandWarp warp) {
+        String query = WARP_INSERT_COLUMNS + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description, is_public = EXCLUDED.is_public, " +
+                "world = EXCLUDED.world, x = EXCLUDED.x, y = EXCLUDED.y, z = EXCLUDED.z, yaw = EXCLUDED.yaw, pitch = EXCLUDED.pitch";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
+            bindWarp(ps, warp);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error saving warp " + warp.getId() + ": " + e.getMessage());
+        }
+    }
+
+    public void deleteWarp(UUID warpId) {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement warp = conn.prepareStatement("DELETE FROM island_warps WHERE id = ?");
+                 PreparedStatement visits = conn.prepareStatement("DELETE FROM island_warp_visits WHERE warp_id = ?")) {
+                warp.setString(1, warpId.toString());
+                warp.executeUpdate();
+                visits.setString(1, warpId.toString());
+                visits.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error deleting warp " + warpId + ": " + e.getMessage());
+        }
+    }
+
+    private void bindWarp(PreparedStatement ps, IslandWarp warp) throws SQLException {
+        Location location = warp.getLocation();
+        World world = location.getWorld();
+
+        ps.setString(1, warp.getId().toString());
+        ps.setString(2, warp.getIslandId().toString());
+        ps.setString(3, warp.getName());
+        ps.setString(4, warp.getDescription());
+        ps.setBoolean(5, warp.isPublic());
+        ps.setLong(6, warp.getCreationTime());
+        ps.setLong(7, warp.getVisits());
+        if (world != null) {
+            ps.setString(8, world.getName());
+        } else {
+            ps.setNull(8, Types.VARCHAR);
+        }
+        ps.setDouble(9, location.getX());
+        ps.setDouble(10, location.getY());
+        ps.setDouble(11, location.getZ());
+        ps.setFloat(12, location.getYaw());
+        ps.setFloat(13, location.getPitch());
+    }
+
+    /**
+     * Ajoute des visites au journal (une ligne par warp). Retourne false en cas d'échec.
+     */
+    public boolean appendWarpVisits(Map<UUID, Integer> visits) {
+        if (visits.isEmpty()) return true;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO island_warp_visits (warp_id, visits) VALUES (?, ?)")) {
+            for (Map.Entry<UUID, Integer> entry : visits.entrySet()) {
+                ps.setString(1, entry.getKey().toString());
+                ps.setInt(2, entry.getValue());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error appending " + visits.size() + " warp visits: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Replie le journal des visites dans island_warps.visits, en une transaction.
+     * Retourne le nombre de lignes de journal compactées.
+     */
+    public int compactWarpVisits() {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT MAX(seq) FROM island_warp_visits")) {
+                long maxSeq = rs.next() ? rs.getLong(1) : 0;
+                if (maxSeq == 0) {
+                    conn.commit();
+                    return 0;
+                }
+
+                // Les lignes ajoutées pendant le compactage (seq > maxSeq) restent pour le prochain passage
+                try (PreparedStatement fold = conn.prepareStatement(
+                        "UPDATE island_warps w SET visits = w.visits + v.total " +
+                        "FROM (SELECT warp_id, SUM(visits) AS total FROM island_warp_visits WHERE seq <= ? GROUP BY warp_id) v " +
+                        "WHERE w.id = v.warp_id");
+                     PreparedStatement purge = conn.prepareStatement("DELETE FROM island_warp_visits WHERE seq <= ?")) {
+                    fold.setLong(1, maxSeq);
+                    fold.executeUpdate();
+                    purge.setLong(1, maxSeq);
+                    int compacted = purge.executeUpdate();
+                    conn.commit();
+                    return compacted;
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error compacting warp visits: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Promotions encore actives ; les expirées sont supprimées au passage
+     */
+    public Map<UUID, Long> loadPromotions() {
+        Map<UUID, Long> promotions = new HashMap<>();
+        long now = System.currentTimeMillis();
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement purge = conn.prepareStatement("DELETE FROM island_promotions WHERE expiration_time < ?")) {
+                purge.setLong(1, now);
+                purge.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("SELECT island_id, expiration_time FROM island_promotions");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    promotions.put(UUID.fromString(rs.getString("island_id")), rs.getLong("expiration_time"));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error loading promotions: " + e.getMessage());
+        }
+        return promotions;
+    }
+
+    public void savePromotion(UUID islandId, long expirationTime) {
+        String query = "INSERT INTO island_promotions (island_id, expiration_time) VALUES (?, ?) " +
+                "ON CONFLICT (island_id) DO UPDATE SET expiration_time = EXCLUDED.expiration_time";
         try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
             ps.setString(1, islandId.toString());
+            ps.setLong(2, expirationTime);
             ps.executeUpdate();
         } catch (SQLException e) {
-            plugin.getLogger().severe("Error deleting island " + islandId + ": " + e.getMessage());
+            plugin.getLogger().severe("Error saving promotion for island " + islandId + ": " + e.getMessage());
         }
     }
 
-    public Collection<Island> getAllIslands() {
-        return islandsCache.values();
+    public void deletePromotions(Collection<UUID> islandIds) {
+        if (islandIds.isEmpty()) return;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM island_promotions WHERE island_id = ?")) {
+            for (UUID islandId : islandIds) {
+                ps.setString(1, islandId.toString());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error deleting " + islandIds.size() + " promotions: " + e.getMessage());
+        }
     }
 
-    public Island getIslandByOwner(UUID ownerUuid) {
-        return islandsCache.values().stream()
-                .filter(island -> island.getOwner().equals(ownerUuid))
-                .findFirst()
-                .orElse(null);
+    /**
+     * Importe les warps et promotions des anciens fichiers YAML. Les lignes dont l'île
+     * n'existe plus sont ignorées, celles déjà présentes ne sont pas écrasées.
+     */
+    public boolean importLegacyWarps(List<IslandWarp> warps, Map<UUID, Long> promotions) {
+        String warpQuery = WARP_INSERT_COLUMNS + "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? " +
+                "WHERE EXISTS (SELECT 1 FROM islands WHERE id = ?) ON CONFLICT (id) DO NOTHING";
+        String promotionQuery = "INSERT INTO island_promotions (island_id, expiration_time) SELECT ?, ? " +
+                "WHERE EXISTS (SELECT 1 FROM islands WHERE id = ?) ON CONFLICT (island_id) DO NOTHING";
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement warpPs = conn.prepareStatement(warpQuery);
+                 PreparedStatement promotionPs = conn.prepareStatement(promotionQuery)) {
+                for (IslandWarp warp : warps) {
+                    bindWarp(warpPs, warp);
+                    warpPs.setString(14, warp.getIslandId().toString());
+                    warpPs.addBatch();
+                }
+                for (Map.Entry<UUID, Long> entry : promotions.entrySet()) {
+                    promotionPs.setString(1, entry.getKey().toString());
+                    promotionPs.setLong(2, entry.getValue());
+                    promotionPs.setString(3, entry.getKey().toString());
+                    promotionPs.addBatch();
+                }
+                warpPs.executeBatch();
+                promotionPs.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error importing legacy warps: " + e.getMessage());
+            return false;
+        }
     }
 
     // --- Gestion des Joueurs ---
 
     public void savePlayer(SkyblockPlayer player) {
         playersCache.put(player.getUuid(), player);
+        // Effacé avant l'écriture : une modification concurrente restera à écrire
+        player.clearDirty();
 
-        String query = "INSERT INTO skyblock_players (uuid, name, island_id, first_join, last_seen, island_resets, member_of_islands, player_data) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
-                "ON CONFLICT (uuid) DO UPDATE SET " +
-                "name = EXCLUDED.name, island_id = EXCLUDED.island_id, first_join = EXCLUDED.first_join, " +
-                "last_seen = EXCLUDED.last_seen, island_resets = EXCLUDED.island_resets, " +
-                "member_of_islands = EXCLUDED.member_of_islands, player_data = EXCLUDED.player_data";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(PLAYER_UPSERT_QUERY)) {
+            bindPlayerUpsert(ps, player);
+            ps.executeUpdate();
+            plugin.getLogger().info("Joueur sauvegardé: " + player.getName());
 
-        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
-            ps.setString(1, player.getUuid().toString());
-            ps.setString(2, player.getName());
+        } catch (SQLException e) {
+            player.markDirty();
+            plugin.getLogger().severe("Error saving player " + player.getUuid() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Écrit un lot de joueurs en une seule transaction ; en cas d'échec ils restent à écrire
+     */
+    private int writePlayers(List<SkyblockPlayer> players) {
+        if (players.isEmpty()) return 0;
+        players.forEach(SkyblockPlayer::clearDirty);
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(PLAYER_UPSERT_QUERY)) {
+                for (SkyblockPlayer player : players) {
+                    bindPlayerUpsert(ps, player);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+                return players.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            players.forEach(SkyblockPlayer::markDirty);
+            plugin.getLogger().severe("Error saving " + players.size() + " players: " + e.getMessage());
+            return 0;
+        }
+    }
 
-            if (player.getIslandId() != null) {
-                ps.setString(3, player.getIslandId().toString());
-            } else {
-                ps.setNull(3, Types.VARCHAR);
-            }
+    private void bindPlayerUpsert(PreparedStatement ps, SkyblockPlayer player) throws SQLException {
+        ps.setString(1, player.getUuid().toString());
+        ps.setString(2, player.getName());
 
-            ps.setLong(4, player.getFirstJoin());
-            ps.setLong(5, player.getLastSeen());
-            ps.setInt(6, player.getIslandResets());
-            ps.setString(7, gson.toJson(player.getMemberOfIslands()));
-            ps.setString(8, gson.toJson(player.getData()));
+        if (player.getIslandId() != null) {
+            ps.setString(3, player.getIslandId().toString());
+        } else {
+            ps.setNull(3, Types.VARCHAR);
+        }
 
-            ps.executeUpdate();
-            plugin.getLogger().info("Joueur sauvegardé: " + player.getName());
+        ps.setLong(4, player.getFirstJoin());
+        ps.setLong(5, player.getLastSeen());
+        ps.setInt(6, player.getIslandResets());
+        ps.setString(7, gson.toJson(player.getMemberOfIslands()));
+        ps.setString(8, gson.toJson(player.getData()));
+    }
 
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error saving player " + player.getUuid() + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+    /**
+     * Le joueur s'il est en cache, sans requête ni effet sur l'ordre LRU ; null sinon
+     */
+    public SkyblockPlayer getCachedPlayer(UUID playerUuid) {
+        return playersCache.peek(playerUuid);
     }
 
     public SkyblockPlayer loadPlayer(UUID playerUuid) {
-        if (playersCache.containsKey(playerUuid)) {
-            return playersCache.get(playerUuid);
+        SkyblockPlayer cached = playersCache.get(playerUuid);
+        if (cached != null) {
+            return cached;
         }
 
         String query = "SELECT * FROM skyblock_players WHERE uuid = ?";
@@ -347,7 +1461,10 @@ public class DatabaseManager {
         return player;
     }
 
-    public Collection<SkyblockPlayer> getAllPlayers() {
+    /**
+     * Joueurs actuellement en cache seulement : les joueurs évincés n'y figurent pas
+     */
+    public Collection<SkyblockPlayer> getCachedPlayers() {
         return playersCache.values();
     }
 
@@ -355,43 +1472,274 @@ public class DatabaseManager {
 
     public void saveAll() {
         plugin.getLogger().info("Saving all data to database...");
-        islandsCache.values().forEach(this::saveIsland);
-        playersCache.values().forEach(this::savePlayer);
+        for (Island island : islandsCache.values()) {
+            if (island.hasPendingChanges()) {
+                dirtyIslands.putIfAbsent(island.getId(), island);
+            }
+        }
+        flushDirtyIslands();
+
+        List<SkyblockPlayer> players = getDirtyPlayers();
+        for (int i = 0; i < players.size(); i += flushBatchSize) {
+            writePlayers(players.subList(i, Math.min(i + flushBatchSize, players.size())));
+        }
         plugin.getLogger().info("Save complete!");
     }
 
+    // --- Checkpoints incrémentaux ---
+
+    /**
+     * Îles ayant des modifications non écrites : file d'écriture différée et îles du cache
+     */
+    public List<Island> getIslandsWithPendingChanges() {
+        Map<UUID, Island> pending = new LinkedHashMap<>(dirtyIslands);
+        for (Island island : islandsCache.values()) {
+            if (island.hasPendingChanges()) {
+                pending.putIfAbsent(island.getId(), island);
+            }
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    public List<SkyblockPlayer> getDirtyPlayers() {
+        List<SkyblockPlayer> players = new ArrayList<>();
+        for (SkyblockPlayer player : playersCache.values()) {
+            if (player.isDirty()) {
+                players.add(player);
+            }
+        }
+        return players;
+    }
+
+    /**
+     * Écrit une tranche d'îles d'un checkpoint. Retourne le nombre d'îles écrites.
+     */
+    public int checkpointIslands(List<Island> islands) {
+        if (islands.isEmpty()) return 0;
+        synchronized (flushLock) {
+            flushing = true;
+            try {
+                islands.forEach(island -> dirtyIslands.remove(island.getId()));
+                int written = writeBatchOrRequeue(islands);
+                flushedIslands.addAndGet(written);
+                return written;
+            } finally {
+                flushing = false;
+            }
+        }
+    }
+
+    /**
+     * Écrit une tranche de joueurs d'un checkpoint. Retourne le nombre de joueurs écrits.
+     */
+    public int checkpointPlayers(List<SkyblockPlayer> players) {
+        return writePlayers(players);
+    }
+
+    /**
+     * Chargement initial en flux : les lignes sont lues par paquets (fetch size) sur la connexion
+     * et décodées en parallèle sur un pool dédié, puis mises en cache dans l'ordre de lecture
+     */
     private void loadAll() {
-        plugin.getLogger().info("Loading all islands from database...");
-        String islandQuery = "SELECT * FROM islands";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement ps = conn.prepareStatement(islandQuery);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                Island island = mapResultSetToIsland(rs);
-                islandsCache.put(island.getId(), island);
+        long start = System.nanoTime();
+        int fetchSize = Math.max(1, plugin.getConfig().getInt("database.startup.fetch-size", 1000));
+        int decodeThreads = Math.max(1, plugin.getConfig().getInt("database.startup.decode-threads",
+                Runtime.getRuntime().availableProcessors()));
+        ExecutorService decodePool = createThreadPool(decodeThreads, "Skyblock-StartupDecoder-");
+
+        try {
+            plugin.getLogger().info("Loading all islands from database...");
+            int islands = withBankFlushBlocked(() -> streamRows("SELECT * FROM islands", fetchSize, decodePool, IslandRow::read,
+                    this::decodeIsland, this::cacheIsland, conn -> loadIslandContents(conn, islandsCache::peek, null)));
+            plugin.getLogger().info(islands + " islands loaded!");
+
+            plugin.getLogger().info("Loading all players from database...");
+            int players = streamRows("SELECT * FROM skyblock_players", fetchSize, decodePool, PlayerRow::read, this::decodePlayer,
+                    player -> playersCache.put(player.getUuid(), player), null);
+            plugin.getLogger().info(players + " players loaded!");
+
+            startupLoadMillis = (System.nanoTime() - start) / 1_000_000L;
+            plugin.getLogger().info("Chargement initial: " + islands + " îles et " + players + " joueurs en "
+                    + startupLoadMillis + "ms (" + decodeThreads + " threads de décodage, fetch size " + fetchSize + ")");
+        } finally {
+            decodePool.shutdown();
+        }
+
+        // Les index couvrent toutes les îles ; le cache, lui, revient sous ses limites
+        evictExcess();
+    }
+
+    /**
+     * Lit une table en flux et décode ses lignes en parallèle, par paquets de fetchSize.
+     * Retourne le nombre d'entités chargées.
+     */
+    private <R, T> int streamRows(String query, int fetchSize, ExecutorService decodePool,
+                                  RowReader<R> reader, Function<R, T> decoder, Consumer<T> sink,
+                                  ConnectionTask afterRows) {
+        int loaded = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            // PostgreSQL ne lit par curseur (fetch size) qu'en dehors de l'auto-commit
+            conn.setAutoCommit(false);
+            try {
+                List<CompletableFuture<List<T>>> chunks = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(query)) {
+                    ps.setFetchSize(fetchSize);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        List<R> chunk = new ArrayList<>(fetchSize);
+                        while (rs.next()) {
+                            chunk.add(reader.read(rs));
+                            if (chunk.size() >= fetchSize) {
+                                chunks.add(decodeChunk(chunk, decoder, decodePool));
+                                chunk = new ArrayList<>(fetchSize);
+                            }
+                        }
+                        if (!chunk.isEmpty()) {
+                            chunks.add(decodeChunk(chunk, decoder, decodePool));
+                        }
+                    }
+                }
+
+                for (CompletableFuture<List<T>> future : chunks) {
+                    for (T entity : future.join()) {
+                        sink.accept(entity);
+                        loaded++;
+                    }
+                }
+                if (afterRows != null) {
+                    afterRows.run(conn);
+                }
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
-            plugin.getLogger().severe("Error loading all islands: " + e.getMessage());
+            plugin.getLogger().severe("Error loading rows (" + query + "): " + e.getMessage());
         }
-        plugin.getLogger().info(islandsCache.size() + " islands loaded!");
+        return loaded;
+    }
 
-        plugin.getLogger().info("Loading all players from database...");
-        String playerQuery = "SELECT * FROM skyblock_players";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement ps = conn.prepareStatement(playerQuery);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                SkyblockPlayer player = mapResultSetToPlayer(rs);
-                playersCache.put(player.getUuid(), player);
+    private <R, T> CompletableFuture<List<T>> decodeChunk(List<R> rows, Function<R, T> decoder, ExecutorService decodePool) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<T> decoded = new ArrayList<>(rows.size());
+            for (R row : rows) {
+                try {
+                    decoded.add(decoder.apply(row));
+                } catch (RuntimeException e) {
+                    // Ligne corrompue (JSON invalide...) : l'ignorer sans perdre le reste du paquet
+                    plugin.getLogger().warning("Could not decode row: " + e.getMessage());
+                }
             }
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Error loading all players: " + e.getMessage());
+            return decoded;
+        }, decodePool);
+    }
+
+    @FunctionalInterface
+    private interface RowReader<R> {
+        R read(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionTask {
+        void run(Connection conn) throws SQLException;
+    }
+
+    // --- Éviction du cache ---
+
+    /**
+     * Évince les îles et joueurs les moins récemment utilisés au-delà des limites configurées.
+     * Les îles dont le monde est chargé ou dont un membre est en ligne, et les joueurs
+     * en ligne, ne sont jamais évincés. Aucune écriture ici : les îles en attente d'écriture
+     * (colonnes, imprimantes ou caisses) sont confiées au vidage asynchrone et évincées à
+     * un passage suivant, et rien n'est évincé pendant un vidage.
+     * À appeler depuis le thread principal.
+     */
+    public void evictExcess() {
+        List<Island> islandVictims = islandsCache.selectVictims(maxCachedIslands, maxCachedIslandBytes,
+                DatabaseManager::estimateIslandBytes, this::isIslandPinned);
+        if (!islandVictims.isEmpty() && flushing) {
+            // Les îles du vidage en cours ne sont peut-être pas encore validées en base
+            islandVictims = Collections.emptyList();
+        }
+        if (!islandVictims.isEmpty()) {
+            Set<UUID> pendingContents = new HashSet<>();
+            dirtyContents.values().forEach(write -> pendingContents.add(write.islandId()));
+
+            int candidates = islandVictims.size();
+            islandVictims.removeIf(island -> {
+                boolean pending = island.hasPendingChanges();
+                if (pending) {
+                    dirtyIslands.putIfAbsent(island.getId(), island);
+                }
+                return pending || dirtyIslands.containsKey(island.getId()) || pendingContents.contains(island.getId());
+            });
+            if (islandVictims.size() < candidates && plugin.isEnabled()) {
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, this::flushDirtyIslands);
+            }
+
+            for (Island island : islandVictims) {
+                if (islandsCache.evict(island.getId(), island)) {
+                    island.setMembershipListener(null);
+                    if (plugin.getWorldManager() != null) {
+                        plugin.getWorldManager().getIslandWorldCache().detach(island.getId());
+                    }
+                }
+            }
+        }
+
+        List<SkyblockPlayer> playerVictims = playersCache.selectVictims(maxCachedPlayers, 0L,
+                player -> 0L, player -> player.isDirty() || Bukkit.getPlayer(player.getUuid()) != null);
+        for (SkyblockPlayer player : playerVictims) {
+            playersCache.evict(player.getUuid(), player);
+        }
+
+        if (!islandVictims.isEmpty() || !playerVictims.isEmpty()) {
+            plugin.getLogger().info("Cache: " + islandVictims.size() + " îles et " + playerVictims.size() + " joueurs évincés");
+        }
+    }
+
+    private boolean isIslandPinned(Island island) {
+        WorldManager worldManager = plugin.getWorldManager();
+        if (worldManager != null && worldManager.hasWorld(island)) return true;
+        if (Bukkit.getPlayer(island.getOwner()) != null) return true;
+        for (UUID member : island.getMembers()) {
+            if (Bukkit.getPlayer(member) != null) return true;
         }
-        plugin.getLogger().info(playersCache.size() + " players loaded!");
+        return false;
+    }
+
+    /**
+     * Estimation grossière de l'empreinte mémoire d'une île en cache
+     */
+    private static long estimateIslandBytes(Island island) {
+        return 1024L
+                + island.getMemberCount() * 64L
+                + island.getPrinterCount() * 320L
+                + island.getDepositBoxCount() * 320L;
+    }
+
+    public int getCachedIslandCount() {
+        return islandsCache.size();
+    }
+
+    public int getCachedPlayerCount() {
+        return playersCache.size();
+    }
+
+    public LruCache<UUID, Island> getIslandsCache() {
+        return islandsCache;
+    }
+
+    public LruCache<UUID, SkyblockPlayer> getPlayersCache() {
+        return playersCache;
     }
 
     public void clearCache() {
+        islandsCache.values().forEach(island -> island.setMembershipListener(null));
         islandsCache.clear();
+        islandsByOwner.clear();
+        islandsByMember.clear();
+        locationIndex.clear();
+        missingIslands.clear();
         playersCache.clear();
     }
 
@@ -399,11 +1747,115 @@ public class DatabaseManager {
         plugin.getLogger().info("Reloading all data from database...");
         clearCache();
         loadAll();
+        // Les îles sont rechargées avant leurs contenus : reconstruire les index depuis la base
+        if (plugin.getPrinterManager() != null) {
+            plugin.getPrinterManager().reloadAll();
+        }
+        if (plugin.getDepositBoxManager() != null) {
+            plugin.getDepositBoxManager().reloadAll();
+        }
         plugin.getLogger().info("Reload complete!");
     }
 
     // --- Méthodes de Statistiques et de Recherche ---
 
+    /**
+     * Données utiles au calcul des revenus passifs, sans décoder les îles. Les îles de
+     * niveau 0 ne rapportent rien et ne sont pas lues. À appeler hors du thread principal.
+     */
+    public List<IncomeRow> getIncomeRows() {
+        List<IncomeRow> rows = new ArrayList<>();
+        String query = "SELECT id, owner_uuid, level, size, last_activity FROM islands WHERE level > 0";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setFetchSize(CONTENTS_FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new IncomeRow(UUID.fromString(rs.getString("id")), UUID.fromString(rs.getString("owner_uuid")),
+                            rs.getInt("level"), rs.getInt("size"), rs.getLong("last_activity")));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error reading island income data: " + e.getMessage());
+            return null;
+        }
+        return rows;
+    }
+
+    /**
+     * Écrit un lot de mouvements de banque en une transaction : lignes du journal, puis
+     * UPDATE bank = bank + total par île, en requêtes UPDATE ... FROM (VALUES ...).
+     * À appeler hors du thread principal. False si rien n'a été écrit.
+     */
+    public boolean writeBankTransactions(List<IslandBankManager.Transaction> transactions) {
+        if (transactions.isEmpty()) return true;
+
+        Map<UUID, Double> totals = new LinkedHashMap<>();
+        for (IslandBankManager.Transaction transaction : transactions) {
+            totals.merge(transaction.islandId(), transaction.amount(), Double::sum);
+        }
+        List<Map.Entry<UUID, Double>> credits = new ArrayList<>(totals.entrySet());
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO island_bank_ledger (island_id, amount, reason, actor_uuid, created_at) VALUES (?, ?, ?, ?, ?)")) {
+                    for (IslandBankManager.Transaction transaction : transactions) {
+                        ps.setString(1, transaction.islandId().toString());
+                        ps.setDouble(2, transaction.amount());
+                        ps.setString(3, transaction.reason().name());
+                        ps.setString(4, transaction.actorId() != null ? transaction.actorId().toString() : null);
+                        ps.setLong(5, transaction.time());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+
+                for (int from = 0; from < credits.size(); from += BANK_CREDIT_BATCH_ROWS) {
+                    List<Map.Entry<UUID, Double>> batch = credits.subList(from, Math.min(credits.size(), from + BANK_CREDIT_BATCH_ROWS));
+                    StringBuilder query = new StringBuilder("UPDATE islands AS i SET bank = i.bank + v.amount FROM (VALUES ");
+                    for (int k = 0; k < batch.size(); k++) {
+                        query.append(k == 0 ? "(?, ?)" : ", (?, ?)");
+                    }
+                    query.append(") AS v(id, amount) WHERE i.id = v.id");
+
+                    try (PreparedStatement ps = conn.prepareStatement(query.toString())) {
+                        int index = 1;
+                        for (Map.Entry<UUID, Double> credit : batch) {
+                            ps.setString(index++, credit.getKey().toString());
+                            ps.setDouble(index++, credit.getValue());
+                        }
+                        ps.executeUpdate();
+                    }
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error writing " + transactions.size() + " bank transactions: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private double unflushedBankAmount(UUID islandId) {
+        IslandBankManager bankManager = plugin.getIslandBankManager();
+        return bankManager != null ? bankManager.getUnflushedAmount(islandId) : 0.0;
+    }
+
+    /**
+     * Exécute une lecture d'îles pendant qu'aucun lot du journal de banque ne peut être validé :
+     * islands.bank et les mouvements en attente ajoutés par decodeIsland restent cohérents
+     */
+    private <T> T withBankFlushBlocked(Supplier<T> read) {
+        IslandBankManager bankManager = plugin.getIslandBankManager();
+        return bankManager != null ? bankManager.whileFlushBlocked(read) : read.get();
+    }
+
     public List<Island> getInactiveIslands(long inactiveDays) {
         List<Island> islands = new ArrayList<>();
         long threshold = System.currentTimeMillis() - (inactiveDays * 24 * 60 * 60 * 1000);
@@ -435,19 +1887,33 @@ public class DatabaseManager {
         return islands;
     }
 
-    public List<Island> getTopIslandsByLevel(int limit) {
-        List<Island> islands = new ArrayList<>();
-        String query = "SELECT * FROM islands ORDER BY level DESC LIMIT ?";
+    /**
+     * Classement des îles (niveau puis valeur), avec le nom du propriétaire déjà résolu.
+     * Requête potentiellement longue : à appeler hors du thread principal.
+     */
+    public List<LeaderboardManager.Entry> getLeaderboard(int limit) {
+        List<LeaderboardManager.Entry> entries = new ArrayList<>();
+        String query = "SELECT i.id, i.owner_uuid, i.level, i.worth, p.name FROM islands i " +
+                "LEFT JOIN skyblock_players p ON p.uuid = i.owner_uuid " +
+                "ORDER BY i.level DESC, i.worth DESC, i.id LIMIT ?";
         try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
             ps.setInt(1, limit);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                islands.add(mapResultSetToIsland(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String ownerName = rs.getString("name");
+                    entries.add(new LeaderboardManager.Entry(entries.size() + 1,
+                            UUID.fromString(rs.getString("id")),
+                            UUID.fromString(rs.getString("owner_uuid")),
+                            ownerName != null ? ownerName : "Inconnu",
+                            rs.getInt("level"),
+                            rs.getDouble("worth")));
+                }
             }
         } catch (SQLException e) {
-            plugin.getLogger().severe("Error getting top islands by level: " + e.getMessage());
+            plugin.getLogger().severe("Error getting island leaderboard: " + e.getMessage());
+            return null;
         }
-        return islands;
+        return entries;
     }
 
     public int getTotalIslands() {
@@ -493,6 +1959,173 @@ public class DatabaseManager {
         return 0;
     }
 
+    /**
+     * IDs de toutes les îles en base (pas seulement celles en cache). À appeler hors du thread principal.
+     */
+    public List<UUID> getAllIslandIds() {
+        return loadIds("SELECT id FROM islands", "islands");
+    }
+
+    /**
+     * UUID de tous les joueurs en base (pas seulement ceux en cache)
+     */
+    public List<UUID> getAllPlayerIds() {
+        return loadIds("SELECT uuid FROM skyblock_players", "players");
+    }
+
+    private List<UUID> loadIds(String query, String what) {
+        List<UUID> ids = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setFetchSize(CONTENTS_FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(UUID.fromString(rs.getString(1)));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error listing " + what + ": " + e.getMessage());
+        }
+        return ids;
+    }
+
+    /**
+     * Balances enregistrées dans les données de tous les joueurs en base
+     */
+    public Map<UUID, Double> loadPlayerBalances() {
+        Map<UUID, Double> balances = new HashMap<>();
+        String query = "SELECT uuid, player_data FROM skyblock_players WHERE player_data LIKE '%\"balance\"%'";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setFetchSize(CONTENTS_FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try {
+                        Map<String, Object> data = gson.fromJson(rs.getString("player_data"), PLAYER_DATA_TYPE);
+                        if (data != null && data.get("balance") instanceof Number balance) {
+                            balances.put(UUID.fromString(rs.getString("uuid")), balance.doubleValue());
+                        }
+                    } catch (JsonParseException e) {
+                        plugin.getLogger().warning("Could not read balance of player " + rs.getString("uuid") + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error loading player balances: " + e.getMessage());
+        }
+        return balances;
+    }
+
+    /**
+     * Fixe la balance enregistrée de tous les joueurs en base, en une requête.
+     * Les joueurs en cache sont à mettre à jour par l'appelant.
+     */
+    public boolean resetAllPlayerBalances(double amount) {
+        String query = "UPDATE skyblock_players SET player_data = " +
+                "jsonb_set(COALESCE(NULLIF(player_data, '')::jsonb, '{}'::jsonb), '{balance}', to_jsonb(?::double precision))::text";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setDouble(1, amount);
+            ps.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error resetting player balances: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Écrit la balance de joueurs hors cache directement dans player_data, par requêtes
+     * UPDATE ... FROM (VALUES ...). À appeler hors du thread principal. False en cas d'erreur.
+     */
+    public boolean writePlayerBalances(Map<UUID, Double> balances) {
+        if (balances.isEmpty()) return true;
+
+        List<Map.Entry<UUID, Double>> rows = new ArrayList<>(balances.entrySet());
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < rows.size(); from += BANK_CREDIT_BATCH_ROWS) {
+                    List<Map.Entry<UUID, Double>> batch = rows.subList(from, Math.min(rows.size(), from + BANK_CREDIT_BATCH_ROWS));
+                    StringBuilder query = new StringBuilder("UPDATE skyblock_players AS p SET player_data = " +
+                            "jsonb_set(COALESCE(NULLIF(p.player_data, '')::jsonb, '{}'::jsonb), '{balance}', to_jsonb(v.balance))::text FROM (VALUES ");
+                    for (int k = 0; k < batch.size(); k++) {
+                        query.append(k == 0 ? "(?, ?::double precision)" : ", (?, ?::double precision)");
+                    }
+                    query.append(") AS v(uuid, balance) WHERE p.uuid = v.uuid");
+
+                    try (PreparedStatement ps = conn.prepareStatement(query.toString())) {
+                        int index = 1;
+                        for (Map.Entry<UUID, Double> row : batch) {
+                            ps.setString(index++, row.getKey().toString());
+                            ps.setDouble(index++, row.getValue());
+                        }
+                        ps.executeUpdate();
+                    }
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error writing " + balances.size() + " player balances: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Somme des soldes de banque en base (sans les mouvements encore en file)
+     */
+    public double getTotalBankBalance() {
+        String query = "SELECT COALESCE(SUM(bank), 0) FROM islands";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query);
+             ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                return rs.getDouble(1);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error getting total bank balance: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Vide la banque de toutes les îles en base, en une transaction : une ligne de journal
+     * par île non vide, puis bank = 0. Retourne le nombre d'îles vidées, -1 en cas d'erreur.
+     * À appeler sous le verrou d'écriture du journal (voir IslandBankManager.resetAllBanks).
+     */
+    public int resetAllBanks(IslandBankManager.Reason reason, UUID actorId, long time) {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO island_bank_ledger (island_id, amount, reason, actor_uuid, created_at) " +
+                                "SELECT id, -bank, ?, ?, ? FROM islands WHERE bank <> 0")) {
+                    ps.setString(1, reason.name());
+                    ps.setString(2, actorId != null ? actorId.toString() : null);
+                    ps.setLong(3, time);
+                    ps.executeUpdate();
+                }
+                int reset;
+                try (PreparedStatement ps = conn.prepareStatement("UPDATE islands SET bank = 0 WHERE bank <> 0")) {
+                    reset = ps.executeUpdate();
+                }
+                conn.commit();
+                return reset;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error resetting island banks: " + e.getMessage());
+            return -1;
+        }
+    }
+
     // --- Fermeture et Méthodes d'Aide ---
 
     /**
@@ -502,134 +2135,222 @@ public class DatabaseManager {
         return islandsCache.containsKey(islandId);
     }
 
+    public int getDirtyIslandCount() {
+        return dirtyIslands.size();
+    }
+
+    public int getDirtyContentCount() {
+        return dirtyContents.size();
+    }
+
+    public long getSaveRequests() {
+        return saveRequests.get();
+    }
+
+    public long getCoalescedSaves() {
+        return coalescedSaves.get();
+    }
+
+    public long getFlushedIslands() {
+        return flushedIslands.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getPartialUpdatedIslands() {
+        return partialUpdatedIslands.get();
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public int getLastFlushCount() {
+        return lastFlushCount;
+    }
+
+    public long getStartupLoadMillis() {
+        return startupLoadMillis;
+    }
+
     public void close() {
+        if (flushTask != null && !flushTask.isCancelled()) {
+            flushTask.cancel();
+        }
+        loadExecutor.shutdown();
+        try {
+            loadExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushDirtyIslands();
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
         }
     }
 
     private Island mapResultSetToIsland(ResultSet rs) throws SQLException {
-        UUID islandId = UUID.fromString(rs.getString("id"));
-        UUID ownerUuid = UUID.fromString(rs.getString("owner_uuid"));
-        String name = rs.getString("name");
-
-        Location center = null;
-        String worldName = rs.getString("center_world");
-        if (worldName != null && !worldName.isEmpty()) {
-            World world = Bukkit.getWorld(worldName);
-            if (world != null) {
-                try {
-                    center = new Location(
-                            world,
-                            rs.getDouble("center_x"),
-                            rs.getDouble("center_y"),
-                            rs.getDouble("center_z"),
-                            rs.getFloat("center_yaw"),
-                            rs.getFloat("center_pitch")
-                    );
-                } catch (IllegalArgumentException e) {
-                    plugin.getLogger().warning("Could not create location for island " + islandId + " in world '" + worldName + "': " + e.getMessage());
-                }
-            } else {
-                plugin.getLogger().warning("Could not find world '" + worldName + "' for island " + islandId);
-            }
+        return decodeIsland(IslandRow.read(rs));
+    }
+
+    /**
+     * Construit une île à partir d'une ligne déjà lue. N'accède ni à la connexion ni aux mondes :
+     * peut tourner sur n'importe quel thread. Le centre est résolu quand son monde est chargé.
+     */
+    private Island decodeIsland(IslandRow row) {
+        Island island = new Island(row.id(), row.owner(), row.name(), null);
+        if (row.centerWorld() != null && !row.centerWorld().isEmpty()) {
+            island.setPendingCenter(row.centerWorld(), row.centerX(), row.centerY(), row.centerZ(), row.centerYaw(), row.centerPitch());
         }
 
-        Island island = new Island(islandId, ownerUuid, name, center);
+        island.setLevel(row.level());
+        // Mouvements pas encore écrits : absents du solde lu (lecture faite sous withBankFlushBlocked)
+        island.setBank(row.bank() + unflushedBankAmount(row.id()));
+        island.setSize(row.size());
+        island.setLastActivity(row.lastActivity());
 
-        island.setLevel(rs.getInt("level"));
-        island.setBank(rs.getDouble("bank"));
-        island.setSize(rs.getInt("size"));
-        island.setLastActivity(rs.getLong("last_activity"));
-        
         // Charger les améliorations d'île
-        island.setMaxDepositBoxes(rs.getInt("max_deposit_boxes"));
-        island.setMaxHoppers(rs.getInt("max_hoppers"));
-        island.setHopperTransferSpeed(rs.getDouble("hopper_transfer_speed"));
-        island.setMaxPrinters(rs.getInt("max_printers"));
-        island.setPrinterGenerationSpeed(rs.getDouble("printer_generation_speed"));
+        island.setMaxDepositBoxes(row.maxDepositBoxes());
+        island.setMaxHoppers(row.maxHoppers());
+        island.setHopperTransferSpeed(row.hopperTransferSpeed());
+        island.setMaxPrinters(row.maxPrinters());
+        island.setPrinterGenerationSpeed(row.printerGenerationSpeed());
+        island.setWorth(row.worth());
 
         // Charger les membres
-        String membersJson = rs.getString("members");
-        if (membersJson != null && !membersJson.isEmpty()) {
-            Type memberListType = new TypeToken<Set<UUID>>() {}.getType();
-            Set<UUID> members = gson.fromJson(membersJson, memberListType);
+        if (row.membersJson() != null && !row.membersJson().isEmpty()) {
+            Set<UUID> members = gson.fromJson(row.membersJson(), UUID_SET_TYPE);
             if (members != null) {
                 members.forEach(island::addMember);
             }
         }
 
-        // Charger les flags
-        String flagsJson = rs.getString("flags");
-        if (flagsJson != null && !flagsJson.isEmpty()) {
-            Type flagsType = new TypeToken<Map<Island.IslandFlag, Boolean>>() {}.getType();
-            Map<Island.IslandFlag, Boolean> flags = gson.fromJson(flagsJson, flagsType);
-            if (flags != null) {
-                flags.forEach(island::setFlag);
-            }
-        }
-        
+        // Charger les flags (JSON seulement si la migration vers flag_bits n'a pas abouti)
+        island.setFlagBits(row.flagBits() != null ? row.flagBits() : decodeLegacyFlags(row.flagsJson()));
+
+        // Anciennes colonnes JSON (vides après migration vers island_deposit_boxes / island_printers)
         // Charger les caisses de dépôt
-        String depositBoxesJson = rs.getString("deposit_boxes");
-        if (depositBoxesJson != null && !depositBoxesJson.isEmpty()) {
-            Type depositBoxesType = new TypeToken<Map<String, DepositBoxData>>() {}.getType();
-            Map<String, DepositBoxData> depositBoxes = gson.fromJson(depositBoxesJson, depositBoxesType);
+        if (row.depositBoxesJson() != null && !row.depositBoxesJson().isEmpty()) {
+            Map<String, DepositBoxData> depositBoxes = gson.fromJson(row.depositBoxesJson(), DEPOSIT_BOXES_TYPE);
             if (depositBoxes != null) {
                 depositBoxes.forEach((id, depositBox) -> island.addDepositBox(depositBox));
             }
         }
-        
+
         // Charger les imprimantes
-        String printersJson = rs.getString("printers");
-        if (printersJson != null && !printersJson.isEmpty()) {
-            Type printersType = new TypeToken<Map<String, PrinterData>>() {}.getType();
-            Map<String, PrinterData> printers = gson.fromJson(printersJson, printersType);
+        if (row.printersJson() != null && !row.printersJson().isEmpty()) {
+            Map<String, PrinterData> printers = gson.fromJson(row.printersJson(), PRINTERS_TYPE);
             if (printers != null) {
                 printers.forEach((id, printer) -> island.addPrinter(printer));
             }
         }
 
+        // La ligne existe déjà : rien à réécrire tant qu'aucun setter n'est appelé
+        island.markPersisted();
+        island.drainDirtyColumns();
         return island;
     }
 
     private SkyblockPlayer mapResultSetToPlayer(ResultSet rs) throws SQLException {
-        UUID playerUuid = UUID.fromString(rs.getString("uuid"));
-        String name = rs.getString("name");
+        return decodePlayer(PlayerRow.read(rs));
+    }
 
-        SkyblockPlayer player = new SkyblockPlayer(playerUuid, name);
+    private SkyblockPlayer decodePlayer(PlayerRow row) {
+        SkyblockPlayer player = new SkyblockPlayer(row.uuid(), row.name());
 
-        String islandIdStr = rs.getString("island_id");
-        if (islandIdStr != null) {
-            player.createIsland(UUID.fromString(islandIdStr));
+        if (row.islandId() != null) {
+            player.createIsland(UUID.fromString(row.islandId()));
         }
 
-        player.setFirstJoin(rs.getLong("first_join"));
-        player.setLastSeen(rs.getLong("last_seen"));
-        player.setIslandResets(rs.getInt("island_resets"));
+        player.setFirstJoin(row.firstJoin());
+        player.setLastSeen(row.lastSeen());
+        player.setIslandResets(row.islandResets());
 
         // Charger member_of_islands
-        String memberOfIslandsJson = rs.getString("member_of_islands");
-        if (memberOfIslandsJson != null && !memberOfIslandsJson.isEmpty()) {
-            Type memberOfIslandsType = new TypeToken<Set<UUID>>() {}.getType();
-            Set<UUID> memberOfIslands = gson.fromJson(memberOfIslandsJson, memberOfIslandsType);
+        if (row.memberOfIslandsJson() != null && !row.memberOfIslandsJson().isEmpty()) {
+            Set<UUID> memberOfIslands = gson.fromJson(row.memberOfIslandsJson(), UUID_SET_TYPE);
             if (memberOfIslands != null) {
                 memberOfIslands.forEach(player::joinIsland);
             }
         }
 
         // Charger player_data
-        String playerDataJson = rs.getString("player_data");
-        if (playerDataJson != null && !playerDataJson.isEmpty()) {
-            Type playerDataType = new TypeToken<Map<String, Object>>() {}.getType();
-            Map<String, Object> playerData = gson.fromJson(playerDataJson, playerDataType);
+        if (row.playerDataJson() != null && !row.playerDataJson().isEmpty()) {
+            Map<String, Object> playerData = gson.fromJson(row.playerDataJson(), PLAYER_DATA_TYPE);
             if (playerData != null) {
                 playerData.forEach(player::setData);
             }
         }
 
+        player.clearDirty();
         return player;
     }
 
+    /**
+     * Colonnes d'une île nécessaires au calcul de ses revenus passifs
+     */
+    public record IncomeRow(UUID islandId, UUID ownerId, int level, int size, long lastActivity) {
+    }
+
+    /**
+     * Ligne brute de la table islands : lue sur le thread de la connexion, décodée ailleurs
+     */
+    private record IslandRow(UUID id, UUID owner, String name,
+                             String centerWorld, double centerX, double centerY, double centerZ, float centerYaw, float centerPitch,
+                             int level, double bank, int size, long lastActivity,
+                             int maxDepositBoxes, int maxHoppers, double hopperTransferSpeed, int maxPrinters, double printerGenerationSpeed, double worth,
+                             String membersJson, Integer flagBits, String flagsJson, String depositBoxesJson, String printersJson) {
+
+        private static IslandRow read(ResultSet rs) throws SQLException {
+            return new IslandRow(
+                    UUID.fromString(rs.getString("id")),
+                    UUID.fromString(rs.getString("owner_uuid")),
+                    rs.getString("name"),
+                    rs.getString("center_world"),
+                    rs.getDouble("center_x"),
+                    rs.getDouble("center_y"),
+                    rs.getDouble("center_z"),
+                    rs.getFloat("center_yaw"),
+                    rs.getFloat("center_pitch"),
+                    rs.getInt("level"),
+                    rs.getDouble("bank"),
+                    rs.getInt("size"),
+                    rs.getLong("last_activity"),
+                    rs.getInt("max_deposit_boxes"),
+                    rs.getInt("max_hoppers"),
+                    rs.getDouble("hopper_transfer_speed"),
+                    rs.getInt("max_printers"),
+                    rs.getDouble("printer_generation_speed"),
+                    rs.getDouble("worth"),
+                    rs.getString("members"),
+                    rs.getObject("flag_bits", Integer.class),
+                    rs.getString("flags"),
+                    rs.getString("deposit_boxes"),
+                    rs.getString("printers"));
+        }
+    }
+
+    /**
+     * Ligne brute de la table skyblock_players
+     */
+    private record PlayerRow(UUID uuid, String name, String islandId, long firstJoin, long lastSeen, int islandResets,
+                             String memberOfIslandsJson, String playerDataJson) {
+
+        private static PlayerRow read(ResultSet rs) throws SQLException {
+            return new PlayerRow(
+                    UUID.fromString(rs.getString("uuid")),
+                    rs.getString("name"),
+                    rs.getString("island_id"),
+                    rs.getLong("first_join"),
+                    rs.getLong("last_seen"),
+                    rs.getInt("island_resets"),
+                    rs.getString("member_of_islands"),
+                    rs.getString("player_data"));
+        }
+    }
+
     // Getters pour les données manquantes dans SkyblockPlayer
     public Map<String, Object> getData(SkyblockPlayer player) {
         return player.getData();
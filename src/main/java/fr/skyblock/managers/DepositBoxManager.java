@@ -18,6 +18,12 @@ public class DepositBoxManager {
     
     // Cache des caisses de dépôt par île
     private final Map<UUID, Map<String, DepositBoxData>> islandDepositBoxes = new ConcurrentHashMap<>();
+
+    // Index secondaires : ID -> caisse de dépôt, ID -> île, propriétaire -> caisses de dépôt
+    private final Map<String, DepositBoxData> depositBoxesById = new ConcurrentHashMap<>();
+    private final Map<String, UUID> depositBoxIslands = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<String, DepositBoxData>> depositBoxesByOwner = new ConcurrentHashMap<>();
+    private final Map<String, DepositBoxData> depositBoxesView = Collections.unmodifiableMap(depositBoxesById);
     
     public DepositBoxManager(CustomSkyblock plugin) {
         this.plugin = plugin;
@@ -26,26 +32,82 @@ public class DepositBoxManager {
     }
     
     /**
-     * Charge toutes les caisses de dépôt depuis les îles
+     * Charge toutes les caisses de dépôt depuis la base, îles hors cache comprises ;
+     * pour les îles en cache, l'index pointe sur leurs propres instances
      */
     private void loadAllDepositBoxes() {
-        for (Island island : databaseManager.getAllIslands()) {
-            Map<String, DepositBoxData> depositBoxes = island.getDepositBoxes();
-            if (!depositBoxes.isEmpty()) {
-                islandDepositBoxes.put(island.getId(), new ConcurrentHashMap<>(depositBoxes));
+        databaseManager.loadDepositBoxes().forEach((islandId, depositBoxes) -> {
+            for (DepositBoxData depositBox : depositBoxes) {
+                indexDepositBox(islandId, depositBox);
+            }
+        });
+        for (Island island : databaseManager.getCachedIslands()) {
+            onIslandCached(island);
+        }
+    }
+
+    /**
+     * Appelé quand une île entre dans le cache (chargement ou création) : ses caisses de dépôt
+     * remplacent dans l'index les copies lues en base. L'éviction ne retire rien de l'index.
+     */
+    public void onIslandCached(Island island) {
+        for (DepositBoxData depositBox : island.getDepositBoxes().values()) {
+            indexDepositBox(island.getId(), depositBox);
+        }
+    }
+
+    /**
+     * Oublie les caisses de dépôt d'une île supprimée (la base les supprime en cascade)
+     */
+    public void removeIslandDepositBoxes(UUID islandId) {
+        Map<String, DepositBoxData> depositBoxes = islandDepositBoxes.remove(islandId);
+        if (depositBoxes != null) {
+            new ArrayList<>(depositBoxes.keySet()).forEach(this::unindexDepositBox);
+        }
+    }
+
+    private void indexDepositBox(UUID islandId, DepositBoxData depositBox) {
+        DepositBoxData previous = depositBoxesById.put(depositBox.getId(), depositBox);
+        if (previous != null && !previous.getOwner().equals(depositBox.getOwner())) {
+            removeDepositBoxFromOwner(previous);
+        }
+        UUID previousIsland = depositBoxIslands.put(depositBox.getId(), islandId);
+        if (previousIsland != null && !previousIsland.equals(islandId)) {
+            Map<String, DepositBoxData> previousIslandDepositBoxes = islandDepositBoxes.get(previousIsland);
+            if (previousIslandDepositBoxes != null) {
+                previousIslandDepositBoxes.remove(depositBox.getId());
             }
         }
+        islandDepositBoxes.computeIfAbsent(islandId, k -> new ConcurrentHashMap<>()).put(depositBox.getId(), depositBox);
+        depositBoxesByOwner.computeIfAbsent(depositBox.getOwner(), k -> new ConcurrentHashMap<>()).put(depositBox.getId(), depositBox);
+    }
+
+    private void unindexDepositBox(String depositBoxId) {
+        DepositBoxData previous = depositBoxesById.remove(depositBoxId);
+        UUID islandId = depositBoxIslands.remove(depositBoxId);
+        if (islandId != null) {
+            Map<String, DepositBoxData> depositBoxes = islandDepositBoxes.get(islandId);
+            if (depositBoxes != null) {
+                depositBoxes.remove(depositBoxId);
+            }
+        }
+        if (previous != null) {
+            removeDepositBoxFromOwner(previous);
+        }
+    }
+
+    private void removeDepositBoxFromOwner(DepositBoxData depositBox) {
+        Map<String, DepositBoxData> ownerDepositBoxes = depositBoxesByOwner.get(depositBox.getOwner());
+        if (ownerDepositBoxes != null) {
+            ownerDepositBoxes.remove(depositBox.getId());
+        }
     }
     
     /**
-     * Obtient toutes les caisses de dépôt de toutes les îles
+     * Obtient toutes les caisses de dépôt de toutes les îles (vue en lecture seule)
      */
     public Map<String, DepositBoxData> getAllDepositBoxes() {
-        Map<String, DepositBoxData> allDepositBoxes = new HashMap<>();
-        for (Map<String, DepositBoxData> islandBoxes : islandDepositBoxes.values()) {
-            allDepositBoxes.putAll(islandBoxes);
-        }
-        return allDepositBoxes;
+        return depositBoxesView;
     }
     
     /**
@@ -59,15 +121,8 @@ public class DepositBoxManager {
      * Obtient les caisses de dépôt d'un joueur spécifique
      */
     public List<DepositBoxData> getDepositBoxesForPlayer(UUID playerId) {
-        List<DepositBoxData> playerDepositBoxes = new ArrayList<>();
-        for (Map<String, DepositBoxData> islandBoxes : islandDepositBoxes.values()) {
-            for (DepositBoxData depositBox : islandBoxes.values()) {
-                if (depositBox.getOwner().equals(playerId)) {
-                    playerDepositBoxes.add(depositBox);
-                }
-            }
-        }
-        return playerDepositBoxes;
+        Map<String, DepositBoxData> ownerDepositBoxes = depositBoxesByOwner.get(playerId);
+        return ownerDepositBoxes != null ? new ArrayList<>(ownerDepositBoxes.values()) : new ArrayList<>();
     }
     
     /**
@@ -77,11 +132,10 @@ public class DepositBoxManager {
         Island island = databaseManager.loadIsland(islandId);
         if (island != null) {
             island.addDepositBox(depositBox);
-            databaseManager.saveIsland(island);
+            databaseManager.saveDepositBox(islandId, depositBox);
             
             // Mettre à jour le cache
-            islandDepositBoxes.computeIfAbsent(islandId, k -> new ConcurrentHashMap<>())
-                             .put(depositBox.getId(), depositBox);
+            indexDepositBox(islandId, depositBox);
         }
     }
     
@@ -92,13 +146,10 @@ public class DepositBoxManager {
         Island island = databaseManager.loadIsland(islandId);
         if (island != null) {
             island.removeDepositBox(depositBoxId);
-            databaseManager.saveIsland(island);
+            databaseManager.deleteDepositBox(islandId, depositBoxId);
             
             // Mettre à jour le cache
-            Map<String, DepositBoxData> islandBoxes = islandDepositBoxes.get(islandId);
-            if (islandBoxes != null) {
-                islandBoxes.remove(depositBoxId);
-            }
+            unindexDepositBox(depositBoxId);
         }
     }
     
@@ -106,40 +157,22 @@ public class DepositBoxManager {
      * Obtient une caisse de dépôt par son ID
      */
     public DepositBoxData getDepositBoxById(String depositBoxId) {
-        for (Map<String, DepositBoxData> islandBoxes : islandDepositBoxes.values()) {
-            DepositBoxData depositBox = islandBoxes.get(depositBoxId);
-            if (depositBox != null) {
-                return depositBox;
-            }
-        }
-        return null;
+        return depositBoxesById.get(depositBoxId);
     }
     
     /**
      * Obtient l'île qui contient une caisse de dépôt spécifique
      */
     public Island getIslandForDepositBox(String depositBoxId) {
-        for (Map.Entry<UUID, Map<String, DepositBoxData>> entry : islandDepositBoxes.entrySet()) {
-            if (entry.getValue().containsKey(depositBoxId)) {
-                return databaseManager.loadIsland(entry.getKey());
-            }
-        }
-        return null;
+        UUID islandId = depositBoxIslands.get(depositBoxId);
+        return islandId != null ? databaseManager.loadIsland(islandId) : null;
     }
     
     /**
      * Obtient l'ID de l'île à une location donnée
      */
     public UUID getIslandIdAtLocation(Location location) {
-        for (Island island : databaseManager.getAllIslands()) {
-            if (island.getCenter() != null && island.getCenter().getWorld().equals(location.getWorld())) {
-                double distance = island.getCenter().distance(location);
-                if (distance <= island.getSize()) {
-                    return island.getId();
-                }
-            }
-        }
-        return null;
+        return databaseManager.getIslandIdAtLocation(location);
     }
     
     /**
@@ -154,8 +187,8 @@ public class DepositBoxManager {
      * Obtient le nombre de caisses de dépôt sur une île
      */
     public int getDepositBoxCount(UUID islandId) {
-        Map<String, DepositBoxData> islandBoxes = islandDepositBoxes.get(islandId);
-        return islandBoxes != null ? islandBoxes.size() : 0;
+        Map<String, DepositBoxData> depositBoxes = islandDepositBoxes.get(islandId);
+        return depositBoxes != null ? depositBoxes.size() : 0;
     }
     
     /**
@@ -167,13 +200,10 @@ public class DepositBoxManager {
             // Supprimer l'ancienne et ajouter la nouvelle
             island.removeDepositBox(depositBox.getId());
             island.addDepositBox(depositBox);
-            databaseManager.saveIsland(island);
+            databaseManager.saveDepositBox(islandId, depositBox);
             
             // Mettre à jour le cache
-            Map<String, DepositBoxData> islandBoxes = islandDepositBoxes.get(islandId);
-            if (islandBoxes != null) {
-                islandBoxes.put(depositBox.getId(), depositBox);
-            }
+            indexDepositBox(islandId, depositBox);
         }
     }
     
@@ -181,7 +211,12 @@ public class DepositBoxManager {
      * Recharge toutes les caisses de dépôt depuis la base de données
      */
     public void reloadAll() {
+        // Écrire d'abord les lignes encore en file d'écriture différée
+        databaseManager.flushDirtyIslands();
         islandDepositBoxes.clear();
+        depositBoxesById.clear();
+        depositBoxIslands.clear();
+        depositBoxesByOwner.clear();
         loadAllDepositBoxes();
     }
 }
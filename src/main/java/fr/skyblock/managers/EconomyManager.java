@@ -3,19 +3,27 @@ package fr.skyblock.managers;
 import fr.skyblock.CustomSkyblock;
 import fr.skyblock.models.Island;
 import fr.skyblock.models.SkyblockPlayer;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.conversations.*;
 import org.bukkit.entity.Player;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class EconomyManager {
 
     private final CustomSkyblock plugin;
     private final Map<UUID, Double> playerBalances = new ConcurrentHashMap<>();
+    // Dernière balance écrite en base, pour n'écrire que les changements des joueurs hors cache
+    private final Map<UUID, Double> storedBalances = new ConcurrentHashMap<>();
     private ConversationFactory conversationFactory;
+    // Un seul versement de revenus passifs à la fois
+    private final AtomicBoolean incomeRunning = new AtomicBoolean();
 
     public EconomyManager(CustomSkyblock plugin) {
         this.plugin = plugin;
@@ -121,8 +129,7 @@ public class EconomyManager {
     }
 
     public void rewardIsland(Island island, double amount, String reason) {
-        island.addToBank(amount);
-        plugin.getDatabaseManager().saveIsland(island);
+        plugin.getIslandBankManager().deposit(island, amount, IslandBankManager.Reason.REWARD, null);
 
         // Notifier tous les membres en ligne
         notifyIslandMembers(island, ChatColor.GREEN + "L'île a reçu " + ChatColor.GOLD +
@@ -139,15 +146,13 @@ public class EconomyManager {
             return false;
         }
 
-        if (!island.removeFromBank(cost)) {
+        if (!plugin.getIslandBankManager().withdraw(island, cost, IslandBankManager.Reason.UPGRADE, player.getUniqueId())) {
             player.sendMessage(ChatColor.RED + "Fonds insuffisants dans la banque de l'île !");
             player.sendMessage(ChatColor.GRAY + "Coût: " + ChatColor.WHITE + String.format("%.2f $", cost));
             player.sendMessage(ChatColor.GRAY + "Banque: " + ChatColor.WHITE + String.format("%.2f $", island.getBank()));
             return false;
         }
 
-        plugin.getDatabaseManager().saveIsland(island);
-
         // Log de la transaction
         plugin.getLogger().info("Achat d'amélioration '" + upgradeType + "' pour l'île " + island.getId() +
                 " par " + player.getName() + " coût: " + cost + "$");
@@ -164,32 +169,71 @@ public class EconomyManager {
 
     // === SYSTÈME DE SALAIRE PASSIF ===
 
+    /**
+     * Revenus passifs de toutes les îles, calculés hors du thread principal à partir des
+     * colonnes utiles lues en une requête. Les crédits passent par le journal de banque,
+     * écrit aussitôt en un lot (UPDATE ... FROM (VALUES ...)) ; seuls les messages aux
+     * propriétaires repassent par le thread principal.
+     */
     public void processIslandIncome() {
-        for (Island island : plugin.getDatabaseManager().getAllIslands()) {
-            double income = calculateIslandIncome(island);
-            if (income > 0) {
-                island.addToBank(income);
-                plugin.getDatabaseManager().saveIsland(island);
-
-                // Notifier le propriétaire s'il est en ligne
-                Player owner = plugin.getServer().getPlayer(island.getOwner());
-                if (owner != null && owner.isOnline()) {
-                    owner.sendMessage(ChatColor.GREEN + "Votre île a généré " + ChatColor.GOLD +
-                            String.format("%.2f $", income) + ChatColor.GREEN + " de revenus passifs !");
+        if (!incomeRunning.compareAndSet(false, true)) {
+            plugin.getLogger().warning("Revenus passifs précédents encore en cours, cycle ignoré.");
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                long start = System.currentTimeMillis();
+                DatabaseManager db = plugin.getDatabaseManager();
+                // Niveaux et activités encore dans la file d'écriture différée
+                db.flushDirtyIslands();
+                List<DatabaseManager.IncomeRow> rows = db.getIncomeRows();
+                if (rows == null) return;
+
+                long now = System.currentTimeMillis();
+                IslandBankManager bank = plugin.getIslandBankManager();
+                Map<UUID, Double> incomeByOwner = new HashMap<>();
+                for (DatabaseManager.IncomeRow row : rows) {
+                    double income = calculateIslandIncome(row.level(), row.size(), row.lastActivity(), now);
+                    if (income > 0) {
+                        bank.deposit(row.islandId(), income, IslandBankManager.Reason.INCOME, null);
+                        incomeByOwner.merge(row.ownerId(), income, Double::sum);
+                    }
+                }
+                bank.flushPendingTransactions();
+
+                if (plugin.getConfig().getBoolean("debug.enabled", false)) {
+                    plugin.getLogger().info("Revenus passifs versés à " + incomeByOwner.size() + " propriétaires en " +
+                            (System.currentTimeMillis() - start) + "ms");
                 }
+                Bukkit.getScheduler().runTask(plugin, () -> notifyIncome(incomeByOwner));
+            } catch (RuntimeException e) {
+                plugin.getLogger().severe("Erreur lors du calcul des revenus passifs: " + e.getMessage());
+            } finally {
+                incomeRunning.set(false);
+            }
+        });
+    }
+
+    private void notifyIncome(Map<UUID, Double> incomeByOwner) {
+        for (Player owner : plugin.getServer().getOnlinePlayers()) {
+            Double income = incomeByOwner.get(owner.getUniqueId());
+            if (income != null) {
+                owner.sendMessage(ChatColor.GREEN + "Votre île a généré " + ChatColor.GOLD +
+                        String.format("%.2f $", income) + ChatColor.GREEN + " de revenus passifs !");
             }
         }
     }
 
-    private double calculateIslandIncome(Island island) {
+    private double calculateIslandIncome(int level, int size, long lastActivity, long now) {
         // Revenus basés sur le niveau de l'île
-        double baseIncome = island.getLevel() * 0.5;
+        double baseIncome = level * 0.5;
 
         // Bonus basé sur la taille
-        double sizeMultiplier = 1.0 + (island.getSize() - 50) * 0.001;
+        double sizeMultiplier = 1.0 + (size - 50) * 0.001;
 
         // Bonus d'activité récente
-        long daysSinceActivity = (System.currentTimeMillis() - island.getLastActivity()) / (24 * 60 * 60 * 1000);
+        long daysSinceActivity = (now - lastActivity) / (24 * 60 * 60 * 1000);
         double activityMultiplier = daysSinceActivity <= 1 ? 1.5 : (daysSinceActivity <= 7 ? 1.0 : 0.5);
 
         return baseIncome * sizeMultiplier * activityMultiplier;
@@ -198,16 +242,32 @@ public class EconomyManager {
     // === SAUVEGARDE ET CHARGEMENT ===
 
     private void loadBalances() {
-        // Charger les balances depuis la base de données YAML
-        for (SkyblockPlayer skyblockPlayer : plugin.getDatabaseManager().getAllPlayers()) {
-            if (skyblockPlayer.hasData("balance")) {
-                double balance = skyblockPlayer.getData("balance", Double.class);
-                playerBalances.put(skyblockPlayer.getUuid(), balance);
-            }
-        }
+        // Charger les balances de tous les joueurs en base (le cache n'en contient qu'une partie)
+        Map<UUID, Double> loaded = plugin.getDatabaseManager().loadPlayerBalances();
+        playerBalances.putAll(loaded);
+        storedBalances.putAll(loaded);
         plugin.getLogger().info("Balances de " + playerBalances.size() + " joueurs chargées.");
     }
 
+    /**
+     * Remet la balance de tous les joueurs à la valeur donnée : en base par une seule
+     * requête, puis dans les joueurs en cache. False si l'écriture en base a échoué.
+     */
+    public boolean resetAllBalances(double amount) {
+        double balance = Math.max(0, amount);
+        if (!plugin.getDatabaseManager().resetAllPlayerBalances(balance)) {
+            return false;
+        }
+
+        playerBalances.replaceAll((uuid, previous) -> balance);
+        storedBalances.replaceAll((uuid, previous) -> balance);
+        for (SkyblockPlayer skyblockPlayer : plugin.getDatabaseManager().getCachedPlayers()) {
+            playerBalances.put(skyblockPlayer.getUuid(), balance);
+            skyblockPlayer.setData("balance", balance);
+        }
+        return true;
+    }
+
     private void saveBalance(UUID playerUuid) {
         SkyblockPlayer skyblockPlayer = plugin.getDatabaseManager().loadPlayer(playerUuid);
         if (skyblockPlayer != null) {
@@ -216,11 +276,48 @@ public class EconomyManager {
         }
     }
 
+    /**
+     * Reporte les balances modifiées. Joueurs en cache : dans leurs données, écrites par le
+     * prochain checkpoint (ou saveAll à l'arrêt). Joueurs hors cache : aucun chargement, la
+     * balance en mémoire est écrite directement en base, par lots, si elle a changé.
+     */
     public void saveAllBalances() {
+        int changed = 0;
+        Map<UUID, Double> uncachedChanges = new HashMap<>();
         for (Map.Entry<UUID, Double> entry : playerBalances.entrySet()) {
-            saveBalance(entry.getKey());
+            UUID playerUuid = entry.getKey();
+            SkyblockPlayer skyblockPlayer = plugin.getDatabaseManager().getCachedPlayer(playerUuid);
+            if (skyblockPlayer == null) {
+                if (!entry.getValue().equals(storedBalances.get(playerUuid))) {
+                    uncachedChanges.put(playerUuid, entry.getValue());
+                }
+                continue;
+            }
+
+            double balance = getBalance(playerUuid);
+            Double stored = skyblockPlayer.getData("balance", Double.class);
+            if (stored == null || stored != balance) {
+                skyblockPlayer.setData("balance", balance);
+                storedBalances.put(playerUuid, balance);
+                changed++;
+            }
+        }
+
+        if (!uncachedChanges.isEmpty()) {
+            changed += uncachedChanges.size();
+            Runnable write = () -> {
+                if (plugin.getDatabaseManager().writePlayerBalances(uncachedChanges)) {
+                    storedBalances.putAll(uncachedChanges);
+                }
+            };
+            // À l'arrêt le plugin est déjà désactivé : écrire tout de suite
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, write);
+            } else {
+                write.run();
+            }
         }
-        plugin.getLogger().info("Toutes les balances sauvegardées.");
+        plugin.getLogger().info("Balances modifiées: " + changed + "/" + playerBalances.size() + " joueurs.");
     }
 
     // === MÉTHODES UTILITAIRES ===
@@ -289,8 +386,7 @@ public class EconomyManager {
             }
 
             removeBalance(player.getUniqueId(), amount);
-            island.addToBank(amount);
-            plugin.getDatabaseManager().saveIsland(island);
+            plugin.getIslandBankManager().deposit(island, amount, IslandBankManager.Reason.DEPOSIT, player.getUniqueId());
 
             player.sendMessage(ChatColor.GREEN + "Vous avez déposé " + ChatColor.GOLD +
                     formatMoney(amount) + ChatColor.GREEN + " dans la banque de l'île !");
@@ -306,7 +402,7 @@ public class EconomyManager {
         }
 
         private Prompt handleWithdrawal(Player player, Island island, double amount) {
-            if (!island.removeFromBank(amount)) {
+            if (!plugin.getIslandBankManager().withdraw(island, amount, IslandBankManager.Reason.WITHDRAW, player.getUniqueId())) {
                 player.sendMessage(ChatColor.RED + "Fonds insuffisants dans la banque de l'île !");
                 player.sendMessage(ChatColor.GRAY + "Banque de l'île: " + ChatColor.WHITE +
                         formatMoney(island.getBank()));
@@ -314,7 +410,6 @@ public class EconomyManager {
             }
 
             addBalance(player.getUniqueId(), amount);
-            plugin.getDatabaseManager().saveIsland(island);
 
             player.sendMessage(ChatColor.GREEN + "Vous avez retiré " + ChatColor.GOLD +
                     formatMoney(amount) + ChatColor.GREEN + " de la banque de l'île !");
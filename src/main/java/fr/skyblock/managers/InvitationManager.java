@@ -146,6 +146,9 @@ public class InvitationManager {
         if (plugin.getIslandManager().addMember(island, player.getUniqueId())) {
             removeInvitation(invitation);
 
+            // Le nouveau membre va probablement s'y téléporter : préchauffer le monde
+            plugin.getWorldPrewarmManager().prewarm(island);
+
             player.sendMessage(ChatColor.GREEN + "Vous avez rejoint l'île de " + ChatColor.YELLOW + inviterName + ChatColor.GREEN + " !");
             player.sendMessage(ChatColor.GOLD + "Utilisez /island home pour vous y téléporter !");
 
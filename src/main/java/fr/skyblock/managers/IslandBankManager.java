@@ -0,0 +1,234 @@
+package fr.skyblock.managers;
+
+import fr.skyblock.CustomSkyblock;
+import fr.skyblock.models.Island;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Banque des îles tenue par un journal en ajout seul (island_bank_ledger). Chaque mouvement
+ * est appliqué tout de suite au solde en mémoire de l'île (la projection lue par les menus
+ * et commandes), puis mis en file ; la file est écrite hors du thread principal, par lots :
+ * lignes de journal et UPDATE bank = bank + montant dans la même transaction. Le solde en
+ * base n'est jamais réécrit depuis la mémoire, deux mouvements ne peuvent donc plus
+ * s'écraser.
+ */
+public class IslandBankManager {
+
+    public enum Reason {
+        DEPOSIT, WITHDRAW, UPGRADE, INCOME, REWARD, ADMIN_ADD, ADMIN_REMOVE, ADMIN_RESET
+    }
+
+    /**
+     * Mouvement de banque (montant négatif pour un retrait)
+     */
+    public record Transaction(UUID islandId, double amount, Reason reason, UUID actorId, long time) {
+    }
+
+    private final CustomSkyblock plugin;
+    private final Queue<Transaction> pendingTransactions = new ConcurrentLinkedQueue<>();
+    // Somme des mouvements pas encore écrits, par île : ajoutée au solde lu en base au chargement
+    private final Map<UUID, Double> unflushedAmounts = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    private final AtomicLong writtenTransactions = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    public IslandBankManager(CustomSkyblock plugin) {
+        this.plugin = plugin;
+
+        long flushInterval = Math.max(1L, plugin.getConfig().getLong("economy.bank-ledger-flush-interval", 20L));
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                flushPendingTransactions();
+            }
+        }.runTaskTimerAsynchronously(plugin, flushInterval, flushInterval);
+    }
+
+    // === MOUVEMENTS ===
+
+    /**
+     * Crédite la banque de l'île
+     */
+    public void deposit(Island island, double amount, Reason reason, UUID actorId) {
+        if (amount <= 0) return;
+        island.addToBank(amount);
+        record(island.getId(), amount, reason, actorId);
+    }
+
+    /**
+     * Débite la banque de l'île si le solde suffit ; false sinon (rien n'est enregistré)
+     */
+    public boolean withdraw(Island island, double amount, Reason reason, UUID actorId) {
+        if (amount <= 0 || !island.removeFromBank(amount)) return false;
+        record(island.getId(), -amount, reason, actorId);
+        return true;
+    }
+
+    /**
+     * Vide la banque de l'île ; retourne le montant retiré
+     */
+    public double withdrawAll(Island island, Reason reason, UUID actorId) {
+        double amount = island.drainBank();
+        if (amount != 0) {
+            record(island.getId(), -amount, reason, actorId);
+        }
+        return amount;
+    }
+
+    /**
+     * Crédite une île par son ID, qu'elle soit en mémoire ou non : le solde en base est mis
+     * à jour par le journal, la projection seulement si l'île est en cache
+     */
+    public void deposit(UUID islandId, double amount, Reason reason, UUID actorId) {
+        if (amount <= 0) return;
+        Island island = plugin.getDatabaseManager().getIslandsCache().peek(islandId);
+        if (island != null) {
+            island.addToBank(amount);
+        }
+        record(islandId, amount, reason, actorId);
+    }
+
+    private void record(UUID islandId, double amount, Reason reason, UUID actorId) {
+        unflushedAmounts.merge(islandId, amount, Double::sum);
+        pendingTransactions.add(new Transaction(islandId, amount, reason, actorId, System.currentTimeMillis()));
+    }
+
+    /**
+     * Mouvements pas encore écrits pour cette île (à ajouter à un solde lu en base)
+     */
+    public double getUnflushedAmount(UUID islandId) {
+        return unflushedAmounts.getOrDefault(islandId, 0.0);
+    }
+
+    /**
+     * Exécute l'action sous le verrou d'écriture : aucun lot ne peut être validé pendant
+     * qu'elle lit le solde en base puis getUnflushedAmount, sans quoi un lot validé entre
+     * les deux lectures serait perdu ou compté deux fois
+     */
+    public <T> T whileFlushBlocked(Supplier<T> action) {
+        synchronized (flushLock) {
+            return action.get();
+        }
+    }
+
+    /**
+     * Comme whileFlushBlocked, pour une écriture JDBC : une île insérée avec
+     * bank - getUnflushedAmount doit être validée avant tout lot qui la crédite
+     */
+    public void runWhileFlushBlocked(BlockedWrite write) throws SQLException {
+        synchronized (flushLock) {
+            write.run();
+        }
+    }
+
+    @FunctionalInterface
+    public interface BlockedWrite {
+        void run() throws SQLException;
+    }
+
+    // === ÉCRITURE DU JOURNAL ===
+
+    /**
+     * Écrit les mouvements en attente ; en cas d'échec ils sont remis en file
+     */
+    public void flushPendingTransactions() {
+        if (pendingTransactions.isEmpty()) return;
+
+        synchronized (flushLock) {
+            flushLocked();
+        }
+    }
+
+    /**
+     * Écrit la file sous flushLock ; false si l'écriture a échoué (mouvements remis en file)
+     */
+    private boolean flushLocked() {
+        long start = System.nanoTime();
+        List<Transaction> batch = new ArrayList<>();
+        Transaction transaction;
+        while ((transaction = pendingTransactions.poll()) != null) {
+            batch.add(transaction);
+        }
+        if (batch.isEmpty()) return true;
+
+        if (!plugin.getDatabaseManager().writeBankTransactions(batch)) {
+            // Les mouvements s'additionnent : l'ordre de réécriture est sans importance
+            pendingTransactions.addAll(batch);
+            return false;
+        }
+
+        for (Transaction written : batch) {
+            unflushedAmounts.computeIfPresent(written.islandId(), (id, amount) -> {
+                double remaining = amount - written.amount();
+                return Math.abs(remaining) < 1e-9 ? null : remaining;
+            });
+        }
+        writtenTransactions.addAndGet(batch.size());
+        lastFlushMillis = (System.nanoTime() - start) / 1_000_000L;
+        return true;
+    }
+
+    // === OPÉRATIONS GLOBALES ===
+
+    /**
+     * Vide la banque de toutes les îles, en cache ou non, par une seule transaction en base
+     * (journal compris). La file est écrite d'abord ; les mouvements arrivés ensuite
+     * s'appliquent après le reset. Retourne le nombre d'îles vidées, -1 en cas d'erreur.
+     */
+    public int resetAllBanks(UUID actorId) {
+        synchronized (flushLock) {
+            if (!flushLocked()) return -1;
+
+            int reset = plugin.getDatabaseManager().resetAllBanks(Reason.ADMIN_RESET, actorId, System.currentTimeMillis());
+            if (reset < 0) return -1;
+
+            // Projection en mémoire : il ne reste que les mouvements pas encore écrits
+            for (Island island : plugin.getDatabaseManager().getCachedIslands()) {
+                island.setBank(getUnflushedAmount(island.getId()));
+            }
+            return reset;
+        }
+    }
+
+    /**
+     * Total des banques de toutes les îles : somme en base plus les mouvements en file,
+     * lus sous le verrou d'écriture pour ne compter aucun lot deux fois
+     */
+    public double getTotalBalance() {
+        synchronized (flushLock) {
+            double pending = 0;
+            for (double amount : unflushedAmounts.values()) {
+                pending += amount;
+            }
+            return plugin.getDatabaseManager().getTotalBankBalance() + pending;
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingTransactions.size();
+    }
+
+    public long getWrittenTransactions() {
+        return writtenTransactions.get();
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public void saveAll() {
+        flushPendingTransactions();
+    }
+}
@@ -3,10 +3,12 @@ package fr.skyblock.managers;
 import fr.skyblock.CustomSkyblock;
 import fr.skyblock.models.Island;
 import fr.skyblock.models.SkyblockPlayer;
+import fr.skyblock.utils.IslandWorldCache;
 import org.bukkit.*;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class IslandManager {
 
@@ -62,6 +64,11 @@ public class IslandManager {
             }
         }
 
+        // Oublier ses warps et sa promotion (supprimés en cascade en base)
+        plugin.getWarpManager().removeIslandWarps(island.getId());
+        plugin.getPrinterManager().removeIslandPrinters(island.getId());
+        plugin.getDepositBoxManager().removeIslandDepositBoxes(island.getId());
+
         // Supprimer l'île de la base de données
         plugin.getDatabaseManager().deleteIsland(island.getId());
 
@@ -69,21 +76,31 @@ public class IslandManager {
     }
 
     /**
-     * Téléporte un joueur à son île
+     * Téléporte un joueur à son île. La téléportation a lieu une fois le monde prêt : le
+     * résultat (true si le joueur est arrivé) est donné plus tard, sur le thread principal.
      */
-    public boolean teleportToIsland(Player player, Island island) {
-        if (island == null) return false;
-
-        // Obtenir ou créer le monde de l'île
-        World world = plugin.getWorldManager().getOrCreateIslandWorld(island);
-        if (world == null) {
-            player.sendMessage(ChatColor.RED + "Impossible de charger le monde de l'île !");
-            return false;
-        }
-
-        Location teleportLocation;
+    public CompletableFuture<Boolean> teleportToIsland(Player player, Island island) {
+        if (island == null) return CompletableFuture.completedFuture(false);
+
+        // Le monde est préchauffé (chargement + chunks du centre) avant la téléportation
+        return plugin.getWorldPrewarmManager().teleportWhenReady(player, island,
+                world -> getHomeLocation(player, world),
+                () -> {
+                    // L'entrée dans le monde est notée par PlayerListener.onPlayerTeleport
+                    island.updateActivity();
+
+                    // Sauvegarder l'île
+                    plugin.getDatabaseManager().saveIsland(island);
+
+                    // Mettre à jour la world border
+                    updateWorldBorder(player, island);
+                });
+    }
 
-        // Vérifier s'il y a un home personnalisé
+    /**
+     * Home personnalisé du joueur dans le monde de l'île, ou le centre par défaut
+     */
+    private Location getHomeLocation(Player player, World world) {
         SkyblockPlayer skyblockPlayer = plugin.getDatabaseManager().loadPlayer(player.getUniqueId());
         if (skyblockPlayer != null && skyblockPlayer.hasData("home_x")) {
             double x = skyblockPlayer.getData("home_x", Double.class);
@@ -92,24 +109,11 @@ public class IslandManager {
             float yaw = skyblockPlayer.getData("home_yaw", Double.class).floatValue();
             float pitch = skyblockPlayer.getData("home_pitch", Double.class).floatValue();
 
-            teleportLocation = new Location(world, x, y, z, yaw, pitch);
-        } else {
-            // Position par défaut au centre
-            teleportLocation = new Location(world, 0, 65, 0);
+            return new Location(world, x, y, z, yaw, pitch);
         }
 
-        // Téléportation
-        player.teleport(teleportLocation);
-        plugin.getWorldManager().markPlayerEntered(world.getName());
-        island.updateActivity();
-        
-        // Sauvegarder l'île
-        plugin.getDatabaseManager().saveIsland(island);
-
-        // Mettre à jour la world border
-        updateWorldBorder(player, island);
-
-        return true;
+        // Position par défaut au centre
+        return new Location(world, 0, 65, 0);
     }
 
     /**
@@ -151,6 +155,60 @@ public class IslandManager {
         return null;
     }
 
+    /**
+     * Trouve l'île à une location sans jamais bloquer (listeners) : null s'il n'y a pas
+     * d'île ou si elle est en cours de chargement (voir isIslandLoadingAt)
+     */
+    public Island getLoadedIslandAtLocation(Location location) {
+        IslandWorldCache.Entry entry = getIslandWorldEntry(location.getWorld());
+        return entry != null ? getLoadedIsland(entry) : null;
+    }
+
+    /**
+     * Vérifie si l'île à cette location est en cours de chargement asynchrone
+     */
+    public boolean isIslandLoadingAt(Location location) {
+        UUID islandId = getIslandIdAt(location);
+        return islandId != null && plugin.getDatabaseManager().isIslandLoading(islandId);
+    }
+
+    /**
+     * Entrée du cache monde -> île, ou null si le monde n'est pas un monde d'île
+     */
+    public IslandWorldCache.Entry getIslandWorldEntry(World world) {
+        return world != null ? plugin.getWorldManager().getIslandWorldCache().get(world) : null;
+    }
+
+    /**
+     * Île d'un monde d'île si elle est en cache (sinon son chargement asynchrone est lancé)
+     */
+    public Island getLoadedIsland(IslandWorldCache.Entry entry) {
+        Island island = entry.getIsland();
+        if (island == null) {
+            island = plugin.getDatabaseManager().getIslandIfLoaded(entry.getIslandId());
+            if (island != null) {
+                entry.setIsland(island);
+            }
+        }
+        return island;
+    }
+
+    /**
+     * Charge de façon asynchrone l'île associée à un monde (future complétée avec null sinon)
+     */
+    public CompletableFuture<Island> getIslandFromWorldAsync(World world) {
+        UUID islandId = plugin.getWorldManager().getIslandIdFromWorldName(world.getName());
+        if (islandId == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return plugin.getDatabaseManager().loadIslandAsync(islandId);
+    }
+
+    private UUID getIslandIdAt(Location location) {
+        IslandWorldCache.Entry entry = getIslandWorldEntry(location.getWorld());
+        return entry != null ? entry.getIslandId() : null;
+    }
+
     /**
      * Agrandit une île
      */
@@ -212,8 +270,10 @@ public class IslandManager {
             return false; // Échec du paiement
         }
 
+        int oldLevel = island.getLevel();
         island.setLevel(newLevel);
         plugin.getDatabaseManager().saveIsland(island);
+        plugin.getLeaderboardManager().onLevelChange(oldLevel, newLevel);
         return true;
     }
 
@@ -271,7 +331,7 @@ public class IslandManager {
      * Vérifie si un monde est un monde d'île
      */
     public boolean isIslandWorld(World world) {
-        return plugin.getWorldManager().isIslandWorld(world.getName());
+        return getIslandWorldEntry(world) != null;
     }
 
     /**
@@ -302,8 +362,10 @@ public class IslandManager {
     public List<Island> getAllIslandsWithWorlds() {
         List<Island> islandsWithWorlds = new ArrayList<>();
 
-        for (Island island : plugin.getDatabaseManager().getAllIslands()) {
-            if (plugin.getWorldManager().hasWorld(island)) {
+        // Parcourir les mondes chargés plutôt que le cache, qui ne contient pas toutes les îles
+        for (UUID islandId : plugin.getWorldManager().getLoadedIslandIds()) {
+            Island island = plugin.getDatabaseManager().loadIsland(islandId);
+            if (island != null) {
                 islandsWithWorlds.add(island);
             }
         }
@@ -322,13 +384,7 @@ public class IslandManager {
         }
 
         // Sinon, vérifier si le joueur est membre d'une île
-        for (Island island : plugin.getDatabaseManager().getAllIslands()) {
-            if (island.isMember(playerId)) {
-                return island;
-            }
-        }
-
-        return null;
+        return plugin.getDatabaseManager().getIslandByMember(playerId);
     }
 
     /**
@@ -339,24 +395,27 @@ public class IslandManager {
     }
 
     /**
-     * Nettoie les îles sans monde
+     * Nettoie les îles sans monde : toutes les îles en base dont le dossier du monde
+     * n'existe pas. Lecture et vérification faites hors du thread principal.
      */
     public void cleanupOrphanedIslands() {
-        List<Island> orphanedIslands = new ArrayList<>();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<UUID> orphanedIslands = new ArrayList<>();
 
-        for (Island island : plugin.getDatabaseManager().getAllIslands()) {
-            if (!plugin.getWorldManager().hasWorld(island)) {
-                orphanedIslands.add(island);
+            for (UUID islandId : plugin.getDatabaseManager().getAllIslandIds()) {
+                if (!plugin.getWorldManager().hasWorldFolder(islandId)) {
+                    orphanedIslands.add(islandId);
+                }
             }
-        }
 
-        if (!orphanedIslands.isEmpty()) {
-            plugin.getLogger().info("Nettoyage de " + orphanedIslands.size() + " îles orphelines...");
+            if (!orphanedIslands.isEmpty()) {
+                plugin.getLogger().info("Nettoyage de " + orphanedIslands.size() + " îles orphelines...");
 
-            for (Island island : orphanedIslands) {
-                // Optionnel: supprimer l'île ou essayer de recréer son monde
-                plugin.getLogger().warning("Île orpheline trouvée: " + island.getId() + " (propriétaire: " + island.getOwner() + ")");
+                for (UUID islandId : orphanedIslands) {
+                    // Optionnel: supprimer l'île ou essayer de recréer son monde
+                    plugin.getLogger().warning("Île orpheline trouvée: " + islandId);
+                }
             }
-        }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package fr.skyblock.managers;
+
+import fr.skyblock.CustomSkyblock;
+import fr.skyblock.managers.SchematicManager.SchematicData;
+import fr.skyblock.utils.BlockBatch;
+import fr.skyblock.utils.WorldFiles;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mondes modèles pré-générés, un par schematic. Une nouvelle île est créée en copiant
+ * les fichiers du modèle (NIO, hors du thread principal) puis en important la copie,
+ * au lieu de générer un monde et d'y poser les blocs un à un.
+ */
+public class IslandTemplateManager {
+
+    // Changer cette valeur force la régénération de tous les modèles
+    private static final int TEMPLATE_FORMAT = 1;
+    private static final String MARKER_FILE = "skyblock-template.txt";
+    // Fichiers propres à une instance de monde : la copie doit en recevoir de nouveaux
+    private static final Set<String> SKIPPED_FILES = Set.of("uid.dat", "session.lock", MARKER_FILE);
+
+    private final CustomSkyblock plugin;
+    private final boolean enabled;
+    private final String templatesFolder;
+    private final Map<String, Path> readyTemplates = new ConcurrentHashMap<>();
+    // Modèles à (re)générer, traités un par un sur le thread principal
+    private final Deque<SchematicData> pendingBuilds = new ArrayDeque<>();
+    private boolean building;
+
+    public IslandTemplateManager(CustomSkyblock plugin) {
+        this.plugin = plugin;
+        this.enabled = plugin.getConfig().getBoolean("schematics.templates.enabled", true);
+        this.templatesFolder = plugin.getConfig().getString("island.worlds-folder", "islands") + "/"
+                + plugin.getConfig().getString("schematics.templates.folder", "templates");
+
+        if (enabled) {
+            prepareTemplates(plugin.getSchematicManager().getSchematics());
+        }
+    }
+
+    /**
+     * Repère les modèles à jour et planifie la génération des autres
+     */
+    private void prepareTemplates(Collection<SchematicData> schematics) {
+        for (SchematicData schematic : schematics) {
+            Path directory = templateDirectory(schematic.getId());
+            if (isUpToDate(directory, fingerprint(schematic))) {
+                readyTemplates.put(schematic.getId(), directory);
+            } else {
+                pendingBuilds.add(schematic);
+            }
+        }
+
+        plugin.getLogger().info("Modèles d'îles prêts: " + readyTemplates.size() + ", à générer: " + pendingBuilds.size());
+
+        // Après le démarrage complet du serveur
+        if (!pendingBuilds.isEmpty()) {
+            Bukkit.getScheduler().runTaskLater(plugin, this::buildNextTemplate, 20L);
+        }
+    }
+
+    public boolean hasTemplate(String schematicId) {
+        return readyTemplates.containsKey(schematicId);
+    }
+
+    public int getReadyTemplateCount() {
+        return readyTemplates.size();
+    }
+
+    /**
+     * Copie le modèle d'un schematic vers le dossier du monde cible, hors du thread principal.
+     * Le future vaut false si le modèle n'est pas prêt ou si la copie a échoué
+     * (la copie partielle est alors supprimée).
+     */
+    public CompletableFuture<Boolean> cloneTemplate(String schematicId, String targetWorldName) {
+        Path source = readyTemplates.get(schematicId);
+        if (source == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        Path target = Bukkit.getWorldContainer().toPath().resolve(targetWorldName);
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long start = System.currentTimeMillis();
+            try {
+                if (Files.exists(target)) {
+                    throw new FileAlreadyExistsException(target.toString());
+                }
+                WorldFiles.copyDirectory(source, target, SKIPPED_FILES);
+                if (plugin.getConfig().getBoolean("debug.enabled", false)) {
+                    plugin.getLogger().info("Modèle " + schematicId + " copié vers " + targetWorldName +
+                            " en " + (System.currentTimeMillis() - start) + "ms");
+                }
+                future.complete(true);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Échec de la copie du modèle " + schematicId + " : " + e.getMessage());
+                deleteQuietly(target);
+                future.complete(false);
+            }
+        });
+        return future;
+    }
+
+    // === GÉNÉRATION DES MODÈLES ===
+
+    private void buildNextTemplate() {
+        if (building) return;
+
+        SchematicData schematic = pendingBuilds.poll();
+        if (schematic == null) return;
+        building = true;
+
+        String worldName = templatesFolder + "/" + schematic.getId();
+        Path directory = templateDirectory(schematic.getId());
+
+        // Repartir d'un dossier vide (ancienne version du modèle)
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            deleteQuietly(directory);
+            Bukkit.getScheduler().runTask(plugin, () -> generateTemplate(schematic, worldName, directory));
+        });
+    }
+
+    private void generateTemplate(SchematicData schematic, String worldName, Path directory) {
+        World world;
+        try {
+            WorldCreator creator = plugin.getWorldManager().createVoidWorldCreator(worldName);
+            world = creator.createWorld();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Impossible de créer le modèle " + schematic.getId() + " : " + e.getMessage());
+            world = null;
+        }
+
+        if (world == null) {
+            finishBuild();
+            return;
+        }
+
+        world.setKeepSpawnInMemory(false);
+        World templateWorld = world;
+        plugin.getSchematicManager().pasteSchematic(new Location(world, 0, 64, 0), schematic, plugin.getDefaultIslandSize(),
+                new BlockBatch.ProgressListener() {
+                    @Override
+                    public void onProgress(int done, int total) {
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        saveTemplate(schematic, templateWorld, directory);
+                    }
+                });
+    }
+
+    private void saveTemplate(SchematicData schematic, World templateWorld, Path directory) {
+        templateWorld.save();
+        if (!Bukkit.unloadWorld(templateWorld, true)) {
+            plugin.getLogger().warning("Impossible de décharger le modèle " + schematic.getId());
+            finishBuild();
+            return;
+        }
+
+        String fingerprint = fingerprint(schematic);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Files.writeString(directory.resolve(MARKER_FILE), fingerprint, StandardCharsets.UTF_8);
+                readyTemplates.put(schematic.getId(), directory);
+                plugin.getLogger().info("Modèle d'île généré: " + schematic.getId());
+            } catch (IOException e) {
+                plugin.getLogger().warning("Impossible d'écrire le marqueur du modèle " + schematic.getId() + " : " + e.getMessage());
+            }
+            Bukkit.getScheduler().runTask(plugin, this::finishBuild);
+        });
+    }
+
+    private void finishBuild() {
+        building = false;
+        if (!pendingBuilds.isEmpty()) {
+            Bukkit.getScheduler().runTaskLater(plugin, this::buildNextTemplate, 1L);
+        }
+    }
+
+    // === UTILITAIRES ===
+
+    private Path templateDirectory(String schematicId) {
+        return Bukkit.getWorldContainer().toPath().resolve(templatesFolder).resolve(schematicId);
+    }
+
+    private boolean isUpToDate(Path directory, String fingerprint) {
+        Path marker = directory.resolve(MARKER_FILE);
+        if (!Files.isRegularFile(marker) || !Files.isDirectory(directory.resolve("region"))) {
+            return false;
+        }
+        try {
+            return Files.readString(marker, StandardCharsets.UTF_8).trim().equals(fingerprint);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Empreinte du contenu d'un schematic : un modèle dont l'empreinte diffère est régénéré
+     */
+    private String fingerprint(SchematicData schematic) {
+        return TEMPLATE_FORMAT + "-" + schematic.getFingerprint() + "-" + plugin.getDefaultIslandSize();
+    }
+
+    private void deleteQuietly(Path directory) {
+        try {
+            WorldFiles.deleteDirectory(directory);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible de supprimer " + directory + " : " + e.getMessage());
+        }
+    }
+}
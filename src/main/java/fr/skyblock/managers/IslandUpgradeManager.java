@@ -74,15 +74,7 @@ public class IslandUpgradeManager {
      * Obtient l'ID de l'île à une location donnée
      */
     public UUID getIslandIdAtLocation(Location location) {
-        for (Island island : databaseManager.getAllIslands()) {
-            if (island.getCenter() != null && island.getCenter().getWorld().equals(location.getWorld())) {
-                double distance = island.getCenter().distance(location);
-                if (distance <= island.getSize()) {
-                    return island.getId();
-                }
-            }
-        }
-        return null;
+        return databaseManager.getIslandIdAtLocation(location);
     }
 
     /**
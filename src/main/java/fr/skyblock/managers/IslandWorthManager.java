@@ -0,0 +1,493 @@
+package fr.skyblock.managers;
+
+import fr.skyblock.CustomSkyblock;
+import fr.skyblock.models.Island;
+import fr.skyblock.utils.IslandWorldCache;
+import fr.skyblock.utils.LatencyRecorder;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calcul de la valeur d'une île d'après les blocs réellement posés. Le thread principal ne
+ * fait que copier les chunks de l'île (ChunkSnapshot), dans un budget de temps par tick ;
+ * le comptage se fait en parallèle sur un ForkJoinPool dédié, à partir de la table de
+ * valeurs configurée, et seul le résultat est réécrit dans l'île. Le budget borne chaque
+ * tick, pas le calcul : une grande île est copiée sur plusieurs ticks et son coût total
+ * sur le thread principal est la somme de ces ticks (voir getMainThreadMicros).
+ *
+ * Entre deux comptages, la valeur est tenue à jour par différences : les listeners signalent
+ * chaque bloc posé, cassé, détruit ou déplacé, et les compteurs de l'île (un tableau indexé
+ * par Material.ordinal()) sont ajustés sans relire le monde. Un recomptage périodique des
+ * îles chargées corrige les écarts (croissance, liquides, modifications par d'autres plugins).
+ */
+public class IslandWorthManager {
+
+    // Chunks comptés par tâche avant de ne plus découper
+    private static final int CHUNKS_PER_TASK = 4;
+    // Fréquence de la recherche d'îles à réconcilier
+    private static final long RECONCILE_CHECK_TICKS = 20L * 60L;
+
+    private final CustomSkyblock plugin;
+    // Valeur par bloc, indexée par Material.ordinal() (lecture seule après construction)
+    private final double[] blockValues;
+    private final ForkJoinPool pool;
+    // Temps de copie par tick ; au moins un chunk est copié à chaque tick
+    private final long snapshotBudgetNanos;
+    private final long reconcileIntervalMillis;
+    private final int reconcilePerRun;
+
+    // Un seul calcul par île, partagé par tous les demandeurs
+    private final Map<UUID, CompletableFuture<Double>> pendingCalculations = new ConcurrentHashMap<>();
+    // Compteurs des îles dont le monde est chargé (thread principal uniquement)
+    private final Map<UUID, BlockCounter> counters = new HashMap<>();
+    // Calculs en cours : les changements des chunks déjà copiés sont reportés sur leur résultat
+    private final Map<UUID, Calculation> countingCalculations = new HashMap<>();
+    // Temps total passé sur le thread principal par calcul, tous ticks confondus (microsecondes)
+    private final LatencyRecorder mainThreadMicros = new LatencyRecorder(256);
+    // Nombre de ticks sur lesquels les copies d'un calcul ont été réparties
+    private final LatencyRecorder snapshotTicks = new LatencyRecorder(256);
+    private final LatencyRecorder totalMillis = new LatencyRecorder(256);
+    private final AtomicLong completedCalculations = new AtomicLong();
+
+    public IslandWorthManager(CustomSkyblock plugin) {
+        this.plugin = plugin;
+        this.blockValues = loadBlockValues(plugin.getConfig().getConfigurationSection("island-worth.block-values"));
+
+        int threads = plugin.getConfig().getInt("island-worth.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.pool = new ForkJoinPool(Math.max(1, threads), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Skyblock-Worth-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        this.snapshotBudgetNanos = Math.max(50L, plugin.getConfig().getLong("island-worth.snapshot-budget-micros", 500L)) * 1000L;
+        this.reconcileIntervalMillis = Math.max(1L, plugin.getConfig().getLong("island-worth.reconcile-interval-minutes", 30L)) * 60_000L;
+        this.reconcilePerRun = Math.max(0, plugin.getConfig().getInt("island-worth.reconcile-per-run", 2));
+
+        if (reconcilePerRun > 0) {
+            Bukkit.getScheduler().runTaskTimer(plugin, this::reconcileLoadedIslands, RECONCILE_CHECK_TICKS, RECONCILE_CHECK_TICKS);
+        }
+    }
+
+    private double[] loadBlockValues(ConfigurationSection section) {
+        double[] values = new double[Material.values().length];
+        if (section == null) return values;
+
+        for (String key : section.getKeys(false)) {
+            Material material = Material.matchMaterial(key);
+            if (material == null || !material.isBlock()) {
+                plugin.getLogger().warning("Bloc inconnu dans island-worth.block-values: " + key);
+                continue;
+            }
+            values[material.ordinal()] = section.getDouble(key);
+        }
+        return values;
+    }
+
+    public double getBlockValue(Material material) {
+        return blockValues[material.ordinal()];
+    }
+
+    // === SUIVI INCRÉMENTAL ===
+
+    /**
+     * Vrai si remplacer un bloc par un autre change la valeur d'une île ; permet aux
+     * listeners d'ignorer la plupart des blocs sans chercher l'île
+     */
+    public boolean affectsWorth(Material removed, Material added) {
+        return removed != added && (blockValues[removed.ordinal()] != 0 || blockValues[added.ordinal()] != 0);
+    }
+
+    /**
+     * Applique le remplacement d'un bloc de l'île (thread principal). Les blocs hors des
+     * limites de l'île sont ignorés, comme lors d'un comptage complet.
+     */
+    public void recordChange(Island island, int x, int z, Material removed, Material added) {
+        if (!affectsWorth(removed, added) || !isInsideIsland(island, x, z)) return;
+
+        BlockCounter counter = counters.get(island.getId());
+        if (counter != null) {
+            counter.counts[removed.ordinal()]--;
+            counter.counts[added.ordinal()]++;
+        }
+        Calculation calculation = countingCalculations.get(island.getId());
+        if (calculation != null) {
+            calculation.recordChange(x, z, removed, added);
+        }
+
+        island.setWorth(island.getWorth() + blockValues[added.ordinal()] - blockValues[removed.ordinal()]);
+        plugin.getDatabaseManager().saveIsland(island);
+    }
+
+    /**
+     * Vrai si les compteurs de l'île ont été établis par un comptage depuis le chargement
+     * de son monde : sa valeur est alors à jour sans recomptage
+     */
+    public boolean isTracked(UUID islandId) {
+        return counters.containsKey(islandId);
+    }
+
+    /**
+     * Nombre de blocs d'un matériau sur l'île, ou -1 si l'île n'est pas suivie
+     */
+    public int getBlockCount(UUID islandId, Material material) {
+        BlockCounter counter = counters.get(islandId);
+        return counter != null ? counter.counts[material.ordinal()] : -1;
+    }
+
+    /**
+     * Oublie les compteurs d'une île dont le monde est déchargé
+     */
+    public void forget(UUID islandId) {
+        counters.remove(islandId);
+    }
+
+    private boolean isInsideIsland(Island island, int x, int z) {
+        Location center = island.getCenterPosition();
+        int radius = island.getSize() / 2;
+        int centerX = center != null ? center.getBlockX() : 0;
+        int centerZ = center != null ? center.getBlockZ() : 0;
+        return Math.abs(x - centerX) <= radius && Math.abs(z - centerZ) <= radius;
+    }
+
+    /**
+     * Recompte, parmi les îles dont le monde est chargé, celles dont les compteurs sont
+     * absents ou les plus anciens (au plus reconcile-per-run à la fois)
+     */
+    private void reconcileLoadedIslands() {
+        long now = System.currentTimeMillis();
+        List<Island> candidates = new ArrayList<>();
+        for (IslandWorldCache.Entry entry : plugin.getWorldManager().getIslandWorldCache().entries()) {
+            Island island = entry.getIsland();
+            if (island == null || pendingCalculations.containsKey(island.getId())) continue;
+
+            BlockCounter counter = counters.get(island.getId());
+            if (counter == null || now - counter.reconciledAt >= reconcileIntervalMillis) {
+                candidates.add(island);
+            }
+        }
+
+        candidates.sort(Comparator.comparingLong(island -> {
+            BlockCounter counter = counters.get(island.getId());
+            return counter != null ? counter.reconciledAt : 0L;
+        }));
+        for (int i = 0; i < Math.min(reconcilePerRun, candidates.size()); i++) {
+            recalculate(candidates.get(i));
+        }
+    }
+
+    // === RECOMPTAGE COMPLET ===
+
+    /**
+     * Recompte la valeur de l'île et rétablit ses compteurs. Le future est complété sur le thread principal, une fois
+     * la valeur écrite dans l'île (ou avec une erreur si le monde n'a pas pu être chargé).
+     */
+    public CompletableFuture<Double> recalculate(Island island) {
+        return pendingCalculations.computeIfAbsent(island.getId(), id -> {
+            CompletableFuture<Double> future = new CompletableFuture<>();
+            long start = System.nanoTime();
+
+            plugin.getWorldPrewarmManager().prewarm(island).whenComplete((world, error) -> runOnMainThread(() -> {
+                if (error != null || world == null) {
+                    finish(island, future, null, new IllegalStateException("Monde de l'île indisponible"));
+                    return;
+                }
+                new Calculation(island, world, future, start).start();
+            }));
+
+            return future;
+        });
+    }
+
+    public boolean isCalculating(UUID islandId) {
+        return pendingCalculations.containsKey(islandId);
+    }
+
+    public long getCompletedCalculations() {
+        return completedCalculations.get();
+    }
+
+    /**
+     * Temps total sur le thread principal par calcul (chargement, toutes les copies, écriture du
+     * résultat), et non le temps d'un seul tick
+     */
+    public LatencyRecorder getMainThreadMicros() {
+        return mainThreadMicros;
+    }
+
+    public LatencyRecorder getSnapshotTicks() {
+        return snapshotTicks;
+    }
+
+    public long getSnapshotBudgetMicros() {
+        return snapshotBudgetNanos / 1000L;
+    }
+
+    public LatencyRecorder getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void finish(Island island, CompletableFuture<Double> future, Double worth, Throwable error) {
+        pendingCalculations.remove(island.getId(), future);
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(worth);
+        }
+    }
+
+    private void runOnMainThread(Runnable action) {
+        if (Bukkit.isPrimaryThread()) {
+            action.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, action);
+        }
+    }
+
+    /**
+     * Un recalcul : chargement asynchrone des chunks, copies réparties sur les ticks, comptage parallèle
+     */
+    private final class Calculation {
+        private final Island island;
+        private final World world;
+        private final CompletableFuture<Double> future;
+        private final long start;
+
+        private final int minX, maxX, minZ, maxZ;
+        private final Deque<Chunk> loadedChunks = new ArrayDeque<>();
+        private final List<ChunkSnapshot> snapshots = new ArrayList<>();
+        // Chunks déjà copiés : leurs changements suivants sont absents du comptage
+        private final Set<Long> snapshottedChunks = new HashSet<>();
+        // Changements de ces chunks, ajoutés au résultat une fois le comptage terminé
+        private final int[] changesSinceSnapshot = new int[blockValues.length];
+        private int expectedChunks;
+        private int failedChunks;
+        private int ticks;
+        private long mainThreadNanos;
+
+        private Calculation(Island island, World world, CompletableFuture<Double> future, long start) {
+            this.island = island;
+            this.world = world;
+            this.future = future;
+            this.start = start;
+
+            Location center = island.getCenterPosition();
+            int centerX = center != null ? center.getBlockX() : 0;
+            int centerZ = center != null ? center.getBlockZ() : 0;
+            int radius = island.getSize() / 2;
+            this.minX = centerX - radius;
+            this.maxX = centerX + radius;
+            this.minZ = centerZ - radius;
+            this.maxZ = centerZ + radius;
+        }
+
+        private void start() {
+            long begin = System.nanoTime();
+            countingCalculations.put(island.getId(), this);
+            List<CompletableFuture<Chunk>> requests = new ArrayList<>();
+            for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+                for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                    requests.add(world.getChunkAtAsync(chunkX, chunkZ));
+                }
+            }
+            expectedChunks = requests.size();
+
+            for (CompletableFuture<Chunk> request : requests) {
+                request.whenComplete((chunk, error) -> runOnMainThread(() -> onChunkLoaded(chunk, error)));
+            }
+            mainThreadNanos += System.nanoTime() - begin;
+        }
+
+        private void onChunkLoaded(Chunk chunk, Throwable error) {
+            long begin = System.nanoTime();
+            if (error != null || chunk == null) {
+                failedChunks++;
+            } else {
+                // Garder le chunk chargé jusqu'à sa copie
+                chunk.addPluginChunkTicket(plugin);
+                loadedChunks.add(chunk);
+            }
+            mainThreadNanos += System.nanoTime() - begin;
+
+            if (loadedChunks.size() + failedChunks == expectedChunks) {
+                startSnapshots();
+            }
+        }
+
+        private void startSnapshots() {
+            new BukkitRunnable() {
+                @Override
+                public void run() {
+                    long begin = System.nanoTime();
+                    long deadline = begin + snapshotBudgetNanos;
+                    while (!loadedChunks.isEmpty()) {
+                        Chunk chunk = loadedChunks.poll();
+                        snapshots.add(chunk.getChunkSnapshot(false, false, false));
+                        snapshottedChunks.add(chunkKey(chunk.getX(), chunk.getZ()));
+                        chunk.removePluginChunkTicket(plugin);
+                        if (System.nanoTime() >= deadline) break;
+                    }
+                    mainThreadNanos += System.nanoTime() - begin;
+                    ticks++;
+
+                    if (loadedChunks.isEmpty()) {
+                        cancel();
+                        count();
+                    }
+                }
+            }.runTaskTimer(plugin, 0L, 1L);
+        }
+
+        private void count() {
+            // Une valeur partielle écraserait la précédente : abandonner le calcul
+            if (failedChunks > 0) {
+                plugin.getLogger().warning(failedChunks + " chunks non chargés pour le calcul de l'île " + island.getId());
+                countingCalculations.remove(island.getId(), this);
+                finish(island, future, null, new IllegalStateException("Chunks de l'île indisponibles"));
+                return;
+            }
+
+            CountTask task = new CountTask(snapshots, 0, snapshots.size(), minX, maxX, minZ, maxZ,
+                    world.getMinHeight(), world.getMaxHeight());
+            CompletableFuture.supplyAsync(task::invoke, pool)
+                    .whenComplete((counts, error) -> Bukkit.getScheduler().runTask(plugin, () -> apply(counts, error)));
+        }
+
+        /**
+         * Garde de côté un changement si son chunk est déjà copié ; sinon la copie à venir le contient
+         */
+        private void recordChange(int x, int z, Material removed, Material added) {
+            if (!snapshottedChunks.contains(chunkKey(x >> 4, z >> 4))) return;
+            changesSinceSnapshot[removed.ordinal()]--;
+            changesSinceSnapshot[added.ordinal()]++;
+        }
+
+        private void apply(int[] counts, Throwable error) {
+            countingCalculations.remove(island.getId(), this);
+            if (error != null) {
+                plugin.getLogger().warning("Erreur lors du calcul de la valeur de l'île " + island.getId() + ": " + error.getMessage());
+                finish(island, future, null, error);
+                return;
+            }
+
+            long begin = System.nanoTime();
+            double worth = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += changesSinceSnapshot[i];
+                worth += counts[i] * blockValues[i];
+            }
+            // Le monde a pu être déchargé pendant le comptage : ne garder les compteurs que s'il est encore là
+            if (Bukkit.getWorld(world.getUID()) != null) {
+                counters.put(island.getId(), new BlockCounter(counts, System.currentTimeMillis()));
+            }
+            island.setWorth(worth);
+            plugin.getDatabaseManager().saveIsland(island);
+            mainThreadNanos += System.nanoTime() - begin;
+
+            mainThreadMicros.record(mainThreadNanos / 1000L);
+            snapshotTicks.record(ticks);
+            totalMillis.record((System.nanoTime() - start) / 1_000_000L);
+            completedCalculations.incrementAndGet();
+            finish(island, future, worth, null);
+        }
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Compteurs d'une île : nombre de blocs par Material.ordinal() et date du dernier comptage
+     */
+    private static final class BlockCounter {
+        private final int[] counts;
+        private final long reconciledAt;
+
+        private BlockCounter(int[] counts, long reconciledAt) {
+            this.counts = counts;
+            this.reconciledAt = reconciledAt;
+        }
+    }
+
+    /**
+     * Nombre de blocs par matériau d'une tranche de copies, découpée récursivement
+     */
+    private final class CountTask extends RecursiveTask<int[]> {
+        private final List<ChunkSnapshot> snapshots;
+        private final int from, to;
+        private final int minX, maxX, minZ, maxZ;
+        private final int minY, maxY;
+
+        private CountTask(List<ChunkSnapshot> snapshots, int from, int to,
+                          int minX, int maxX, int minZ, int maxZ, int minY, int maxY) {
+            this.snapshots = snapshots;
+            this.from = from;
+            this.to = to;
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minZ = minZ;
+            this.maxZ = maxZ;
+            this.minY = minY;
+            this.maxY = maxY;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= CHUNKS_PER_TASK) {
+                int[] counts = new int[blockValues.length];
+                for (int i = from; i < to; i++) {
+                    countChunk(snapshots.get(i), counts);
+                }
+                return counts;
+            }
+
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(snapshots, from, middle, minX, maxX, minZ, maxZ, minY, maxY);
+            CountTask right = new CountTask(snapshots, middle, to, minX, maxX, minZ, maxZ, minY, maxY);
+            left.fork();
+            int[] counts = right.compute();
+            int[] other = left.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other[i];
+            }
+            return counts;
+        }
+
+        private void countChunk(ChunkSnapshot snapshot, int[] counts) {
+            int baseX = snapshot.getX() << 4;
+            int baseZ = snapshot.getZ() << 4;
+            // Colonnes du chunk comprises dans l'île
+            int fromX = Math.max(0, minX - baseX), toX = Math.min(15, maxX - baseX);
+            int fromZ = Math.max(0, minZ - baseZ), toZ = Math.min(15, maxZ - baseZ);
+
+            int sections = (maxY - minY) >> 4;
+            for (int section = 0; section < sections; section++) {
+                // Sections vides (majoritaires sur une île dans le vide) : rien à compter
+                if (snapshot.isSectionEmpty(section)) continue;
+
+                int sectionMinY = minY + (section << 4);
+                for (int y = sectionMinY; y < sectionMinY + 16; y++) {
+                    for (int x = fromX; x <= toX; x++) {
+                        for (int z = fromZ; z <= toZ; z++) {
+                            counts[snapshot.getBlockType(x, y, z).ordinal()]++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package fr.skyblock.managers;
+
+import fr.skyblock.CustomSkyblock;
+import org.bukkit.Bukkit;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Classement des îles matérialisé en mémoire : le top N (niveau puis valeur) est relu en
+ * base hors du thread principal, périodiquement ou après assez de changements de niveau,
+ * et remplacé d'un bloc. /is top, le menu de classement et les placeholders ne font que
+ * lire cette copie, noms des propriétaires compris.
+ */
+public class LeaderboardManager {
+
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * Ligne du classement (immuable)
+     */
+    public record Entry(int rank, UUID islandId, UUID ownerId, String ownerName, int level, double worth) {
+    }
+
+    private final CustomSkyblock plugin;
+    private final int size;
+    private final int levelChangeThreshold;
+
+    // Remplacés ensemble à chaque rafraîchissement, lus sans verrou
+    private volatile List<Entry> entries = List.of();
+    private volatile Map<UUID, Entry> entriesByIsland = Map.of();
+    private volatile long lastRefresh;
+    private volatile long lastRefreshMillis;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile boolean refreshRequested;
+    // Somme des écarts de niveau depuis le dernier rafraîchissement (thread principal)
+    private int pendingLevelChanges;
+
+    public LeaderboardManager(CustomSkyblock plugin) {
+        this.plugin = plugin;
+        this.size = Math.max(1, Math.min(MAX_SIZE, plugin.getConfig().getInt("leaderboard.size", 100)));
+        this.levelChangeThreshold = Math.max(1, plugin.getConfig().getInt("leaderboard.level-change-threshold", 10));
+
+        long interval = Math.max(10L, plugin.getConfig().getLong("leaderboard.refresh-interval-seconds", 300L)) * 20L;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::refresh, 20L, interval);
+    }
+
+    // === LECTURE ===
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Page du classement (index de page à partir de 0)
+     */
+    public List<Entry> getPage(int page, int pageSize) {
+        List<Entry> current = entries;
+        int from = Math.max(0, page) * pageSize;
+        if (from >= current.size()) return List.of();
+        return current.subList(from, Math.min(current.size(), from + pageSize));
+    }
+
+    /**
+     * Ligne d'un rang (à partir de 1), ou null si le classement est plus court
+     */
+    public Entry getEntry(int rank) {
+        List<Entry> current = entries;
+        return rank >= 1 && rank <= current.size() ? current.get(rank - 1) : null;
+    }
+
+    /**
+     * Rang d'une île, ou -1 si elle n'est pas dans le top
+     */
+    public int getRank(UUID islandId) {
+        Entry entry = entriesByIsland.get(islandId);
+        return entry != null ? entry.rank() : -1;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getLastRefresh() {
+        return lastRefresh;
+    }
+
+    public long getLastRefreshMillis() {
+        return lastRefreshMillis;
+    }
+
+    /**
+     * Valeur d'un placeholder, lue dans le classement en mémoire : "rank", "top_<n>_name",
+     * "top_<n>_level" ou "top_<n>_worth". Null si le placeholder est inconnu.
+     */
+    public String resolvePlaceholder(UUID islandId, String params) {
+        if (params.equals("rank")) {
+            int rank = islandId != null ? getRank(islandId) : -1;
+            return rank > 0 ? String.valueOf(rank) : "-";
+        }
+        if (!params.startsWith("top_")) return null;
+
+        int separator = params.indexOf('_', 4);
+        if (separator < 0) return null;
+        int rank;
+        try {
+            rank = Integer.parseInt(params.substring(4, separator));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        Entry entry = getEntry(rank);
+        return switch (params.substring(separator + 1)) {
+            case "name" -> entry != null ? entry.ownerName() : "-";
+            case "level" -> entry != null ? String.valueOf(entry.level()) : "-";
+            case "worth" -> entry != null ? String.format("%.1f", entry.worth()) : "-";
+            default -> null;
+        };
+    }
+
+    // === RAFRAÎCHISSEMENT ===
+
+    /**
+     * Signale un changement de niveau (thread principal) ; le classement est relu dès que
+     * la somme des écarts atteint le seuil configuré
+     */
+    public void onLevelChange(int oldLevel, int newLevel) {
+        pendingLevelChanges += Math.abs(newLevel - oldLevel);
+        if (pendingLevelChanges >= levelChangeThreshold) {
+            pendingLevelChanges = 0;
+            requestRefresh();
+        }
+    }
+
+    public void requestRefresh() {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::refresh);
+    }
+
+    /**
+     * Relit le classement (hors du thread principal). Un seul rafraîchissement à la fois ;
+     * une demande reçue pendant l'un d'eux le fait relancer une fois terminé.
+     */
+    private void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            refreshRequested = true;
+            return;
+        }
+
+        try {
+            do {
+                refreshRequested = false;
+                long start = System.currentTimeMillis();
+
+                // Écrire d'abord les niveaux et valeurs encore dans la file d'écriture différée
+                plugin.getDatabaseManager().flushDirtyIslands();
+                List<Entry> loaded = plugin.getDatabaseManager().getLeaderboard(size);
+                if (loaded == null) return; // Erreur déjà journalisée : garder l'ancien classement
+
+                Map<UUID, Entry> byIsland = new HashMap<>(loaded.size() * 2);
+                for (Entry entry : loaded) {
+                    byIsland.put(entry.islandId(), entry);
+                }
+                entries = Collections.unmodifiableList(loaded);
+                entriesByIsland = Collections.unmodifiableMap(byIsland);
+                lastRefresh = System.currentTimeMillis();
+                lastRefreshMillis = lastRefresh - start;
+            } while (refreshRequested);
+        } finally {
+            refreshing.set(false);
+        }
+    }
+}
@@ -23,6 +23,7 @@ public class MenuManager {
     private final UpgradeMenu upgradeMenu;
     private final SchematicMenu schematicMenu;
     private final WarpMenu warpMenu;
+    private final TopMenu topMenu;
 
     public MenuManager(CustomSkyblock plugin) {
         this.plugin = plugin;
@@ -35,6 +36,7 @@ public class MenuManager {
         this.upgradeMenu = new UpgradeMenu(plugin, this);
         this.schematicMenu = new SchematicMenu(plugin, this);
         this.warpMenu = new WarpMenu(plugin, this);
+        this.topMenu = new TopMenu(plugin, this);
     }
 
     // === MÉTHODES PUBLIQUES POUR OUVRIR LES MENUS ===
@@ -71,6 +73,10 @@ public class MenuManager {
         warpMenu.openPlayerWarps(player, targetPlayerName);
     }
 
+    public void openTopMenu(Player player) {
+        topMenu.open(player);
+    }
+
     // === GESTION DES DONNÉES DE MENU ===
 
     public void setPlayerMenu(UUID playerId, String menuType) {
@@ -112,6 +118,7 @@ public class MenuManager {
             case "warp" -> warpMenu.handleClick(player, slot);
             case "player_warps" -> warpMenu.handlePlayerWarpsClick(player, slot);
             case "my_warps" -> warpMenu.handleMyWarpsClick(player, slot);
+            case "top" -> topMenu.handleClick(player, slot);
         }
     }
 
@@ -148,4 +155,8 @@ public class MenuManager {
     public WarpMenu getWarpMenu() {
         return warpMenu;
     }
+
+    public TopMenu getTopMenu() {
+        return topMenu;
+    }
 }
\ No newline at end of file
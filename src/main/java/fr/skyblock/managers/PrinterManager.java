@@ -18,6 +18,12 @@ public class PrinterManager {
     
     // Cache des imprimantes par île
     private final Map<UUID, Map<String, PrinterData>> islandPrinters = new ConcurrentHashMap<>();
+
+    // Index secondaires : ID -> imprimante, ID -> île, propriétaire -> imprimantes
+    private final Map<String, PrinterData> printersById = new ConcurrentHashMap<>();
+    private final Map<String, UUID> printerIslands = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<String, PrinterData>> printersByOwner = new ConcurrentHashMap<>();
+    private final Map<String, PrinterData> printersView = Collections.unmodifiableMap(printersById);
     
     public PrinterManager(CustomSkyblock plugin) {
         this.plugin = plugin;
@@ -26,26 +32,82 @@ public class PrinterManager {
     }
     
     /**
-     * Charge toutes les imprimantes depuis les îles
+     * Charge toutes les imprimantes depuis la base, îles hors cache comprises ;
+     * pour les îles en cache, l'index pointe sur leurs propres instances
      */
     private void loadAllPrinters() {
-        for (Island island : databaseManager.getAllIslands()) {
-            Map<String, PrinterData> printers = island.getPrinters();
-            if (!printers.isEmpty()) {
-                islandPrinters.put(island.getId(), new ConcurrentHashMap<>(printers));
+        databaseManager.loadPrinters().forEach((islandId, printers) -> {
+            for (PrinterData printer : printers) {
+                indexPrinter(islandId, printer);
+            }
+        });
+        for (Island island : databaseManager.getCachedIslands()) {
+            onIslandCached(island);
+        }
+    }
+
+    /**
+     * Appelé quand une île entre dans le cache (chargement ou création) : ses imprimantes
+     * remplacent dans l'index les copies lues en base. L'éviction ne retire rien de l'index.
+     */
+    public void onIslandCached(Island island) {
+        for (PrinterData printer : island.getPrinters().values()) {
+            indexPrinter(island.getId(), printer);
+        }
+    }
+
+    /**
+     * Oublie les imprimantes d'une île supprimée (la base les supprime en cascade)
+     */
+    public void removeIslandPrinters(UUID islandId) {
+        Map<String, PrinterData> printers = islandPrinters.remove(islandId);
+        if (printers != null) {
+            new ArrayList<>(printers.keySet()).forEach(this::unindexPrinter);
+        }
+    }
+
+    private void indexPrinter(UUID islandId, PrinterData printer) {
+        PrinterData previous = printersById.put(printer.getId(), printer);
+        if (previous != null && !previous.getOwner().equals(printer.getOwner())) {
+            removePrinterFromOwner(previous);
+        }
+        UUID previousIsland = printerIslands.put(printer.getId(), islandId);
+        if (previousIsland != null && !previousIsland.equals(islandId)) {
+            Map<String, PrinterData> previousIslandPrinters = islandPrinters.get(previousIsland);
+            if (previousIslandPrinters != null) {
+                previousIslandPrinters.remove(printer.getId());
             }
         }
+        islandPrinters.computeIfAbsent(islandId, k -> new ConcurrentHashMap<>()).put(printer.getId(), printer);
+        printersByOwner.computeIfAbsent(printer.getOwner(), k -> new ConcurrentHashMap<>()).put(printer.getId(), printer);
+    }
+
+    private void unindexPrinter(String printerId) {
+        PrinterData previous = printersById.remove(printerId);
+        UUID islandId = printerIslands.remove(printerId);
+        if (islandId != null) {
+            Map<String, PrinterData> printers = islandPrinters.get(islandId);
+            if (printers != null) {
+                printers.remove(printerId);
+            }
+        }
+        if (previous != null) {
+            removePrinterFromOwner(previous);
+        }
+    }
+
+    private void removePrinterFromOwner(PrinterData printer) {
+        Map<String, PrinterData> ownerPrinters = printersByOwner.get(printer.getOwner());
+        if (ownerPrinters != null) {
+            ownerPrinters.remove(printer.getId());
+        }
     }
     
     /**
-     * Obtient toutes les imprimantes de toutes les îles
+     * Obtient toutes les imprimantes de toutes les îles (vue en lecture seule)
      */
     public Map<String, PrinterData> getAllPrinters() {
-        Map<String, PrinterData> allPrinters = new HashMap<>();
-        for (Map<String, PrinterData> islandPrinters : islandPrinters.values()) {
-            allPrinters.putAll(islandPrinters);
-        }
-        return allPrinters;
+        return printersView;
     }
     
     /**
@@ -59,15 +121,8 @@ public class PrinterManager {
      * Obtient les imprimantes d'un joueur spécifique
      */
     public List<PrinterData> getPrintersForPlayer(UUID playerId) {
-        List<PrinterData> playerPrinters = new ArrayList<>();
-        for (Map<String, PrinterData> islandPrinters : islandPrinters.values()) {
-            for (PrinterData printer : islandPrinters.values()) {
-                if (printer.getOwner().equals(playerId)) {
-                    playerPrinters.add(printer);
-                }
-            }
-        }
-        return playerPrinters;
+        Map<String, PrinterData> ownerPrinters = printersByOwner.get(playerId);
+        return ownerPrinters != null ? new ArrayList<>(ownerPrinters.values()) : new ArrayList<>();
     }
     
     /**
@@ -77,11 +132,10 @@ public class PrinterManager {
         Island island = databaseManager.loadIsland(islandId);
         if (island != null) {
             island.addPrinter(printer);
-            databaseManager.saveIsland(island);
+            databaseManager.savePrinter(islandId, printer);
             
             // Mettre à jour le cache
-            islandPrinters.computeIfAbsent(islandId, k -> new ConcurrentHashMap<>())
-                         .put(printer.getId(), printer);
+            indexPrinter(islandId, printer);
         }
     }
     
@@ -92,13 +146,10 @@ public class PrinterManager {
         Island island = databaseManager.loadIsland(islandId);
         if (island != null) {
             island.removePrinter(printerId);
-            databaseManager.saveIsland(island);
+            databaseManager.deletePrinter(islandId, printerId);
             
             // Mettre à jour le cache
-            Map<String, PrinterData> islandPrinters = this.islandPrinters.get(islandId);
-            if (islandPrinters != null) {
-                islandPrinters.remove(printerId);
-            }
+            unindexPrinter(printerId);
         }
     }
     
@@ -106,40 +157,22 @@ public class PrinterManager {
      * Obtient une imprimante par son ID
      */
     public PrinterData getPrinterById(String printerId) {
-        for (Map<String, PrinterData> islandPrinters : islandPrinters.values()) {
-            PrinterData printer = islandPrinters.get(printerId);
-            if (printer != null) {
-                return printer;
-            }
-        }
-        return null;
+        return printersById.get(printerId);
     }
     
     /**
      * Obtient l'île qui contient une imprimante spécifique
      */
     public Island getIslandForPrinter(String printerId) {
-        for (Map.Entry<UUID, Map<String, PrinterData>> entry : islandPrinters.entrySet()) {
-            if (entry.getValue().containsKey(printerId)) {
-                return databaseManager.loadIsland(entry.getKey());
-            }
-        }
-        return null;
+        UUID islandId = printerIslands.get(printerId);
+        return islandId != null ? databaseManager.loadIsland(islandId) : null;
     }
     
     /**
      * Obtient l'ID de l'île à une location donnée
      */
     public UUID getIslandIdAtLocation(Location location) {
-        for (Island island : databaseManager.getAllIslands()) {
-            if (island.getCenter() != null && island.getCenter().getWorld().equals(location.getWorld())) {
-                double distance = island.getCenter().distance(location);
-                if (distance <= island.getSize()) {
-                    return island.getId();
-                }
-            }
-        }
-        return null;
+        return databaseManager.getIslandIdAtLocation(location);
     }
     
     /**
@@ -151,11 +184,11 @@ public class PrinterManager {
     }
     
     /**
-     * Obtient le nombre d'imprimantes sur une île
+     * Obtient le nombre de imprimantes sur une île
      */
     public int getPrinterCount(UUID islandId) {
-        Map<String, PrinterData> islandPrinters = this.islandPrinters.get(islandId);
-        return islandPrinters != null ? islandPrinters.size() : 0;
+        Map<String, PrinterData> printers = islandPrinters.get(islandId);
+        return printers != null ? printers.size() : 0;
     }
     
     /**
@@ -167,13 +200,10 @@ public class PrinterManager {
             // Supprimer l'ancienne et ajouter la nouvelle
             island.removePrinter(printer.getId());
             island.addPrinter(printer);
-            databaseManager.saveIsland(island);
+            databaseManager.savePrinter(islandId, printer);
             
             // Mettre à jour le cache
-            Map<String, PrinterData> islandPrinters = this.islandPrinters.get(islandId);
-            if (islandPrinters != null) {
-                islandPrinters.put(printer.getId(), printer);
-            }
+            indexPrinter(islandId, printer);
         }
     }
     
@@ -181,7 +211,12 @@ public class PrinterManager {
      * Recharge toutes les imprimantes depuis la base de données
      */
     public void reloadAll() {
+        // Écrire d'abord les lignes encore en file d'écriture différée
+        databaseManager.flushDirtyIslands();
         islandPrinters.clear();
+        printersById.clear();
+        printerIslands.clear();
+        printersByOwner.clear();
         loadAllPrinters();
     }
 }
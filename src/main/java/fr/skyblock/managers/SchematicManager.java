@@ -3,6 +3,9 @@ package fr.skyblock.managers;
 import fr.skyblock.CustomSkyblock;
 import fr.skyblock.models.Island;
 import fr.skyblock.models.SkyblockPlayer;
+import fr.skyblock.utils.BlockBatch;
+import fr.skyblock.utils.BlockWriter;
+import fr.skyblock.utils.CompiledSchematic;
 import org.bukkit.*;
 import org.bukkit.block.Biome;
 import org.bukkit.block.Block;
@@ -15,21 +18,28 @@ import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 public class SchematicManager {
 
+    // Changer cette valeur force la recompilation de tous les schematics (générateurs modifiés)
+    private static final int COMPILE_VERSION = 1;
+
     private final CustomSkyblock plugin;
     private final File schematicsFolder;
+    private final Path compiledFolder;
     private final Map<String, SchematicData> loadedSchematics = new HashMap<>();
 
     public SchematicManager(CustomSkyblock plugin) {
         this.plugin = plugin;
         this.schematicsFolder = new File(plugin.getDataFolder(), "schematics");
+        this.compiledFolder = schematicsFolder.toPath().resolve("compiled");
 
         setupSchematicsFolder();
         loadDefaultSchematics();
         loadCustomSchematics();
+        compileSchematics();
     }
 
     private void setupSchematicsFolder() {
@@ -125,6 +135,65 @@ public class SchematicManager {
         }
     }
 
+    // === COMPILATION DES SCHÉMATICS ===
+
+    /**
+     * Associe à chaque schematic sa forme compilée : relue depuis le cache disque si
+     * l'empreinte correspond, sinon recompilée puis écrite pour les prochains démarrages
+     */
+    private void compileSchematics() {
+        int cached = 0;
+        int compiled = 0;
+
+        for (SchematicData schematic : loadedSchematics.values()) {
+            Path file = compiledFolder.resolve(schematic.getId() + ".sbs");
+            String fingerprint = compiledFingerprint(schematic);
+
+            try {
+                CompiledSchematic existing = CompiledSchematic.read(file, fingerprint);
+                if (existing != null) {
+                    schematic.setCompiled(existing);
+                    cached++;
+                    continue;
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Lecture du schematic compilé " + schematic.getId() + " impossible : " + e.getMessage());
+            }
+
+            try {
+                CompiledSchematic result = compileSchematic(schematic);
+                schematic.setCompiled(result);
+                result.write(file);
+                compiled++;
+            } catch (Exception e) {
+                plugin.getLogger().warning("Erreur lors de la compilation du schematic " + schematic.getId() + ": " + e.getMessage());
+            }
+        }
+
+        plugin.getLogger().info("Schematics compilés: " + compiled + ", depuis le cache: " + cached);
+    }
+
+    /**
+     * Exécute les générateurs hors monde, centrés sur l'origine
+     */
+    private CompiledSchematic compileSchematic(SchematicData schematic) {
+        CompiledSchematic.Builder builder = new CompiledSchematic.Builder();
+        Location origin = new Location(null, 0, 0, 0);
+
+        generateStructure(builder, origin, schematic);
+        Location chest = generateSpecialItems(builder, origin, schematic);
+        builder.chest(chest.getBlockX(), chest.getBlockY(), chest.getBlockZ(), parseChestItems(schematic));
+        if (schematic.getBiome() != null) {
+            builder.biome(schematic.getBiome().getKey().toString());
+        }
+
+        return builder.build(compiledFingerprint(schematic));
+    }
+
+    private String compiledFingerprint(SchematicData schematic) {
+        return COMPILE_VERSION + "-" + schematic.getFingerprint();
+    }
+
     // === CRÉATION D'ÎLES AVEC SCHÉMATICS ===
 
     public Island createIslandWithSchematic(Player player, String schematicName) {
@@ -146,11 +215,15 @@ public class SchematicManager {
         Location tempLocation = new Location(Bukkit.getWorlds().get(0), 0, 64, 0);
         Island island = new Island(islandId, player.getUniqueId(), player.getName() + "'s Island", tempLocation);
 
-        // Créer le monde dédié pour cette île
-        World islandWorld = plugin.getWorldManager().createIslandWorld(island);
-        if (islandWorld == null) {
-            player.sendMessage(ChatColor.RED + "Impossible de créer le monde pour votre île !");
-            return null;
+        // Sans modèle prêt : créer le monde dédié et y générer l'île bloc par bloc
+        boolean fromTemplate = plugin.getIslandTemplateManager() != null
+                && plugin.getIslandTemplateManager().hasTemplate(schematicName);
+        if (!fromTemplate) {
+            World islandWorld = createBlankIslandWorld(island);
+            if (islandWorld == null) {
+                player.sendMessage(ChatColor.RED + "Impossible de créer le monde pour votre île !");
+                return null;
+            }
         }
 
         // CORRECTION : Sauvegarder l'île EN PREMIER avant le joueur
@@ -162,14 +235,70 @@ public class SchematicManager {
         plugin.getDatabaseManager().savePlayer(skyblockPlayer);
         plugin.getLogger().info("Joueur mis à jour avec l'île : " + player.getName());
 
-        // Générer l'île avec le schematic
-        generateIslandFromSchematic(island, schematic, player);
+        if (fromTemplate) {
+            createIslandFromTemplate(island, schematic, player);
+        } else {
+            // Générer l'île avec le schematic, puis téléporter une fois les blocs posés
+            generateIslandFromSchematic(island, schematic, player,
+                    () -> teleportToNewIsland(island, schematic, player, 1L));
+        }
+
+        return island;
+    }
+
+    /**
+     * Copie le monde modèle du schematic en arrière-plan, puis l'importe. En cas d'échec,
+     * repli sur la génération classique.
+     */
+    private void createIslandFromTemplate(Island island, SchematicData schematic, Player player) {
+        WorldManager worldManager = plugin.getWorldManager();
+        String worldName = worldManager.getIslandWorldFolderName(island.getId());
+        worldManager.markWorldCloning(island.getId());
+
+        plugin.getIslandTemplateManager().cloneTemplate(schematic.getId(), worldName).thenAccept(copied ->
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    World world = copied ? worldManager.importIslandWorld(island) : null;
+                    worldManager.clearWorldCloning(island.getId());
+
+                    if (world == null) {
+                        plugin.getLogger().warning("Modèle " + schematic.getId() + " inutilisable pour l'île " +
+                                island.getId() + ", génération classique");
+                        if (createBlankIslandWorld(island) == null) {
+                            player.sendMessage(ChatColor.RED + "Impossible de créer le monde pour votre île !");
+                            return;
+                        }
+                        plugin.getDatabaseManager().saveIsland(island);
+                        generateIslandFromSchematic(island, schematic, player,
+                                () -> teleportToNewIsland(island, schematic, player, 1L));
+                        return;
+                    }
 
-        // Téléporter le joueur
+                    // Le centre pointe désormais sur le monde de l'île
+                    plugin.getDatabaseManager().saveIsland(island);
+                    teleportToNewIsland(island, schematic, player, 1L);
+                }));
+    }
+
+    /**
+     * Monde vierge pour l'île : pris dans la réserve si possible, sinon généré
+     */
+    private World createBlankIslandWorld(Island island) {
+        World world = plugin.getSpareWorldManager() != null ? plugin.getSpareWorldManager().claim(island) : null;
+        return world != null ? world : plugin.getWorldManager().createIslandWorld(island);
+    }
+
+    private void teleportToNewIsland(Island island, SchematicData schematic, Player player, long delay) {
         new BukkitRunnable() {
             @Override
             public void run() {
-                if (plugin.getIslandManager().teleportToIsland(player, island)) {
+                // Annonce et récompenses seulement une fois le joueur arrivé sur l'île
+                plugin.getIslandManager().teleportToIsland(player, island).thenAccept(arrived -> {
+                    if (!player.isOnline()) return;
+                    if (!arrived) {
+                        player.sendMessage(ChatColor.RED + "Erreur lors de la téléportation ! Utilisez /is home");
+                        return;
+                    }
+
                     player.sendMessage(ChatColor.GREEN + "Votre île " + schematic.getName() + " a été créée avec succès !");
                     player.sendMessage(ChatColor.GOLD + "Bienvenue sur votre nouvelle île !");
 
@@ -182,16 +311,12 @@ public class SchematicManager {
                         plugin.getEconomyManager().rewardPlayer(player.getUniqueId(), 100.0, "Création d'île");
                         player.sendMessage(ChatColor.GOLD + "Récompense reçue: 100$ !");
                     }
-                } else {
-                    player.sendMessage(ChatColor.RED + "Erreur lors de la téléportation ! Utilisez /is home");
-                }
+                });
             }
-        }.runTaskLater(plugin, 20L); // Attendre 1 seconde
-
-        return island;
+        }.runTaskLater(plugin, delay);
     }
 
-    private void generateIslandFromSchematic(Island island, SchematicData schematic, Player player) {
+    private void generateIslandFromSchematic(Island island, SchematicData schematic, Player player, Runnable onReady) {
         new BukkitRunnable() {
             @Override
             public void run() {
@@ -199,29 +324,91 @@ public class SchematicManager {
                 World world = center.getWorld();
                 if (world == null) return;
 
-                // Nettoyer la zone
-                clearArea(center, 20);
-
-                // Générer la structure principale
-                generateStructure(center, schematic);
-
-                // Placer les objets spéciaux
-                generateSpecialItems(center, schematic);
+                pasteSchematic(center, schematic, island.getSize(), new BlockBatch.ProgressListener() {
+                    private long lastNotice = System.currentTimeMillis();
 
-                // Définir le biome
-                if (schematic.getBiome() != null) {
-                    setBiome(center, island.getSize(), schematic.getBiome());
-                }
+                    @Override
+                    public void onProgress(int done, int total) {
+                        // Au plus un message par seconde, seulement si la génération dure
+                        long now = System.currentTimeMillis();
+                        if (now - lastNotice >= 1000L && player.isOnline()) {
+                            lastNotice = now;
+                            player.sendMessage(ChatColor.YELLOW + "Génération de l'île: " + (done * 100 / Math.max(1, total)) + "%");
+                        }
+                    }
 
-                player.sendMessage(ChatColor.GREEN + "Structure de l'île générée !");
+                    @Override
+                    public void onComplete() {
+                        if (player.isOnline()) {
+                            player.sendMessage(ChatColor.GREEN + "Structure de l'île générée !");
+                        }
+                        onReady.run();
+                    }
+                });
             }
         }.runTaskLater(plugin, 5L);
     }
 
-    private void generateStructure(Location center, SchematicData schematic) {
+    /**
+     * Pose un schematic autour du centre (utilisé aussi pour générer les mondes modèles).
+     * Les blocs sont écrits par lot depuis la forme compilée, répartis sur plusieurs ticks ;
+     * le listener est prévenu une fois le coffre de départ rempli.
+     */
+    public void pasteSchematic(Location center, SchematicData schematic, int size, BlockBatch.ProgressListener listener) {
         World world = center.getWorld();
         if (world == null) return;
 
+        CompiledSchematic compiled = schematic.getCompiled() != null ? schematic.getCompiled() : compileSchematic(schematic);
+        int centerX = center.getBlockX();
+        int centerY = center.getBlockY();
+        int centerZ = center.getBlockZ();
+
+        BlockBatch batch = new BlockBatch(world);
+
+        // Nettoyer la zone
+        clearArea(batch, center, 20);
+
+        // Structure, végétation et coffre
+        compiled.paste(batch, centerX, centerY, centerZ);
+
+        // Définir le biome
+        Biome biome = resolveBiome(compiled, schematic);
+        if (biome != null) {
+            setBiome(batch, center, size, biome);
+        }
+
+        int[] chestOffset = compiled.getChestOffset();
+        Location chestLocation = chestOffset != null
+                ? new Location(world, centerX + chestOffset[0], centerY + chestOffset[1], centerZ + chestOffset[2])
+                : null;
+
+        long budget = plugin.getConfig().getLong("performance.block-placement.tick-budget-ms", 5L);
+        batch.apply(plugin, budget, new BlockBatch.ProgressListener() {
+            @Override
+            public void onProgress(int done, int total) {
+                listener.onProgress(done, total);
+            }
+
+            @Override
+            public void onComplete() {
+                if (chestLocation != null) {
+                    fillStarterChest(chestLocation, compiled.getChestItems());
+                }
+                listener.onComplete();
+            }
+        });
+    }
+
+    private Biome resolveBiome(CompiledSchematic compiled, SchematicData schematic) {
+        if (compiled.getBiomeKey() != null) {
+            NamespacedKey key = NamespacedKey.fromString(compiled.getBiomeKey());
+            Biome biome = key != null ? Registry.BIOME.get(key) : null;
+            if (biome != null) return biome;
+        }
+        return schematic.getBiome();
+    }
+
+    private void generateStructure(BlockWriter writer, Location center, SchematicData schematic) {
         List<String> structure = schematic.getStructure();
         Map<Character, Material> materials = schematic.getMaterials();
 
@@ -230,17 +417,8 @@ public class SchematicManager {
         int centerZ = center.getBlockZ();
 
         // Couches de base (bedrock et stone)
-        for (int y = centerY - 4; y < centerY; y++) {
-            for (int x = centerX - 3; x <= centerX + 3; x++) {
-                for (int z = centerZ - 3; z <= centerZ + 3; z++) {
-                    if (y == centerY - 4) {
-                        world.getBlockAt(x, y, z).setType(Material.BEDROCK);
-                    } else {
-                        world.getBlockAt(x, y, z).setType(Material.STONE);
-                    }
-                }
-            }
-        }
+        writer.fill(centerX - 3, centerY - 4, centerZ - 3, centerX + 3, centerY - 4, centerZ + 3, Material.BEDROCK);
+        writer.fill(centerX - 3, centerY - 3, centerZ - 3, centerX + 3, centerY - 1, centerZ + 3, Material.STONE);
 
         // Structure principale
         for (int i = 0; i < structure.size(); i++) {
@@ -254,11 +432,11 @@ public class SchematicManager {
                         int z = centerZ + i - (structure.size() / 2);
 
                         // Couche de surface
-                        world.getBlockAt(x, centerY, z).setType(material);
+                        writer.set(x, centerY, z, material);
 
                         // Couche de base si nécessaire
                         if (material == Material.GRASS_BLOCK || material.name().contains("DIRT")) {
-                            world.getBlockAt(x, centerY - 1, z).setType(Material.DIRT);
+                            writer.set(x, centerY - 1, z, Material.DIRT);
                         }
                     }
                 }
@@ -266,139 +444,108 @@ public class SchematicManager {
         }
     }
 
-    private void generateSpecialItems(Location center, SchematicData schematic) {
+    /**
+     * Végétation du schematic et coffre de départ ; retourne l'emplacement du coffre
+     */
+    private Location generateSpecialItems(BlockWriter writer, Location center, SchematicData schematic) {
         // Arbre ou végétation selon le type
         switch (schematic.getId()) {
-            case "classic" -> generateOakTree(center.clone().add(2, 1, 2));
-            case "desert" -> generateCactus(center.clone().add(-2, 1, -2));
-            case "jungle" -> generateJungleTree(center.clone().add(2, 1, 2));
-            case "snow" -> generateSpruceTree(center.clone().add(2, 1, 2));
-            case "mushroom" -> generateGiantMushroom(center.clone().add(2, 1, 2));
+            case "classic" -> generateOakTree(writer, center.clone().add(2, 1, 2));
+            case "desert" -> generateCactus(writer, center.clone().add(-2, 1, -2));
+            case "jungle" -> generateJungleTree(writer, center.clone().add(2, 1, 2));
+            case "snow" -> generateSpruceTree(writer, center.clone().add(2, 1, 2));
+            case "mushroom" -> generateGiantMushroom(writer, center.clone().add(2, 1, 2));
         }
 
         // Coffre avec objets de départ
-        generateStarterChest(center.clone().add(-2, 1, -2), schematic.getChestItems());
+        Location chestLocation = center.clone().add(-2, 1, -2);
+        writer.set(chestLocation.getBlockX(), chestLocation.getBlockY(), chestLocation.getBlockZ(), Material.CHEST);
+        return chestLocation;
     }
 
     // === GÉNÉRATION D'ARBRES ET VÉGÉTATION ===
 
-    private void generateOakTree(Location location) {
-        World world = location.getWorld();
-        if (world == null) return;
-
+    private void generateOakTree(BlockWriter writer, Location location) {
         // Tronc
         for (int i = 0; i < 4; i++) {
-            world.getBlockAt(location.getBlockX(), location.getBlockY() + i, location.getBlockZ())
-                    .setType(Material.OAK_LOG);
+            writer.set(location.getBlockX(), location.getBlockY() + i, location.getBlockZ(), Material.OAK_LOG);
         }
 
         // Feuilles
-        generateLeaves(location.clone().add(0, 3, 0), Material.OAK_LEAVES, 2);
+        generateLeaves(writer, location.clone().add(0, 3, 0), Material.OAK_LEAVES, 2);
     }
 
-    private void generateJungleTree(Location location) {
-        World world = location.getWorld();
-        if (world == null) return;
-
+    private void generateJungleTree(BlockWriter writer, Location location) {
         // Tronc plus grand
         for (int i = 0; i < 6; i++) {
-            world.getBlockAt(location.getBlockX(), location.getBlockY() + i, location.getBlockZ())
-                    .setType(Material.JUNGLE_LOG);
+            writer.set(location.getBlockX(), location.getBlockY() + i, location.getBlockZ(), Material.JUNGLE_LOG);
         }
 
         // Feuilles de jungle
-        generateLeaves(location.clone().add(0, 5, 0), Material.JUNGLE_LEAVES, 3);
+        generateLeaves(writer, location.clone().add(0, 5, 0), Material.JUNGLE_LEAVES, 3);
 
         // Quelques lianes
-        generateVines(location);
+        generateVines(writer, location);
     }
 
-    private void generateSpruceTree(Location location) {
-        World world = location.getWorld();
-        if (world == null) return;
-
+    private void generateSpruceTree(BlockWriter writer, Location location) {
         // Tronc
         for (int i = 0; i < 5; i++) {
-            world.getBlockAt(location.getBlockX(), location.getBlockY() + i, location.getBlockZ())
-                    .setType(Material.SPRUCE_LOG);
+            writer.set(location.getBlockX(), location.getBlockY() + i, location.getBlockZ(), Material.SPRUCE_LOG);
         }
 
         // Feuilles en forme de sapin
-        generateSpruceLeaves(location.clone().add(0, 4, 0));
+        generateSpruceLeaves(writer, location.clone().add(0, 4, 0));
     }
 
-    private void generateCactus(Location location) {
-        World world = location.getWorld();
-        if (world == null) return;
-
+    private void generateCactus(BlockWriter writer, Location location) {
         // Placer du sable sous le cactus
-        world.getBlockAt(location.getBlockX(), location.getBlockY() - 1, location.getBlockZ())
-                .setType(Material.SAND);
+        writer.set(location.getBlockX(), location.getBlockY() - 1, location.getBlockZ(), Material.SAND);
 
         // Cactus de 3 blocs
         for (int i = 0; i < 3; i++) {
-            world.getBlockAt(location.getBlockX(), location.getBlockY() + i, location.getBlockZ())
-                    .setType(Material.CACTUS);
+            writer.set(location.getBlockX(), location.getBlockY() + i, location.getBlockZ(), Material.CACTUS);
         }
     }
 
-    private void generateGiantMushroom(Location location) {
-        World world = location.getWorld();
-        if (world == null) return;
-
+    private void generateGiantMushroom(BlockWriter writer, Location location) {
         // Tige
         for (int i = 0; i < 3; i++) {
-            world.getBlockAt(location.getBlockX(), location.getBlockY() + i, location.getBlockZ())
-                    .setType(Material.MUSHROOM_STEM);
+            writer.set(location.getBlockX(), location.getBlockY() + i, location.getBlockZ(), Material.MUSHROOM_STEM);
         }
 
         // Chapeau de champignon
-        generateMushroomCap(location.clone().add(0, 3, 0));
+        generateMushroomCap(writer, location.clone().add(0, 3, 0));
     }
 
-    private void generateLeaves(Location center, Material leafType, int radius) {
-        World world = center.getWorld();
-        if (world == null) return;
-
+    private void generateLeaves(BlockWriter writer, Location center, Material leafType, int radius) {
         for (int x = -radius; x <= radius; x++) {
             for (int z = -radius; z <= radius; z++) {
                 for (int y = -1; y <= 1; y++) {
                     double distance = Math.sqrt(x * x + z * z);
                     if (distance <= radius && (x != 0 || z != 0 || y != 0)) {
-                        Block block = world.getBlockAt(center.getBlockX() + x, center.getBlockY() + y, center.getBlockZ() + z);
-                        if (block.getType() == Material.AIR) {
-                            block.setType(leafType);
-                        }
+                        writer.setIfAir(center.getBlockX() + x, center.getBlockY() + y, center.getBlockZ() + z, leafType);
                     }
                 }
             }
         }
     }
 
-    private void generateSpruceLeaves(Location top) {
-        World world = top.getWorld();
-        if (world == null) return;
-
+    private void generateSpruceLeaves(BlockWriter writer, Location top) {
         // Forme de sapin (pyramide)
         for (int layer = 0; layer <= 2; layer++) {
             int radius = layer + 1;
             for (int x = -radius; x <= radius; x++) {
                 for (int z = -radius; z <= radius; z++) {
                     if (Math.abs(x) == radius || Math.abs(z) == radius) {
-                        Block block = world.getBlockAt(top.getBlockX() + x, top.getBlockY() - layer, top.getBlockZ() + z);
-                        if (block.getType() == Material.AIR) {
-                            block.setType(Material.SPRUCE_LEAVES);
-                        }
+                        writer.setIfAir(top.getBlockX() + x, top.getBlockY() - layer, top.getBlockZ() + z, Material.SPRUCE_LEAVES);
                     }
                 }
             }
         }
     }
 
-    private void generateVines(Location treeLocation) {
-        World world = treeLocation.getWorld();
-        if (world == null) return;
-
+    private void generateVines(BlockWriter writer, Location treeLocation) {
         Random random = new Random();
 
         // Quelques lianes aléatoires autour de l'arbre
@@ -407,83 +554,69 @@ public class SchematicManager {
             int z = treeLocation.getBlockZ() + random.nextInt(5) - 2;
             int y = treeLocation.getBlockY() + 2 + random.nextInt(3);
 
-            Block block = world.getBlockAt(x, y, z);
-            if (block.getType() == Material.AIR) {
-                block.setType(Material.VINE);
-            }
+            writer.setIfAir(x, y, z, Material.VINE);
         }
     }
 
-    private void generateMushroomCap(Location center) {
-        World world = center.getWorld();
-        if (world == null) return;
-
+    private void generateMushroomCap(BlockWriter writer, Location center) {
         // Chapeau de champignon 3x3
-        for (int x = -1; x <= 1; x++) {
-            for (int z = -1; z <= 1; z++) {
-                world.getBlockAt(center.getBlockX() + x, center.getBlockY(), center.getBlockZ() + z)
-                        .setType(Material.RED_MUSHROOM_BLOCK);
-            }
-        }
+        writer.fill(center.getBlockX() - 1, center.getBlockY(), center.getBlockZ() - 1,
+                center.getBlockX() + 1, center.getBlockY(), center.getBlockZ() + 1, Material.RED_MUSHROOM_BLOCK);
     }
 
-    private void generateStarterChest(Location location, List<String> items) {
+    private void fillStarterChest(Location location, List<CompiledSchematic.ChestItem> items) {
         World world = location.getWorld();
         if (world == null) return;
 
-        world.getBlockAt(location).setType(Material.CHEST);
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                Block block = world.getBlockAt(location);
-                if (block.getState() instanceof Chest chest) {
-                    for (String itemString : items) {
-                        try {
-                            String[] parts = itemString.split(":");
-                            Material material = Material.valueOf(parts[0]);
-                            int amount = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
-
-                            chest.getInventory().addItem(new ItemStack(material, amount));
-                        } catch (Exception e) {
-                            plugin.getLogger().warning("Objet invalide dans le coffre: " + itemString);
-                        }
-                    }
-                }
+        Block block = world.getBlockAt(location);
+        if (block.getState() instanceof Chest chest) {
+            for (CompiledSchematic.ChestItem item : items) {
+                chest.getInventory().addItem(new ItemStack(item.material(), item.amount()));
             }
-        }.runTaskLater(plugin, 2L);
+        }
     }
 
-    // === MÉTHODES UTILITAIRES ===
-
-    private void clearArea(Location center, int radius) {
-        World world = center.getWorld();
-        if (world == null) return;
-
-        for (int x = -radius; x <= radius; x++) {
-            for (int y = -5; y <= 20; y++) {
-                for (int z = -radius; z <= radius; z++) {
-                    world.getBlockAt(center.getBlockX() + x, center.getBlockY() + y, center.getBlockZ() + z)
-                            .setType(Material.AIR);
-                }
+    /**
+     * Objets du coffre de départ, validés une fois à la compilation
+     */
+    private List<CompiledSchematic.ChestItem> parseChestItems(SchematicData schematic) {
+        List<CompiledSchematic.ChestItem> items = new ArrayList<>();
+        for (String itemString : schematic.getChestItems()) {
+            try {
+                String[] parts = itemString.split(":");
+                Material material = Material.valueOf(parts[0]);
+                int amount = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+                items.add(new CompiledSchematic.ChestItem(material, amount));
+            } catch (Exception e) {
+                plugin.getLogger().warning("Objet invalide dans le coffre: " + itemString);
             }
         }
+        return items;
     }
 
-    private void setBiome(Location center, int size, Biome biome) {
-        World world = center.getWorld();
-        if (world == null) return;
+    // === MÉTHODES UTILITAIRES ===
+
+    private void clearArea(BlockWriter writer, Location center, int radius) {
+        // Les blocs déjà vides sont ignorés à l'application
+        writer.fill(center.getBlockX() - radius, center.getBlockY() - 5, center.getBlockZ() - radius,
+                center.getBlockX() + radius, center.getBlockY() + 20, center.getBlockZ() + radius, Material.AIR);
+    }
 
+    private void setBiome(BlockBatch batch, Location center, int size, Biome biome) {
         int radius = size / 2;
         for (int x = -radius; x <= radius; x++) {
             for (int z = -radius; z <= radius; z++) {
-                world.setBiome(center.getBlockX() + x, center.getBlockZ() + z, biome);
+                batch.biome(center.getBlockX() + x, center.getBlockZ() + z, biome);
             }
         }
     }
 
     // === GETTERS PUBLICS ===
 
+    public Collection<SchematicData> getSchematics() {
+        return Collections.unmodifiableCollection(loadedSchematics.values());
+    }
+
     public List<String> getAvailableSchematics() {
         return new ArrayList<>(loadedSchematics.keySet());
     }
@@ -625,6 +758,7 @@ public class SchematicManager {
         private Map<Character, Material> materials;
         private Biome biome;
         private List<String> chestItems;
+        private CompiledSchematic compiled;
 
         public SchematicData() {
             this.materials = new HashMap<>();
@@ -693,5 +827,23 @@ public class SchematicManager {
 
         public List<String> getChestItems() { return chestItems; }
         public void setChestItems(List<String> chestItems) { this.chestItems = chestItems; }
+
+        public CompiledSchematic getCompiled() { return compiled; }
+        public void setCompiled(CompiledSchematic compiled) { this.compiled = compiled; }
+
+        /**
+         * Empreinte du contenu : change dès que la structure, la palette, le biome ou le coffre change
+         */
+        public String getFingerprint() {
+            StringBuilder builder = new StringBuilder()
+                    .append(id).append('|')
+                    .append(String.join("/", structure)).append('|');
+            new TreeMap<>(materials).forEach((key, material) ->
+                    builder.append(key).append('=').append(material.name()).append(','));
+            builder.append('|')
+                    .append(biome != null ? biome.getKey() : "").append('|')
+                    .append(String.join(",", chestItems));
+            return Integer.toHexString(builder.toString().hashCode());
+        }
     }
 }
\ No newline at end of file
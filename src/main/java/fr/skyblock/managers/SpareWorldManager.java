@@ -0,0 +1,208 @@
+package fr.skyblock.managers;
+
+import fr.skyblock.CustomSkyblock;
+import fr.skyblock.models.Island;
+import fr.skyblock.utils.LatencyRecorder;
+import fr.skyblock.utils.WorldFiles;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Réserve de mondes d'îles vierges, déjà configurés et gardés déchargés sur disque.
+ * Créer une île réclame un monde de la réserve (simple renommage du dossier puis import)
+ * au lieu d'en générer un ; la réserve est reconstituée quand le serveur est peu chargé.
+ */
+public class SpareWorldManager {
+
+    private static final String MARKER_FILE = "skyblock-spare.txt";
+    private static final long REFILL_RATE_WINDOW = 60L * 60L * 1000L;
+
+    private final CustomSkyblock plugin;
+    private final Path spareFolder;
+    private final String spareWorldPrefix;
+    private final int targetSize;
+    private final double minTps;
+
+    private final Deque<Path> spares = new ConcurrentLinkedDeque<>();
+    private final LatencyRecorder claimLatencies = new LatencyRecorder(128);
+    private final AtomicLong claims = new AtomicLong();
+    private final AtomicLong emptyClaims = new AtomicLong();
+    // Horodatages des mondes ajoutés sur la dernière heure (thread principal)
+    private final Deque<Long> recentRefills = new ArrayDeque<>();
+    private boolean refilling;
+
+    public SpareWorldManager(CustomSkyblock plugin) {
+        this.plugin = plugin;
+        String folder = plugin.getConfig().getString("island.worlds-folder", "islands") + "/spare";
+        this.spareWorldPrefix = folder + "/spare_";
+        this.spareFolder = Bukkit.getWorldContainer().toPath().resolve(folder);
+        this.targetSize = Math.max(0, plugin.getConfig().getInt("performance.spare-worlds.size", 3));
+        this.minTps = plugin.getConfig().getDouble("performance.spare-worlds.min-tps", 19.0);
+
+        if (targetSize > 0) {
+            loadExistingSpares();
+            long interval = Math.max(1, plugin.getConfig().getInt("performance.spare-worlds.refill-interval-seconds", 30)) * 20L;
+            Bukkit.getScheduler().runTaskTimer(plugin, this::refillIfIdle, interval, interval);
+        }
+    }
+
+    /**
+     * Reprend les mondes de réserve complets ; les créations interrompues sont supprimées
+     */
+    private void loadExistingSpares() {
+        if (!Files.isDirectory(spareFolder)) return;
+
+        try (Stream<Path> children = Files.list(spareFolder)) {
+            children.filter(Files::isDirectory).forEach(directory -> {
+                if (Files.isRegularFile(directory.resolve(MARKER_FILE))) {
+                    spares.add(directory);
+                } else {
+                    Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> deleteQuietly(directory));
+                }
+            });
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible de lire la réserve de mondes : " + e.getMessage());
+        }
+
+        plugin.getLogger().info("Mondes de réserve disponibles: " + spares.size() + "/" + targetSize);
+    }
+
+    /**
+     * Réclame un monde de réserve pour l'île : le dossier est renommé puis importé.
+     * Retourne null si la réserve est vide ou si l'import échoue (l'appelant crée alors le monde).
+     */
+    public World claim(Island island) {
+        long start = System.nanoTime();
+        Path spare = spares.poll();
+        if (spare == null) {
+            emptyClaims.incrementAndGet();
+            return null;
+        }
+
+        WorldManager worldManager = plugin.getWorldManager();
+        Path target = Bukkit.getWorldContainer().toPath().resolve(worldManager.getIslandWorldFolderName(island.getId()));
+        try {
+            Files.deleteIfExists(spare.resolve(MARKER_FILE));
+            WorldFiles.moveDirectory(spare, target);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible de réclamer le monde de réserve " + spare.getFileName() + " : " + e.getMessage());
+            return null;
+        }
+
+        World world = worldManager.importIslandWorld(island);
+        if (world == null) {
+            deleteQuietly(target);
+            return null;
+        }
+
+        claims.incrementAndGet();
+        claimLatencies.record((System.nanoTime() - start) / 1_000_000L);
+        return world;
+    }
+
+    private void refillIfIdle() {
+        if (refilling || spares.size() >= targetSize) return;
+        if (Bukkit.getTPS()[0] < minTps) return;
+
+        refilling = true;
+        String worldName = spareWorldPrefix + UUID.randomUUID();
+        World world;
+        try {
+            world = plugin.getWorldManager().createVoidWorldCreator(worldName).createWorld();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Impossible de créer un monde de réserve : " + e.getMessage());
+            world = null;
+        }
+        if (world == null) {
+            refilling = false;
+            return;
+        }
+
+        world.setKeepSpawnInMemory(false);
+        plugin.getWorldManager().prepareBlankIslandWorld(world);
+
+        World spareWorld = world;
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            Path directory = spareWorld.getWorldFolder().toPath();
+            spareWorld.save();
+            if (!Bukkit.unloadWorld(spareWorld, true)) {
+                plugin.getLogger().warning("Impossible de décharger le monde de réserve " + worldName);
+                refilling = false;
+                return;
+            }
+
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                boolean ready;
+                try {
+                    Files.writeString(directory.resolve(MARKER_FILE), worldName, StandardCharsets.UTF_8);
+                    ready = true;
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Impossible de finaliser le monde de réserve " + worldName + " : " + e.getMessage());
+                    deleteQuietly(directory);
+                    ready = false;
+                }
+
+                boolean added = ready;
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (added) {
+                        spares.add(directory);
+                        recentRefills.addLast(System.currentTimeMillis());
+                    }
+                    refilling = false;
+                });
+            });
+        }, 5L);
+    }
+
+    private void deleteQuietly(Path directory) {
+        try {
+            WorldFiles.deleteDirectory(directory);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible de supprimer " + directory + " : " + e.getMessage());
+        }
+    }
+
+    // === STATISTIQUES ===
+
+    public int getAvailableCount() {
+        return spares.size();
+    }
+
+    public int getTargetSize() {
+        return targetSize;
+    }
+
+    public long getClaimCount() {
+        return claims.get();
+    }
+
+    public long getEmptyClaimCount() {
+        return emptyClaims.get();
+    }
+
+    public LatencyRecorder getClaimLatencies() {
+        return claimLatencies;
+    }
+
+    /**
+     * Mondes ajoutés à la réserve sur la dernière heure
+     */
+    public int getRefillsLastHour() {
+        long threshold = System.currentTimeMillis() - REFILL_RATE_WINDOW;
+        while (!recentRefills.isEmpty() && recentRefills.peekFirst() < threshold) {
+            recentRefills.pollFirst();
+        }
+        return recentRefills.size();
+    }
+}
@@ -1,10 +1,14 @@
 package fr.skyblock.managers;
 
 import fr.skyblock.CustomSkyblock;
+import fr.skyblock.models.Island;
+import fr.skyblock.models.SkyblockPlayer;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 public class TaskManager {
@@ -12,23 +16,25 @@ public class TaskManager {
     private final CustomSkyblock plugin;
     private final List<BukkitTask> runningTasks = new ArrayList<>();
 
+    // Checkpoint en cours (un seul à la fois) et résumé du dernier terminé
+    private volatile Checkpoint activeCheckpoint;
+    private volatile String lastCheckpointReport = "aucun";
+
     public TaskManager(CustomSkyblock plugin) {
         this.plugin = plugin;
         startPeriodicTasks();
     }
 
     private void startPeriodicTasks() {
-        // Sauvegarde automatique toutes les 30 minutes
+        // Checkpoint incrémental (30 minutes par défaut) : les caches restent chauds
+        long autoSaveInterval = Math.max(1, plugin.getConfig().getInt("performance.auto-save-interval", 30)) * 60L * 20L;
+
         BukkitTask autoSaveTask = new BukkitRunnable() {
             @Override
             public void run() {
-                plugin.getLogger().info("Sauvegarde automatique en cours...");
-                plugin.getDatabaseManager().saveAll();
-                plugin.getDatabaseManager().clearCache();
-                plugin.getEconomyManager().saveAllBalances();
-                plugin.getLogger().info("Sauvegarde automatique terminée !");
+                startCheckpoint(autoSaveInterval);
             }
-        }.runTaskTimerAsynchronously(plugin, 36000L, 36000L); // 30 minutes
+        }.runTaskTimerAsynchronously(plugin, autoSaveInterval, autoSaveInterval);
 
         runningTasks.add(autoSaveTask);
 
@@ -76,18 +82,115 @@ public class TaskManager {
         plugin.getLogger().info("Tâches périodiques démarrées (" + runningTasks.size() + " tâches)");
     }
 
-    private void cleanupCaches() {
-        // Nettoyer les caches si ils deviennent trop volumineux
-        int totalIslands = plugin.getDatabaseManager().getTotalIslands();
-        int totalPlayers = plugin.getDatabaseManager().getTotalPlayers();
+    /**
+     * Démarre un checkpoint : seules les îles et joueurs modifiés sont écrits,
+     * par tranches réparties sur la première moitié de l'intervalle
+     */
+    private void startCheckpoint(long intervalTicks) {
+        if (activeCheckpoint != null) {
+            plugin.getLogger().warning("Checkpoint précédent toujours en cours, cycle ignoré.");
+            return;
+        }
+
+        plugin.getEconomyManager().saveAllBalances();
+
+        List<Island> islands = plugin.getDatabaseManager().getIslandsWithPendingChanges();
+        List<SkyblockPlayer> players = plugin.getDatabaseManager().getDirtyPlayers();
+        if (islands.isEmpty() && players.isEmpty()) {
+            lastCheckpointReport = "rien à écrire";
+            return;
+        }
+
+        int batchSize = Math.max(1, plugin.getConfig().getInt("performance.checkpoint.batch-size", 50));
+        long sliceBudgetNanos = Math.max(1, plugin.getConfig().getLong("performance.checkpoint.slice-budget-ms", 50)) * 1_000_000L;
+        int maxPeriod = Math.max(1, plugin.getConfig().getInt("performance.checkpoint.max-slice-period", 100));
+
+        int slices = (islands.size() + players.size() + batchSize - 1) / batchSize;
+        long period = Math.max(1L, Math.min(maxPeriod, intervalTicks / 2 / slices));
+
+        Checkpoint checkpoint = new Checkpoint(islands, players, batchSize, sliceBudgetNanos);
+        activeCheckpoint = checkpoint;
+        plugin.getLogger().info("Checkpoint démarré: " + islands.size() + " îles et " + players.size()
+                + " joueurs modifiés (tranches de " + batchSize + " toutes les " + period + " ticks)");
+        checkpoint.runTaskTimerAsynchronously(plugin, 1L, period);
+    }
+
+    /**
+     * Écrit les entités modifiées par petites tranches bornées en temps
+     */
+    private final class Checkpoint extends BukkitRunnable {
+        private final Deque<Island> islands;
+        private final Deque<SkyblockPlayer> players;
+        private final int batchSize;
+        private final long sliceBudgetNanos;
+        private final long startedAt = System.currentTimeMillis();
+        private int islandsWritten;
+        private int playersWritten;
+        private int slices;
+
+        private Checkpoint(List<Island> islands, List<SkyblockPlayer> players, int batchSize, long sliceBudgetNanos) {
+            this.islands = new ArrayDeque<>(islands);
+            this.players = new ArrayDeque<>(players);
+            this.batchSize = batchSize;
+            this.sliceBudgetNanos = sliceBudgetNanos;
+        }
+
+        @Override
+        public void run() {
+            long deadline = System.nanoTime() + sliceBudgetNanos;
+            slices++;
+
+            do {
+                if (!islands.isEmpty()) {
+                    List<Island> batch = new ArrayList<>(batchSize);
+                    while (batch.size() < batchSize && !islands.isEmpty()) {
+                        Island island = islands.poll();
+                        // Déjà écrite par l'écriture différée ou supprimée entre-temps
+                        if (island.hasPendingChanges()) {
+                            batch.add(island);
+                        }
+                    }
+                    islandsWritten += plugin.getDatabaseManager().checkpointIslands(batch);
+                } else if (!players.isEmpty()) {
+                    List<SkyblockPlayer> batch = new ArrayList<>(batchSize);
+                    while (batch.size() < batchSize && !players.isEmpty()) {
+                        SkyblockPlayer player = players.poll();
+                        if (player.isDirty()) {
+                            batch.add(player);
+                        }
+                    }
+                    playersWritten += plugin.getDatabaseManager().checkpointPlayers(batch);
+                }
+            } while ((!islands.isEmpty() || !players.isEmpty()) && System.nanoTime() < deadline);
+
+            if (islands.isEmpty() && players.isEmpty()) {
+                finish();
+            }
+        }
 
-        // Si plus de 1000 îles ou joueurs, nettoyer le cache
-        if (totalIslands > 1000 || totalPlayers > 1000) {
-            plugin.getDatabaseManager().clearCache();
-            plugin.getLogger().info("Cache nettoyé - Îles: " + totalIslands + ", Joueurs: " + totalPlayers);
+        private void finish() {
+            cancel();
+            long duration = System.currentTimeMillis() - startedAt;
+            lastCheckpointReport = islandsWritten + " îles, " + playersWritten + " joueurs en "
+                    + duration + "ms (" + slices + " tranches)";
+            activeCheckpoint = null;
+            plugin.getLogger().info("Checkpoint terminé: " + lastCheckpointReport);
         }
     }
 
+    public String getLastCheckpointReport() {
+        return lastCheckpointReport;
+    }
+
+    public boolean isCheckpointRunning() {
+        return activeCheckpoint != null;
+    }
+
+    private void cleanupCaches() {
+        // Évincer les entrées les moins utilisées au-delà des limites (les îles actives restent)
+        plugin.getDatabaseManager().evictExcess();
+    }
+
     private void logServerStats() {
         int totalIslands = plugin.getDatabaseManager().getTotalIslands();
         int totalPlayers = plugin.getDatabaseManager().getTotalPlayers();
@@ -115,6 +218,12 @@ public class TaskManager {
      * Arrête toutes les tâches périodiques
      */
     public void stopAllTasks() {
+        // Les entités restantes d'un checkpoint interrompu sont écrites par saveAll à l'arrêt
+        Checkpoint checkpoint = activeCheckpoint;
+        if (checkpoint != null && !checkpoint.isCancelled()) {
+            checkpoint.cancel();
+        }
+        activeCheckpoint = null;
         for (BukkitTask task : runningTasks) {
             if (task != null && !task.isCancelled()) {
                 task.cancel();
@@ -4,6 +4,7 @@ import fr.skyblock.CustomSkyblock;
 import fr.skyblock.models.Island;
 import fr.skyblock.models.IslandWarp;
 import fr.skyblock.models.SkyblockPlayer;
+import fr.skyblock.utils.OrderStatisticTree;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
@@ -13,7 +14,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -21,45 +21,88 @@ import java.util.stream.Collectors;
 public class WarpManager {
 
     private final CustomSkyblock plugin;
-    private final File warpsFile;
-    private final File promotionsFile;
-    private YamlConfiguration warpsConfig;
-    private YamlConfiguration promotionsConfig;
 
-    // Cache en mémoire
+    // Cache en mémoire (source : tables island_warps / island_promotions)
     private final Map<UUID, IslandWarp> warpsCache = new ConcurrentHashMap<>();
     private final Map<UUID, List<UUID>> islandWarpsCache = new ConcurrentHashMap<>();
     private final Map<UUID, Long> promotedIslands = new ConcurrentHashMap<>(); // Island ID -> expiration time
 
+    // Visites pas encore ajoutées au journal en base (warp ID -> nombre)
+    private final Map<UUID, Integer> pendingVisits = new ConcurrentHashMap<>();
+
+    // Classements des warps publics d'îles ouvertes, triés par visites et tenus à jour à chaque
+    // visite, ouverture/fermeture et (fin de) promotion. Protégés par rankingLock.
+    private static final Comparator<RankedWarp> RANKING_ORDER = Comparator
+            .comparingInt(RankedWarp::visits).reversed()
+            .thenComparing(RankedWarp::warpId);
+    private final Object rankingLock = new Object();
+    private final OrderStatisticTree<RankedWarp> promotedRanking = new OrderStatisticTree<>(RANKING_ORDER);
+    private final OrderStatisticTree<RankedWarp> popularRanking = new OrderStatisticTree<>(RANKING_ORDER);
+    private final Map<UUID, RankedWarp> rankedWarps = new HashMap<>();
+    // Promotions expirées pas encore supprimées en base
+    private final Set<UUID> expiredPromotions = ConcurrentHashMap.newKeySet();
+    // Îles ouvertes aux visiteurs parmi celles qui ont des warps
+    private final Set<UUID> openIslands = ConcurrentHashMap.newKeySet();
+
     public WarpManager(CustomSkyblock plugin) {
         this.plugin = plugin;
-        this.warpsFile = new File(plugin.getDataFolder(), "warps.yml");
-        this.promotionsFile = new File(plugin.getDataFolder(), "promotions.yml");
 
-        setupFiles();
+        migrateLegacyFiles();
         loadAll();
         startPromotionCleanupTask();
+        startVisitLogTasks();
     }
 
-    private void setupFiles() {
-        if (!warpsFile.exists()) {
-            try {
-                warpsFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Impossible de créer le fichier warps.yml: " + e.getMessage());
+    /**
+     * Importe une seule fois warps.yml et promotions.yml en base, puis les renomme en .migrated
+     */
+    private void migrateLegacyFiles() {
+        File warpsFile = new File(plugin.getDataFolder(), "warps.yml");
+        File promotionsFile = new File(plugin.getDataFolder(), "promotions.yml");
+        if (!warpsFile.exists() && !promotionsFile.exists()) return;
+
+        List<IslandWarp> warps = new ArrayList<>();
+        if (warpsFile.exists()) {
+            ConfigurationSection warpsSection = YamlConfiguration.loadConfiguration(warpsFile).getConfigurationSection("warps");
+            if (warpsSection != null) {
+                for (String key : warpsSection.getKeys(false)) {
+                    try {
+                        warps.add(IslandWarp.loadFromYaml(warpsSection.getConfigurationSection(key)));
+                    } catch (IllegalArgumentException | NullPointerException e) {
+                        plugin.getLogger().warning("ID de warp invalide: " + key);
+                    }
+                }
             }
         }
 
-        if (!promotionsFile.exists()) {
-            try {
-                promotionsFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Impossible de créer le fichier promotions.yml: " + e.getMessage());
+        Map<UUID, Long> promotions = new HashMap<>();
+        if (promotionsFile.exists()) {
+            ConfigurationSection promotionsSection = YamlConfiguration.loadConfiguration(promotionsFile).getConfigurationSection("promotions");
+            if (promotionsSection != null) {
+                for (String key : promotionsSection.getKeys(false)) {
+                    try {
+                        long expiration = promotionsSection.getLong(key);
+                        if (System.currentTimeMillis() < expiration) {
+                            promotions.put(UUID.fromString(key), expiration);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        plugin.getLogger().warning("ID d'île invalide dans les promotions: " + key);
+                    }
+                }
             }
         }
 
-        warpsConfig = YamlConfiguration.loadConfiguration(warpsFile);
-        promotionsConfig = YamlConfiguration.loadConfiguration(promotionsFile);
+        if (!plugin.getDatabaseManager().importLegacyWarps(warps, promotions)) {
+            plugin.getLogger().severe("Migration des warps échouée, les fichiers YAML sont conservés");
+            return;
+        }
+
+        for (File file : new File[]{warpsFile, promotionsFile}) {
+            if (file.exists() && !file.renameTo(new File(file.getParentFile(), file.getName() + ".migrated"))) {
+                plugin.getLogger().warning("Impossible de renommer " + file.getName() + " après migration");
+            }
+        }
+        plugin.getLogger().info("Migration: " + warps.size() + " warps et " + promotions.size() + " promotions importés en base");
     }
 
     // === GESTION DES WARPS ===
@@ -73,37 +116,57 @@ public class WarpManager {
     }
 
     public void saveWarp(IslandWarp warp) {
-        warpsCache.put(warp.getId(), warp);
-
-        // Mettre à jour le cache des warps par île
-        islandWarpsCache.computeIfAbsent(warp.getIslandId(), k -> new ArrayList<>()).add(warp.getId());
+        cacheWarp(warp);
+        Island island = plugin.getDatabaseManager().loadIsland(warp.getIslandId());
+        if (island != null) {
+            refreshIslandOpen(island);
+        }
+        rankWarp(warp);
 
-        // Sauvegarder dans le fichier
-        ConfigurationSection section = warpsConfig.createSection("warps." + warp.getId().toString());
-        warp.saveToYaml(section);
-        saveWarpsConfig();
+        // Écriture de la seule ligne du warp, hors du thread principal
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> plugin.getDatabaseManager().saveWarp(warp));
     }
 
     public IslandWarp loadWarp(UUID warpId) {
-        if (warpsCache.containsKey(warpId)) {
-            return warpsCache.get(warpId);
-        }
+        // Tous les warps sont chargés au démarrage
+        return warpsCache.get(warpId);
+    }
 
-        ConfigurationSection section = warpsConfig.getConfigurationSection("warps." + warpId.toString());
-        if (section == null) {
-            return null;
-        }
+    public void deleteWarp(UUID warpId) {
+        unrankWarp(warpId);
+        uncacheWarp(warpId);
+        pendingVisits.remove(warpId);
 
-        IslandWarp warp = IslandWarp.loadFromYaml(section);
-        warpsCache.put(warpId, warp);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> plugin.getDatabaseManager().deleteWarp(warpId));
+    }
+
+    /**
+     * Oublie les warps et la promotion d'une île supprimée (la base les supprime en cascade)
+     */
+    public void removeIslandWarps(UUID islandId) {
+        List<UUID> warpIds = islandWarpsCache.get(islandId);
+        if (warpIds != null) {
+            new ArrayList<>(warpIds).forEach(warpId -> {
+                unrankWarp(warpId);
+                uncacheWarp(warpId);
+                pendingVisits.remove(warpId);
+            });
+        }
+        promotedIslands.remove(islandId);
+        openIslands.remove(islandId);
+    }
 
-        // Mettre à jour le cache
-        islandWarpsCache.computeIfAbsent(warp.getIslandId(), k -> new ArrayList<>()).add(warpId);
+    private void cacheWarp(IslandWarp warp) {
+        warpsCache.put(warp.getId(), warp);
 
-        return warp;
+        // Mettre à jour le cache des warps par île
+        List<UUID> islandWarps = islandWarpsCache.computeIfAbsent(warp.getIslandId(), k -> new ArrayList<>());
+        if (!islandWarps.contains(warp.getId())) {
+            islandWarps.add(warp.getId());
+        }
     }
 
-    public void deleteWarp(UUID warpId) {
+    private void uncacheWarp(UUID warpId) {
         IslandWarp warp = warpsCache.remove(warpId);
         if (warp != null) {
             // Retirer du cache des îles
@@ -115,9 +178,6 @@ public class WarpManager {
                 }
             }
         }
-
-        warpsConfig.set("warps." + warpId.toString(), null);
-        saveWarpsConfig();
     }
 
     public List<IslandWarp> getIslandWarps(UUID islandId) {
@@ -181,37 +241,25 @@ public class WarpManager {
             return false;
         }
 
-        // S'assurer que le monde de l'île est chargé avant de téléporter
-        plugin.getIslandManager().ensureIslandWorldLoaded(island);
-
-        // Recomposer la Location avec le monde (si rechargé)
-        Location target = warp.getLocation();
-        if (target.getWorld() == null || plugin.getIslandManager().getIslandWorld(island) == null
-                || !plugin.getIslandManager().getIslandWorld(island).equals(target.getWorld())) {
-            // Remapper sur le monde d'île actuel
-            target = new Location(
-                    plugin.getIslandManager().getIslandWorld(island),
-                    warp.getLocation().getX(),
-                    warp.getLocation().getY(),
-                    warp.getLocation().getZ(),
-                    warp.getLocation().getYaw(),
-                    warp.getLocation().getPitch()
-            );
-        }
-
-        // Téléporter
-        player.teleport(target);
-        warp.incrementVisits();
-        saveWarp(warp);
-
-        player.sendMessage(ChatColor.GREEN + "Téléporté au warp " + ChatColor.YELLOW + warp.getName() +
-                ChatColor.GREEN + " sur l'île de " + ChatColor.AQUA + getIslandOwnerName(island) + " !");
-
-        // Ajouter comme visiteur
-        if (!island.isMember(player.getUniqueId())) {
-            island.addVisitor(player.getUniqueId());
-            plugin.getDatabaseManager().saveIsland(island);
-        }
+        // Téléporter une fois le monde de l'île préchauffé, en remappant la Location sur le monde actuel
+        plugin.getWorldPrewarmManager().teleportWhenReady(player, island,
+                world -> {
+                    Location location = warp.getLocation();
+                    return new Location(world, location.getX(), location.getY(), location.getZ(),
+                            location.getYaw(), location.getPitch());
+                },
+                () -> {
+                    recordVisit(warp);
+
+                    player.sendMessage(ChatColor.GREEN + "Téléporté au warp " + ChatColor.YELLOW + warp.getName() +
+                            ChatColor.GREEN + " sur l'île de " + ChatColor.AQUA + getIslandOwnerName(island) + " !");
+
+                    // Ajouter comme visiteur
+                    if (!island.isMember(player.getUniqueId())) {
+                        island.addVisitor(player.getUniqueId());
+                        plugin.getDatabaseManager().saveIsland(island);
+                    }
+                });
 
         return true;
     }
@@ -240,10 +288,11 @@ public class WarpManager {
 
         long expirationTime = System.currentTimeMillis() + (days * 24 * 60 * 60 * 1000L);
         promotedIslands.put(islandId, expirationTime);
+        rankIslandWarps(islandId);
 
         // Sauvegarder
-        promotionsConfig.set("promotions." + islandId.toString(), expirationTime);
-        savePromotionsConfig();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin,
+                () -> plugin.getDatabaseManager().savePromotion(islandId, expirationTime));
 
         payer.sendMessage(ChatColor.GREEN + "Votre île a été promue pour " + days + " jour(s) !");
         payer.sendMessage(ChatColor.YELLOW + "Coût: " + beaconCost + " beacons");
@@ -259,9 +308,11 @@ public class WarpManager {
 
         if (System.currentTimeMillis() > expirationTime) {
             // Promotion expirée
-            promotedIslands.remove(islandId);
-            promotionsConfig.set("promotions." + islandId.toString(), null);
-            savePromotionsConfig();
+            if (promotedIslands.remove(islandId, expirationTime)) {
+                rankIslandWarps(islandId);
+                Bukkit.getScheduler().runTaskAsynchronously(plugin,
+                        () -> plugin.getDatabaseManager().deletePromotions(Collections.singletonList(islandId)));
+            }
             return false;
         }
 
@@ -277,6 +328,17 @@ public class WarpManager {
     public void setIslandOpen(Island island, boolean open) {
         island.setFlag(Island.IslandFlag.VISITOR_INTERACT, open);
         plugin.getDatabaseManager().saveIsland(island);
+        refreshIslandOpen(island);
+    }
+
+    /**
+     * À appeler quand l'ouverture d'une île change (flag VISITOR_INTERACT) pour mettre à jour les classements
+     */
+    public void refreshIslandOpen(Island island) {
+        boolean changed = isIslandOpen(island) ? openIslands.add(island.getId()) : openIslands.remove(island.getId());
+        if (changed) {
+            rankIslandWarps(island.getId());
+        }
     }
 
     public boolean isIslandOpen(Island island) {
@@ -286,109 +348,215 @@ public class WarpManager {
     // === RÉCUPÉRATION DES WARPS ===
 
     public List<IslandWarp> getAllPublicWarps() {
-        return warpsCache.values().stream()
-                .filter(IslandWarp::isPublic)
-                .filter(warp -> {
-                    Island island = plugin.getDatabaseManager().loadIsland(warp.getIslandId());
-                    return island != null && isIslandOpen(island);
-                })
-                .collect(Collectors.toList());
+        List<IslandWarp> warps = getPromotedWarps();
+        warps.addAll(getPopularWarps());
+        return warps;
     }
 
     public List<IslandWarp> getPromotedWarps() {
-        return getAllPublicWarps().stream()
-                .filter(warp -> isIslandPromoted(warp.getIslandId()))
-                .sorted((a, b) -> Long.compare(b.getVisits(), a.getVisits()))
-                .collect(Collectors.toList());
+        expirePromotions();
+        synchronized (rankingLock) {
+            return toWarps(promotedRanking.toList());
+        }
     }
 
     public List<IslandWarp> getPopularWarps() {
-        return getAllPublicWarps().stream()
-                .filter(warp -> !isIslandPromoted(warp.getIslandId()))
-                .sorted((a, b) -> Long.compare(b.getVisits(), a.getVisits()))
-                .collect(Collectors.toList());
+        expirePromotions();
+        synchronized (rankingLock) {
+            return toWarps(popularRanking.toList());
+        }
+    }
+
+    /**
+     * Une page des warps publics (promus d'abord, puis par visites), sans tri ni parcours complet
+     */
+    public List<IslandWarp> getPublicWarpsPage(int offset, int limit) {
+        expirePromotions();
+        synchronized (rankingLock) {
+            int promotedCount = promotedRanking.size();
+            List<RankedWarp> page = new ArrayList<>(limit);
+            if (offset < promotedCount) {
+                page.addAll(promotedRanking.page(offset, limit));
+            }
+            if (page.size() < limit) {
+                page.addAll(popularRanking.page(Math.max(0, offset - promotedCount), limit - page.size()));
+            }
+            return toWarps(page);
+        }
+    }
+
+    public int getPublicWarpCount() {
+        synchronized (rankingLock) {
+            return promotedRanking.size() + popularRanking.size();
+        }
+    }
+
+    public int getPromotedWarpCount() {
+        synchronized (rankingLock) {
+            return promotedRanking.size();
+        }
+    }
+
+    // === CLASSEMENTS ===
+
+    private record RankedWarp(UUID warpId, int visits) {
+    }
+
+    /**
+     * Replace un warp dans le bon classement (ou l'en retire s'il n'est plus listable)
+     */
+    private void rankWarp(IslandWarp warp) {
+        synchronized (rankingLock) {
+            unrankWarp(warp.getId());
+            if (!warp.isPublic() || !openIslands.contains(warp.getIslandId())) return;
+
+            RankedWarp entry = new RankedWarp(warp.getId(), warp.getVisits());
+            rankedWarps.put(warp.getId(), entry);
+            (promotedIslands.containsKey(warp.getIslandId()) ? promotedRanking : popularRanking).add(entry);
+        }
+    }
+
+    private void unrankWarp(UUID warpId) {
+        synchronized (rankingLock) {
+            RankedWarp entry = rankedWarps.remove(warpId);
+            if (entry != null && !promotedRanking.remove(entry)) {
+                popularRanking.remove(entry);
+            }
+        }
+    }
+
+    private void rankIslandWarps(UUID islandId) {
+        List<UUID> warpIds = islandWarpsCache.get(islandId);
+        if (warpIds == null) return;
+
+        for (UUID warpId : new ArrayList<>(warpIds)) {
+            IslandWarp warp = warpsCache.get(warpId);
+            if (warp != null) {
+                rankWarp(warp);
+            }
+        }
+    }
+
+    private List<IslandWarp> toWarps(List<RankedWarp> entries) {
+        List<IslandWarp> warps = new ArrayList<>(entries.size());
+        for (RankedWarp entry : entries) {
+            IslandWarp warp = warpsCache.get(entry.warpId());
+            if (warp != null) {
+                warps.add(warp);
+            }
+        }
+        return warps;
     }
 
     // === SAUVEGARDE ET CHARGEMENT ===
 
     private void loadAll() {
-        // Charger les warps
-        ConfigurationSection warpsSection = warpsConfig.getConfigurationSection("warps");
-        if (warpsSection != null) {
-            for (String key : warpsSection.getKeys(false)) {
-                try {
-                    UUID warpId = UUID.fromString(key);
-                    loadWarp(warpId);
-                } catch (IllegalArgumentException e) {
-                    plugin.getLogger().warning("ID de warp invalide: " + key);
-                }
-            }
+        for (IslandWarp warp : plugin.getDatabaseManager().loadWarps()) {
+            cacheWarp(warp);
         }
+        promotedIslands.putAll(plugin.getDatabaseManager().loadPromotions());
 
-        // Charger les promotions
-        ConfigurationSection promotionsSection = promotionsConfig.getConfigurationSection("promotions");
-        if (promotionsSection != null) {
-            for (String key : promotionsSection.getKeys(false)) {
-                try {
-                    UUID islandId = UUID.fromString(key);
-                    long expiration = promotionsSection.getLong(key);
-                    if (System.currentTimeMillis() < expiration) {
-                        promotedIslands.put(islandId, expiration);
-                    }
-                } catch (IllegalArgumentException e) {
-                    plugin.getLogger().warning("ID d'île invalide dans les promotions: " + key);
-                }
+        // État d'ouverture des îles qui ont des warps, puis classements initiaux
+        for (UUID islandId : islandWarpsCache.keySet()) {
+            Island island = plugin.getDatabaseManager().loadIsland(islandId);
+            if (island != null && isIslandOpen(island)) {
+                openIslands.add(islandId);
             }
         }
+        warpsCache.values().forEach(this::rankWarp);
 
         plugin.getLogger().info("Chargé " + warpsCache.size() + " warps et " +
                 promotedIslands.size() + " promotions actives");
     }
 
-    private void saveWarpsConfig() {
-        try {
-            warpsConfig.save(warpsFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Erreur lors de la sauvegarde des warps: " + e.getMessage());
-        }
+    /**
+     * Compte une visite : en mémoire seulement, le journal en base est alimenté en arrière-plan
+     */
+    private void recordVisit(IslandWarp warp) {
+        warp.incrementVisits();
+        pendingVisits.merge(warp.getId(), 1, Integer::sum);
+        rankWarp(warp);
     }
 
-    private void savePromotionsConfig() {
-        try {
-            promotionsConfig.save(promotionsFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Erreur lors de la sauvegarde des promotions: " + e.getMessage());
+    /**
+     * Ajoute les visites en attente au journal ; en cas d'échec elles sont remises en attente
+     */
+    private void flushPendingVisits() {
+        if (pendingVisits.isEmpty()) return;
+
+        Map<UUID, Integer> batch = new HashMap<>();
+        for (UUID warpId : new ArrayList<>(pendingVisits.keySet())) {
+            Integer visits = pendingVisits.remove(warpId);
+            if (visits != null) {
+                batch.put(warpId, visits);
+            }
+        }
+
+        if (!plugin.getDatabaseManager().appendWarpVisits(batch)) {
+            batch.forEach((warpId, visits) -> {
+                if (warpsCache.containsKey(warpId)) {
+                    pendingVisits.merge(warpId, visits, Integer::sum);
+                }
+            });
         }
     }
 
+    private void startVisitLogTasks() {
+        long flushInterval = Math.max(20L, plugin.getConfig().getLong("warps.visit-log.flush-interval", 200L));
+        long compactInterval = Math.max(1L, plugin.getConfig().getLong("warps.visit-log.compact-interval", 10L)) * 60L * 20L;
+
+        // Ajout au journal des visites
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                flushPendingVisits();
+            }
+        }.runTaskTimerAsynchronously(plugin, flushInterval, flushInterval);
+
+        // Compactage du journal dans island_warps.visits
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                int compacted = plugin.getDatabaseManager().compactWarpVisits();
+                if (compacted > 0 && plugin.getConfig().getBoolean("debug.enabled", false)) {
+                    plugin.getLogger().info("Journal des visites compacté: " + compacted + " lignes");
+                }
+            }
+        }.runTaskTimerAsynchronously(plugin, compactInterval, compactInterval);
+    }
+
     private void startPromotionCleanupTask() {
         new BukkitRunnable() {
             @Override
             public void run() {
                 cleanupExpiredPromotions();
             }
-        }.runTaskTimer(plugin, 6000L, 6000L); // Toutes les 5 minutes
+        }.runTaskTimerAsynchronously(plugin, 6000L, 6000L); // Toutes les 5 minutes
     }
 
     private void cleanupExpiredPromotions() {
-        List<UUID> expired = new ArrayList<>();
+        expirePromotions();
+        List<UUID> expired = new ArrayList<>(expiredPromotions);
+        expiredPromotions.removeAll(expired);
+        if (!expired.isEmpty()) {
+            plugin.getDatabaseManager().deletePromotions(expired);
+            plugin.getLogger().info("Nettoyé " + expired.size() + " promotions expirées");
+        }
+    }
+
+    /**
+     * Retire les promotions expirées de la mémoire et des classements (les promotions sont peu nombreuses).
+     * La suppression en base est laissée à la tâche de nettoyage.
+     */
+    private void expirePromotions() {
         long currentTime = System.currentTimeMillis();
 
         for (Map.Entry<UUID, Long> entry : promotedIslands.entrySet()) {
-            if (currentTime > entry.getValue()) {
-                expired.add(entry.getKey());
+            if (currentTime > entry.getValue() && promotedIslands.remove(entry.getKey(), entry.getValue())) {
+                expiredPromotions.add(entry.getKey());
+                rankIslandWarps(entry.getKey());
             }
         }
-
-        for (UUID islandId : expired) {
-            promotedIslands.remove(islandId);
-            promotionsConfig.set("promotions." + islandId.toString(), null);
-        }
-
-        if (!expired.isEmpty()) {
-            savePromotionsConfig();
-            plugin.getLogger().info("Nettoyé " + expired.size() + " promotions expirées");
-        }
     }
 
     // === MÉTHODES UTILITAIRES ===
@@ -403,9 +571,12 @@ public class WarpManager {
         return skyblockPlayer != null ? skyblockPlayer.getName() : "Joueur inconnu";
     }
 
+    /**
+     * Écrit les visites en attente et compacte le journal (arrêt du serveur)
+     */
     public void saveAll() {
-        saveWarpsConfig();
-        savePromotionsConfig();
+        flushPendingVisits();
+        plugin.getDatabaseManager().compactWarpVisits();
     }
 
     public int getTotalWarps() {
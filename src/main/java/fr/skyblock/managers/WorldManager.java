@@ -2,23 +2,28 @@ package fr.skyblock.managers;
 
 import fr.skyblock.CustomSkyblock;
 import fr.skyblock.models.Island;
+import fr.skyblock.utils.IslandWorldCache;
 import org.bukkit.*;
 import org.bukkit.entity.Player;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.scheduler.BukkitRunnable;
 import org.mvplugins.multiverse.core.locale.message.Message;
 import org.mvplugins.multiverse.core.utils.result.Attempt;
 import org.mvplugins.multiverse.core.world.LoadedMultiverseWorld;
 import org.mvplugins.multiverse.core.world.MultiverseWorld;
 import org.mvplugins.multiverse.core.world.options.CreateWorldOptions;
 import org.mvplugins.multiverse.core.world.options.DeleteWorldOptions;
+import org.mvplugins.multiverse.core.world.options.ImportWorldOptions;
 import org.mvplugins.multiverse.core.world.reasons.CreateFailureReason;
 import org.mvplugins.multiverse.core.world.reasons.DeleteFailureReason;
+import org.mvplugins.multiverse.core.world.reasons.ImportFailureReason;
 import org.mvplugins.multiverse.external.jetbrains.annotations.NotNull;
 import org.mvplugins.multiverse.external.vavr.control.Option;
 
 import java.io.File;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class WorldManager {
 
@@ -29,13 +34,41 @@ public class WorldManager {
     private final String islandsFolder;
     // Suivi d'activité et déchargement
     private final Map<String, Long> lastPlayerLeftAt = new ConcurrentHashMap<>();
+    private final Set<UUID> cloningIslands = ConcurrentHashMap.newKeySet();
+    // Monde -> île pour les listeners, sans analyser le nom du monde à chaque événement
+    private final IslandWorldCache islandWorldCache = new IslandWorldCache(this::getIslandIdFromWorldName);
+    private final Map<String, VisitStats> visitStats = new ConcurrentHashMap<>();
     private final long unloadAfterMillis;
 
+    // Déchargement adaptatif (file manipulée uniquement sur le thread principal)
+    private final Deque<String> unloadQueue = new ArrayDeque<>();
+    private BukkitRunnable unloadDrainTask;
+    private final long minIdleMillis;
+    private final int maxLoadedWorlds;
+    private final double heapPressureThreshold;
+    private final int unloadsPerTick;
+    private final long scanIntervalTicks;
+    private final long visitHalfLifeMillis;
+    private final double frequentVisits;
+    private volatile long currentIdleTimeout;
+    private volatile int loadedIslandWorldCount;
+    private final AtomicLong unloadedWorlds = new AtomicLong();
+
     public WorldManager(CustomSkyblock plugin) {
         this.plugin = plugin;
         this.islandsFolder = plugin.getConfig().getString("island.worlds-folder", "islands");
         int minutes = plugin.getConfig().getInt("advanced.auto-unload-minutes", 30);
         this.unloadAfterMillis = Math.max(1, minutes) * 60L * 1000L;
+        this.minIdleMillis = Math.min(unloadAfterMillis,
+                Math.max(0, plugin.getConfig().getInt("advanced.world-unload.min-idle-seconds", 60)) * 1000L);
+        this.maxLoadedWorlds = Math.max(1, plugin.getConfig().getInt("advanced.world-unload.max-loaded-worlds", 100));
+        this.heapPressureThreshold = Math.min(0.99, Math.max(0.0,
+                plugin.getConfig().getDouble("advanced.world-unload.heap-pressure-threshold", 0.70)));
+        this.unloadsPerTick = Math.max(1, plugin.getConfig().getInt("advanced.world-unload.unloads-per-tick", 1));
+        this.scanIntervalTicks = Math.max(1, plugin.getConfig().getInt("advanced.world-unload.scan-interval-seconds", 15)) * 20L;
+        this.visitHalfLifeMillis = Math.max(1, plugin.getConfig().getInt("advanced.world-unload.visit-half-life-minutes", 60)) * 60L * 1000L;
+        this.frequentVisits = Math.max(1, plugin.getConfig().getInt("advanced.world-unload.frequent-visits", 10));
+        this.currentIdleTimeout = unloadAfterMillis;
         ensureIslandsFolder();
         loadExistingWorlds();
         unloadIdleIslandWorldsOnStartup();
@@ -53,7 +86,7 @@ public class WorldManager {
      * Crée un nouveau monde pour une île
      */
     public World createIslandWorld(Island island) {
-        String worldName = islandsFolder + "/" + worldPrefix + island.getId().toString();
+        String worldName = getIslandWorldFolderName(island.getId());
 
         try {
             org.mvplugins.multiverse.core.world.@NotNull WorldManager mvWorldManager = plugin.getMultiverseCoreApi().getWorldManager();
@@ -123,6 +156,94 @@ public class WorldManager {
         }
     }
 
+    /**
+     * Nom (et dossier) du monde d'une île, qu'il existe ou non
+     */
+    public String getIslandWorldFolderName(UUID islandId) {
+        return islandsFolder + "/" + worldPrefix + islandId;
+    }
+
+    /**
+     * WorldCreator d'un monde vide hors Multiverse (modèles, mondes de réserve) :
+     * générateur void configuré, sinon générateur sans terrain
+     */
+    public WorldCreator createVoidWorldCreator(String worldName) {
+        WorldCreator creator = new WorldCreator(worldName)
+                .environment(World.Environment.NORMAL)
+                .type(WorldType.FLAT)
+                .generateStructures(false)
+                .seed(0L);
+
+        String voidGenerator = plugin.getConfig().getString("advanced.void-generator", "VoidWorldGenerator");
+        if (plugin.getServer().getPluginManager().getPlugin(voidGenerator) != null) {
+            creator.generator(voidGenerator);
+        } else {
+            creator.generator(new ChunkGenerator() {
+            });
+        }
+        return creator;
+    }
+
+    /**
+     * Configure un monde vide comme un monde d'île neuf (réglages et plateforme de spawn)
+     */
+    public void prepareBlankIslandWorld(World world) {
+        setupWorldSettings(world);
+        prepareWorldForIsland(world);
+    }
+
+    /**
+     * Importe un monde d'île dont le dossier est déjà en place (copie d'un modèle,
+     * monde de réserve renommé)
+     */
+    public World importIslandWorld(Island island) {
+        String worldName = getIslandWorldFolderName(island.getId());
+
+        try {
+            org.mvplugins.multiverse.core.world.@NotNull WorldManager mvWorldManager = plugin.getMultiverseCoreApi().getWorldManager();
+
+            ImportWorldOptions options = ImportWorldOptions.worldName(worldName)
+                    .environment(World.Environment.NORMAL);
+            String voidGenerator = plugin.getConfig().getString("advanced.void-generator", "VoidWorldGenerator");
+            if (plugin.getServer().getPluginManager().getPlugin(voidGenerator) != null) {
+                options = options.generator(voidGenerator);
+            }
+
+            Attempt<LoadedMultiverseWorld, ImportFailureReason> result = mvWorldManager.importWorld(options);
+            if (result.isFailure()) {
+                plugin.getLogger().severe("Échec de l'import du monde " + worldName + ": " + result.getFailureMessage());
+                return null;
+            }
+
+            World world = result.get().getBukkitWorld().getOrNull();
+            if (world == null) {
+                plugin.getLogger().severe("Monde " + worldName + " importé mais introuvable !");
+                return null;
+            }
+
+            setupWorldSettings(world);
+            islandWorlds.put(island.getId(), worldName);
+            island.setCenter(new Location(world, 0, 64, 0));
+            result.get().setAutoLoad(false);
+
+            return world;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Erreur lors de l'import du monde " + worldName + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Le dossier du monde est en cours de copie : ne pas le charger ni le recréer entre-temps
+     */
+    public void markWorldCloning(UUID islandId) {
+        cloningIslands.add(islandId);
+    }
+
+    public void clearWorldCloning(UUID islandId) {
+        cloningIslands.remove(islandId);
+    }
+
     /**
      * Supprime le monde d'une île
      */
@@ -168,6 +289,8 @@ public class WorldManager {
 
             if (result.isSuccess()) {
                 islandWorlds.remove(island.getId());
+                lastPlayerLeftAt.remove(worldName);
+                visitStats.remove(worldName);
                 plugin.getLogger().info("Monde " + worldName + " et ses fichiers supprimés avec succès via Multiverse.");
                 return true;
             } else {
@@ -207,6 +330,10 @@ public class WorldManager {
         return worldName.startsWith(islandsFolder + "/" + worldPrefix) || worldName.startsWith(worldPrefix);
     }
 
+    public IslandWorldCache getIslandWorldCache() {
+        return islandWorldCache;
+    }
+
     /**
      * Obtient l'ID de l'île à partir du nom du monde
      */
@@ -342,6 +469,26 @@ public class WorldManager {
         }
     }
 
+    /**
+     * Vérifie si le dossier du monde de l'île existe, monde chargé ou non
+     */
+    public boolean hasWorldFolder(UUID islandId) {
+        return new File(Bukkit.getWorldContainer(), getIslandWorldFolderName(islandId)).isDirectory();
+    }
+
+    /**
+     * IDs des îles dont le monde est chargé
+     */
+    public List<UUID> getLoadedIslandIds() {
+        List<UUID> islandIds = new ArrayList<>();
+        for (Map.Entry<UUID, String> entry : islandWorlds.entrySet()) {
+            if (Bukkit.getWorld(entry.getValue()) != null) {
+                islandIds.add(entry.getKey());
+            }
+        }
+        return islandIds;
+    }
+
     /**
      * Vérifie si une île a un monde associé
      */
@@ -356,9 +503,10 @@ public class WorldManager {
     public World getOrCreateIslandWorld(Island island) {
         World world = getIslandWorld(island);
         if (world != null) return world;
+        if (cloningIslands.contains(island.getId())) return null;
 
         // Si un dossier de monde existe, tenter import/chargement via Multiverse plutôt que recréer
-        String worldName = islandsFolder + "/" + worldPrefix + island.getId();
+        String worldName = getIslandWorldFolderName(island.getId());
         try {
             org.mvplugins.multiverse.core.world.@NotNull WorldManager mvWorldManager = plugin.getMultiverseCoreApi().getWorldManager();
             Option<MultiverseWorld> mvWorldOpt = mvWorldManager.getWorld(worldName);
@@ -457,82 +605,227 @@ public class WorldManager {
     public void markPlayerEntered(String worldName) {
         if (isIslandWorld(worldName)) {
             lastPlayerLeftAt.remove(worldName);
+            visitStats.computeIfAbsent(worldName, k -> new VisitStats()).record(System.currentTimeMillis(), visitHalfLifeMillis);
         }
     }
 
+    /**
+     * Parcourt périodiquement les mondes d'îles vides et planifie leur déchargement.
+     * Le délai d'inactivité raccourcit quand le tas ou le nombre de mondes chargés augmente ;
+     * au-delà de max-loaded-worlds, les mondes vides les moins utiles sont déchargés sans attendre.
+     */
     private void startAutoUnloadTask() {
-        // Vérifie toutes les minutes et décharge les mondes d'îles inactifs depuis 30 minutes
         Bukkit.getScheduler().runTaskTimer(plugin, () -> {
             try {
-                org.mvplugins.multiverse.core.world.@NotNull WorldManager mvWorldManager = plugin.getMultiverseCoreApi().getWorldManager();
-                long now = System.currentTimeMillis();
-                for (Map.Entry<UUID, String> entry : islandWorlds.entrySet()) {
-                    String worldName = entry.getValue();
-                    World bukkitWorld = Bukkit.getWorld(worldName);
-                    if (bukkitWorld == null) continue; // déjà déchargé
-                    if (!bukkitWorld.getPlayers().isEmpty()) continue; // encore utilisé
-
-                    long last = lastPlayerLeftAt.getOrDefault(worldName, now);
-                    // si pas de timestamp, initialise maintenant pour laisser 30min
-                    if (!lastPlayerLeftAt.containsKey(worldName)) {
-                        lastPlayerLeftAt.put(worldName, now);
-                        continue;
+                scanIdleWorlds();
+            } catch (Exception e) {
+                plugin.getLogger().warning("Erreur tâche déchargement auto: " + e.getMessage());
+            }
+        }, scanIntervalTicks, scanIntervalTicks);
+    }
+
+    private void scanIdleWorlds() {
+        long now = System.currentTimeMillis();
+        WorldPrewarmManager prewarmManager = plugin.getWorldPrewarmManager();
+
+        int loaded = 0;
+        List<IdleWorld> idleWorlds = new ArrayList<>();
+        for (Map.Entry<UUID, String> entry : islandWorlds.entrySet()) {
+            String worldName = entry.getValue();
+            World bukkitWorld = Bukkit.getWorld(worldName);
+            if (bukkitWorld == null) continue; // déjà déchargé
+            loaded++;
+
+            if (!bukkitWorld.getPlayers().isEmpty()) { // encore utilisé
+                lastPlayerLeftAt.remove(worldName);
+                continue;
+            }
+            if (prewarmManager != null && prewarmManager.isWarming(entry.getKey())) continue;
+
+            // Sans horodatage (monde préchauffé, chargé au démarrage...) : l'inactivité commence maintenant
+            Long leftAt = lastPlayerLeftAt.putIfAbsent(worldName, now);
+            long idleMillis = leftAt != null ? now - leftAt : 0;
+            if (idleMillis < minIdleMillis) continue;
+
+            VisitStats stats = visitStats.get(worldName);
+            double visits = stats != null ? stats.score(now, visitHalfLifeMillis) : 0;
+            idleWorlds.add(new IdleWorld(worldName, idleMillis, visits));
+        }
+
+        long baseTimeout = computeIdleTimeout(loaded);
+        loadedIslandWorldCount = loaded;
+        currentIdleTimeout = baseTimeout;
+
+        // Les mondes fréquentés gardent jusqu'au double du délai de base
+        for (IdleWorld idle : idleWorlds) {
+            double timeout = baseTimeout * (1.0 + Math.min(idle.visits, frequentVisits) / frequentVisits);
+            idle.urgency = idle.idleMillis / Math.max(1.0, timeout);
+        }
+        idleWorlds.sort(Comparator.comparingDouble((IdleWorld idle) -> idle.urgency).reversed());
+
+        // Délai dépassé, ou trop de mondes chargés : les plus inactifs relativement à leur délai d'abord
+        unloadQueue.clear();
+        int excess = loaded - maxLoadedWorlds;
+        for (IdleWorld idle : idleWorlds) {
+            if (idle.urgency >= 1.0) {
+                unloadQueue.add(idle.worldName);
+                excess--;
+            } else if (excess > 0) {
+                unloadQueue.add(idle.worldName);
+                excess--;
+            } else {
+                break;
+            }
+        }
+
+        if (!unloadQueue.isEmpty() && unloadDrainTask == null) {
+            startUnloadDrain();
+        }
+    }
+
+    /**
+     * Délai d'inactivité courant : entre min-idle-seconds et auto-unload-minutes selon
+     * la pression la plus forte entre le tas et le nombre de mondes chargés
+     */
+    private long computeIdleTimeout(int loaded) {
+        double worldPressure = (double) loaded / maxLoadedWorlds;
+        double pressure = Math.min(1.0, Math.max(worldPressure, getHeapPressure()));
+        return minIdleMillis + (long) ((unloadAfterMillis - minIdleMillis) * (1.0 - pressure));
+    }
+
+    /**
+     * 0 sous le seuil configuré, 1 quand le tas est plein
+     */
+    private double getHeapPressure() {
+        Runtime runtime = Runtime.getRuntime();
+        double used = (double) (runtime.totalMemory() - runtime.freeMemory()) / runtime.maxMemory();
+        if (used <= heapPressureThreshold) return 0.0;
+        return Math.min(1.0, (used - heapPressureThreshold) / (1.0 - heapPressureThreshold));
+    }
+
+    /**
+     * Décharge au plus unloads-per-tick mondes par tick jusqu'à vider la file
+     */
+    private void startUnloadDrain() {
+        unloadDrainTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                int unloaded = 0;
+                while (unloaded < unloadsPerTick) {
+                    String worldName = unloadQueue.poll();
+                    if (worldName == null) {
+                        cancel();
+                        unloadDrainTask = null;
+                        return;
                     }
 
-                    if (now - last >= unloadAfterMillis) {
-                        // Sauvegarder l'île avant de décharger le monde
-                        UUID islandId = entry.getKey();
-                        Island island = plugin.getDatabaseManager().loadIsland(islandId);
-                        if (island != null) {
-                            plugin.getDatabaseManager().forceSaveIsland(island);
-                            plugin.getLogger().info("Île sauvegardée avant déchargement: " + islandId);
-                        }
-                        
-                        // Décharger via Multiverse (sauvegarde true)
-                        mvWorldManager.getLoadedWorld(bukkitWorld).peek(loaded -> {
-                            mvWorldManager.unloadWorld(org.mvplugins.multiverse.core.world.options.UnloadWorldOptions
-                                    .world(loaded)
-                                    .saveBukkitWorld(true)
-                                    .unloadBukkitWorld(true));
-                            plugin.getLogger().info("Monde d'île déchargé pour inactivité: " + worldName);
-                        });
-                        lastPlayerLeftAt.remove(worldName);
+                    // L'état a pu changer depuis le parcours
+                    World world = Bukkit.getWorld(worldName);
+                    if (world == null || !world.getPlayers().isEmpty()) continue;
+                    UUID islandId = getIslandIdFromWorldName(worldName);
+                    if (islandId != null && plugin.getWorldPrewarmManager() != null
+                            && plugin.getWorldPrewarmManager().isWarming(islandId)) continue;
+
+                    if (unloadIslandWorld(world)) {
+                        plugin.getLogger().info("Monde d'île déchargé pour inactivité: " + worldName);
                     }
+                    unloaded++;
                 }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Erreur tâche déchargement auto: " + e.getMessage());
             }
-        }, 20L * 60L, 20L * 60L);
+        };
+        unloadDrainTask.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    /**
+     * Décharge un monde d'île vide. L'île passe par l'écriture différée : la base est
+     * écrite hors du thread principal.
+     */
+    private boolean unloadIslandWorld(World world) {
+        String worldName = world.getName();
+        UUID islandId = getIslandIdFromWorldName(worldName);
+        if (islandId != null) {
+            Island island = plugin.getDatabaseManager().getIslandsCache().peek(islandId);
+            if (island != null && island.hasPendingChanges()) {
+                plugin.getDatabaseManager().saveIsland(island);
+            }
+        }
+
+        org.mvplugins.multiverse.core.world.@NotNull WorldManager mvWorldManager = plugin.getMultiverseCoreApi().getWorldManager();
+        boolean[] unloaded = new boolean[1];
+        mvWorldManager.getLoadedWorld(world).peek(loaded -> {
+            unloaded[0] = mvWorldManager.unloadWorld(org.mvplugins.multiverse.core.world.options.UnloadWorldOptions
+                    .world(loaded)
+                    .saveBukkitWorld(true)
+                    .unloadBukkitWorld(true)).isSuccess();
+        });
+
+        lastPlayerLeftAt.remove(worldName);
+        if (unloaded[0]) {
+            unloadedWorlds.incrementAndGet();
+        }
+        return unloaded[0];
     }
 
     private void unloadIdleIslandWorldsOnStartup() {
         try {
-            org.mvplugins.multiverse.core.world.@NotNull WorldManager mvWorldManager = plugin.getMultiverseCoreApi().getWorldManager();
-            for (World world : Bukkit.getWorlds()) {
+            for (World world : new ArrayList<>(Bukkit.getWorlds())) {
                 String worldName = world.getName();
                 if (!isIslandWorld(worldName)) continue;
                 if (!world.getPlayers().isEmpty()) continue;
 
-                // Sauvegarder l'île avant de décharger le monde
-                UUID islandId = getIslandIdFromWorldName(worldName);
-                if (islandId != null) {
-                    Island island = plugin.getDatabaseManager().loadIsland(islandId);
-                    if (island != null) {
-                        plugin.getDatabaseManager().forceSaveIsland(island);
-                        plugin.getLogger().info("Île sauvegardée avant déchargement au démarrage: " + islandId);
-                    }
-                }
-
-                mvWorldManager.getLoadedWorld(world).peek(loaded -> {
-                    mvWorldManager.unloadWorld(org.mvplugins.multiverse.core.world.options.UnloadWorldOptions
-                            .world(loaded)
-                            .saveBukkitWorld(true)
-                            .unloadBukkitWorld(true));
+                if (unloadIslandWorld(world)) {
                     plugin.getLogger().info("Monde d'île déchargé au démarrage (sans joueurs): " + worldName);
-                });
+                }
             }
         } catch (Exception e) {
             plugin.getLogger().warning("Erreur lors du déchargement initial des mondes d'îles: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    public int getLoadedIslandWorldCount() {
+        return loadedIslandWorldCount;
+    }
+
+    public int getMaxLoadedWorlds() {
+        return maxLoadedWorlds;
+    }
+
+    public long getCurrentIdleTimeout() {
+        return currentIdleTimeout;
+    }
+
+    public long getUnloadedWorldCount() {
+        return unloadedWorlds.get();
+    }
+
+    /**
+     * Fréquence de visite avec décroissance exponentielle (demi-vie configurable)
+     */
+    private static final class VisitStats {
+        private double score;
+        private long updatedAt;
+
+        private synchronized void record(long now, long halfLifeMillis) {
+            score = score(now, halfLifeMillis) + 1.0;
+            updatedAt = now;
+        }
+
+        private synchronized double score(long now, long halfLifeMillis) {
+            if (updatedAt == 0) return 0.0;
+            return score * Math.pow(0.5, (double) (now - updatedAt) / halfLifeMillis);
+        }
+    }
+
+    private static final class IdleWorld {
+        private final String worldName;
+        private final long idleMillis;
+        private final double visits;
+        private double urgency;
+
+        private IdleWorld(String worldName, long idleMillis, double visits) {
+            this.worldName = worldName;
+            this.idleMillis = idleMillis;
+            this.visits = visits;
+        }
+    }
+}
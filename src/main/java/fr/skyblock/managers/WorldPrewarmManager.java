@@ -0,0 +1,198 @@
+package fr.skyblock.managers;
+
+import fr.skyblock.CustomSkyblock;
+import fr.skyblock.models.Island;
+import fr.skyblock.utils.LatencyRecorder;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Préchauffage des mondes d'îles : le chargement Multiverse est demandé avant d'en avoir
+ * besoin (connexion d'un membre, warp affiché, invitation acceptée), puis les chunks autour
+ * du centre sont chargés en asynchrone. Les téléportations attendent la fin du préchauffage
+ * via un callback au lieu de bloquer le thread principal.
+ */
+public class WorldPrewarmManager {
+
+    private final CustomSkyblock plugin;
+
+    // Un seul préchauffage par île, partagé par tous les demandeurs
+    private final Map<UUID, CompletableFuture<World>> pendingWarmups = new ConcurrentHashMap<>();
+    private final Queue<WarmupRequest> queue = new ConcurrentLinkedQueue<>();
+    private final LatencyRecorder latencies;
+
+    private final int chunkRadius;
+    private final int worldLoadsPerTick;
+
+    public WorldPrewarmManager(CustomSkyblock plugin) {
+        this.plugin = plugin;
+        this.chunkRadius = Math.max(0, plugin.getConfig().getInt("performance.world-prewarm.chunk-radius", 2));
+        this.worldLoadsPerTick = Math.max(1, plugin.getConfig().getInt("performance.world-prewarm.world-loads-per-tick", 1));
+        this.latencies = new LatencyRecorder(plugin.getConfig().getInt("performance.world-prewarm.latency-samples", 512));
+
+        // Les chargements Multiverse restent sur le thread principal, étalés sur les ticks
+        Bukkit.getScheduler().runTaskTimer(plugin, this::processQueue, 1L, 1L);
+    }
+
+    /**
+     * Démarre le préchauffage d'une île chargée ; le future est complété (sur le thread
+     * principal) avec le monde prêt, ou null si le monde n'a pas pu être chargé
+     */
+    public CompletableFuture<World> prewarm(Island island) {
+        World world = plugin.getWorldManager().getIslandWorld(island);
+        if (world != null && isCenterChunkLoaded(world, island)) {
+            return CompletableFuture.completedFuture(world);
+        }
+
+        return pendingWarmups.computeIfAbsent(island.getId(), id -> {
+            CompletableFuture<World> future = new CompletableFuture<>();
+            queue.add(new WarmupRequest(island, future, System.nanoTime()));
+            return future;
+        });
+    }
+
+    /**
+     * Démarre le préchauffage d'une île à partir de son ID, sans bloquer sur la base
+     */
+    public void prewarm(UUID islandId) {
+        if (islandId == null) return;
+
+        plugin.getDatabaseManager().loadIslandAsync(islandId).thenAccept(island -> {
+            if (island != null) {
+                runOnMainThread(() -> prewarm(island));
+            }
+        });
+    }
+
+    /**
+     * Téléporte le joueur dès que le monde de l'île est prêt. La destination est calculée
+     * une fois le monde chargé ; onArrival est appelé après une téléportation réussie.
+     * Le résultat (true si le joueur est arrivé) est donné sur le thread principal, après onArrival.
+     */
+    public CompletableFuture<Boolean> teleportWhenReady(Player player, Island island, Function<World, Location> destination, Runnable onArrival) {
+        CompletableFuture<Boolean> arrival = new CompletableFuture<>();
+        CompletableFuture<World> warmup = prewarm(island);
+        if (!warmup.isDone()) {
+            player.sendMessage(ChatColor.YELLOW + "Chargement de l'île en cours...");
+        }
+
+        warmup.whenComplete((world, error) -> runOnMainThread(() -> {
+            if (!player.isOnline()) {
+                arrival.complete(false);
+                return;
+            }
+
+            if (error != null || world == null) {
+                player.sendMessage(ChatColor.RED + "Impossible de charger le monde de l'île !");
+                arrival.complete(false);
+                return;
+            }
+
+            player.teleportAsync(destination.apply(world)).whenComplete((success, teleportError) -> runOnMainThread(() -> {
+                boolean arrived = teleportError == null && Boolean.TRUE.equals(success);
+                if (arrived && onArrival != null) {
+                    onArrival.run();
+                }
+                arrival.complete(arrived);
+            }));
+        }));
+        return arrival;
+    }
+
+    public boolean isWarming(UUID islandId) {
+        return pendingWarmups.containsKey(islandId);
+    }
+
+    public int getPendingWarmupCount() {
+        return pendingWarmups.size();
+    }
+
+    public LatencyRecorder getLatencies() {
+        return latencies;
+    }
+
+    private void processQueue() {
+        for (int i = 0; i < worldLoadsPerTick; i++) {
+            WarmupRequest request = queue.poll();
+            if (request == null) return;
+
+            World world;
+            try {
+                world = plugin.getWorldManager().getOrCreateIslandWorld(request.island());
+            } catch (Exception e) {
+                plugin.getLogger().warning("Erreur lors du préchauffage de l'île " + request.island().getId() + " : " + e.getMessage());
+                world = null;
+            }
+
+            if (world == null) {
+                complete(request, null);
+                continue;
+            }
+
+            World loadedWorld = world;
+            warmChunks(loadedWorld, request.island()).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    plugin.getLogger().warning("Chunks non préchargés pour l'île " + request.island().getId() + " : " + error.getMessage());
+                }
+                complete(request, loadedWorld);
+            });
+        }
+    }
+
+    private void complete(WarmupRequest request, World world) {
+        latencies.record((System.nanoTime() - request.requestedAt()) / 1_000_000L);
+        pendingWarmups.remove(request.island().getId(), request.future());
+        request.future().complete(world);
+    }
+
+    private CompletableFuture<Void> warmChunks(World world, Island island) {
+        int centerX = centerChunkX(world, island);
+        int centerZ = centerChunkZ(world, island);
+
+        List<CompletableFuture<?>> chunks = new ArrayList<>();
+        for (int dx = -chunkRadius; dx <= chunkRadius; dx++) {
+            for (int dz = -chunkRadius; dz <= chunkRadius; dz++) {
+                chunks.add(world.getChunkAtAsync(centerX + dx, centerZ + dz));
+            }
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]));
+    }
+
+    private boolean isCenterChunkLoaded(World world, Island island) {
+        return world.isChunkLoaded(centerChunkX(world, island), centerChunkZ(world, island));
+    }
+
+    private int centerChunkX(World world, Island island) {
+        Location center = island.getCenterPosition();
+        return (center != null ? center.getBlockX() : world.getSpawnLocation().getBlockX()) >> 4;
+    }
+
+    private int centerChunkZ(World world, Island island) {
+        Location center = island.getCenterPosition();
+        return (center != null ? center.getBlockZ() : world.getSpawnLocation().getBlockZ()) >> 4;
+    }
+
+    private void runOnMainThread(Runnable action) {
+        if (Bukkit.isPrimaryThread()) {
+            action.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, action);
+        }
+    }
+
+    private record WarmupRequest(Island island, CompletableFuture<World> future, long requestedAt) {
+    }
+}
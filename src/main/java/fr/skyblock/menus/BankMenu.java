@@ -1,6 +1,7 @@
 package fr.skyblock.menus;
 
 import fr.skyblock.CustomSkyblock;
+import fr.skyblock.managers.IslandBankManager;
 import fr.skyblock.managers.MenuManager;
 import fr.skyblock.models.Island;
 import fr.skyblock.models.SkyblockPlayer;
@@ -204,8 +205,7 @@ public class BankMenu extends BaseMenu {
 
         // Effectuer la transaction via PrisonTycoon
         if (plugin.getPrisonTycoonHook().removeCoins(player.getUniqueId(), coinsAmount)) {
-            island.addToBank(amount);
-            plugin.getDatabaseManager().saveIsland(island);
+            plugin.getIslandBankManager().deposit(island, amount, IslandBankManager.Reason.DEPOSIT, player.getUniqueId());
 
             player.sendMessage(ChatColor.GREEN + "Vous avez déposé " + ChatColor.GOLD +
                     coinsAmount + " coins " + ChatColor.GREEN + "dans la banque de l'île !");
@@ -218,7 +218,7 @@ public class BankMenu extends BaseMenu {
     }
 
     private void handleQuickWithdraw(Player player, Island island, double amount) {
-        if (!island.removeFromBank(amount)) {
+        if (!plugin.getIslandBankManager().withdraw(island, amount, IslandBankManager.Reason.WITHDRAW, player.getUniqueId())) {
             player.sendMessage(ChatColor.RED + "Fonds insuffisants dans la banque de l'île !");
             return;
         }
@@ -226,7 +226,6 @@ public class BankMenu extends BaseMenu {
         // Donner les coins via PrisonTycoon
         long coinsAmount = Math.round(amount);
         plugin.getPrisonTycoonHook().removeCoins(player.getUniqueId(), coinsAmount);
-        plugin.getDatabaseManager().saveIsland(island);
 
         player.sendMessage(ChatColor.GREEN + "Vous avez retiré " + ChatColor.GOLD +
                 coinsAmount + " coins " + ChatColor.GREEN + "de la banque de l'île !");
@@ -244,8 +243,7 @@ public class BankMenu extends BaseMenu {
         }
 
         if (plugin.getPrisonTycoonHook().removeCoins(player.getUniqueId(), playerCoins)) {
-            island.addToBank(playerCoins);
-            plugin.getDatabaseManager().saveIsland(island);
+            plugin.getIslandBankManager().deposit(island, playerCoins, IslandBankManager.Reason.DEPOSIT, player.getUniqueId());
 
             player.sendMessage(ChatColor.GREEN + "Vous avez déposé tous vos coins (" +
                     ChatColor.GOLD + playerCoins + ChatColor.GREEN + ") dans la banque !");
@@ -265,10 +263,9 @@ public class BankMenu extends BaseMenu {
             return;
         }
 
-        if (island.removeFromBank(bankBalance)) {
+        if (plugin.getIslandBankManager().withdraw(island, bankBalance, IslandBankManager.Reason.WITHDRAW, player.getUniqueId())) {
             long coinsAmount = Math.round(bankBalance);
             plugin.getPrisonTycoonHook().addCoins(player.getUniqueId(), coinsAmount);
-            plugin.getDatabaseManager().saveIsland(island);
 
             player.sendMessage(ChatColor.GREEN + "Vous avez retiré tout l'argent de la banque (" +
                     ChatColor.GOLD + coinsAmount + " coins" + ChatColor.GREEN + ") !");
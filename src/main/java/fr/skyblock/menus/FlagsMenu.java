@@ -89,6 +89,9 @@ public class FlagsMenu extends BaseMenu {
             boolean newValue = !island.getFlag(flag);
             island.setFlag(flag, newValue);
             plugin.getDatabaseManager().saveIsland(island);
+            if (flag == Island.IslandFlag.VISITOR_INTERACT) {
+                plugin.getWarpManager().refreshIslandOpen(island);
+            }
 
             player.sendMessage(ChatColor.GREEN + flag.getDescription() + " " +
                     (newValue ? "activé" : "désactivé") + " !");
@@ -134,10 +134,7 @@ public class MainMenu extends BaseMenu {
                 player.performCommand("island level");
             }
             case 21 -> menuManager.openUpgradeMenu(player); // Améliorer
-            case 23 -> { // Classements
-                player.closeInventory();
-                player.performCommand("island top");
-            }
+            case 23 -> menuManager.openTopMenu(player); // Classements
             case 25 -> { // Aide
                 player.closeInventory();
                 sendHelpMessage(player);
@@ -0,0 +1,106 @@
+package fr.skyblock.menus;
+
+import fr.skyblock.CustomSkyblock;
+import fr.skyblock.managers.LeaderboardManager;
+import fr.skyblock.managers.MenuManager;
+import fr.skyblock.models.SkyblockPlayer;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+public class TopMenu extends BaseMenu {
+
+    private static final int ITEMS_PER_PAGE = 28; // 4 lignes de 7 items
+
+    public TopMenu(CustomSkyblock plugin, MenuManager menuManager) {
+        super(plugin, menuManager);
+    }
+
+    @Override
+    public void open(Player player) {
+        openPage(player, 0);
+    }
+
+    @Override
+    public String getMenuType() {
+        return "top";
+    }
+
+    public void openPage(Player player, int page) {
+        LeaderboardManager leaderboard = plugin.getLeaderboardManager();
+        int total = leaderboard.getEntries().size();
+        int pages = Math.max(1, (total + ITEMS_PER_PAGE - 1) / ITEMS_PER_PAGE);
+        page = Math.max(0, Math.min(page, pages - 1));
+
+        Inventory inv = createInventory(54, ChatColor.DARK_BLUE + "Classement des îles - Page " + (page + 1));
+
+        // Page lue dans le classement en mémoire, noms déjà résolus
+        List<LeaderboardManager.Entry> entries = leaderboard.getPage(page, ITEMS_PER_PAGE);
+        int slot = 10;
+        for (LeaderboardManager.Entry entry : entries) {
+            inv.setItem(slot, createPlayerHead(entry.ownerName(),
+                    rankColor(entry.rank()) + "#" + entry.rank() + " " + ChatColor.WHITE + entry.ownerName(),
+                    ChatColor.GRAY + "Niveau: " + ChatColor.YELLOW + entry.level(),
+                    ChatColor.GRAY + "Valeur: " + ChatColor.YELLOW + String.format("%.1f", entry.worth())));
+
+            slot++;
+            if (slot % 9 == 8) slot += 2; // Passer à la ligne suivante
+        }
+
+        // Rang de l'île du joueur
+        SkyblockPlayer skyblockPlayer = plugin.getDatabaseManager().loadPlayer(player.getUniqueId());
+        int rank = skyblockPlayer != null && skyblockPlayer.hasIsland() ? leaderboard.getRank(skyblockPlayer.getIslandId()) : -1;
+        String lastRefresh = leaderboard.getLastRefresh() > 0
+                ? new SimpleDateFormat("HH:mm:ss").format(new Date(leaderboard.getLastRefresh())) : "jamais";
+        inv.setItem(4, createItem(Material.GOLD_BLOCK, ChatColor.GOLD + "Classement des îles",
+                ChatColor.GRAY + "Par niveau, puis par valeur des blocs",
+                ChatColor.GRAY + "Votre rang: " + ChatColor.WHITE + (rank > 0 ? "#" + rank : "non classé"),
+                "",
+                ChatColor.GRAY + "Mis à jour à " + ChatColor.WHITE + lastRefresh));
+
+        // Boutons de navigation
+        if (page > 0) {
+            inv.setItem(45, createPreviousPageButton());
+        }
+        if (page < pages - 1) {
+            inv.setItem(53, createNextPageButton());
+        }
+        inv.setItem(49, createBackButton());
+
+        fillEmptySlots(inv, Material.GRAY_STAINED_GLASS_PANE);
+
+        player.openInventory(inv);
+        setPlayerMenu(player, "top");
+        setMenuData(player, "page", page);
+    }
+
+    @Override
+    public void handleClick(Player player, int slot) {
+        Object pageData = getMenuData(player, "page");
+        int page = pageData instanceof Integer ? (Integer) pageData : 0;
+
+        switch (slot) {
+            case 45 -> { // Page précédente
+                if (page > 0) {
+                    openPage(player, page - 1);
+                }
+            }
+            case 53 -> openPage(player, page + 1); // Page suivante
+            case 49 -> openMainMenu(player); // Retour
+        }
+    }
+
+    private ChatColor rankColor(int rank) {
+        return switch (rank) {
+            case 1 -> ChatColor.GOLD;
+            case 2 -> ChatColor.WHITE;
+            case 3 -> ChatColor.RED;
+            default -> ChatColor.AQUA;
+        };
+    }
+}
@@ -37,19 +37,14 @@ public class WarpMenu extends BaseMenu {
     public void openMainWarpMenu(Player player, int page) {
         Inventory inv = createInventory(54, ChatColor.DARK_BLUE + "Warps d'îles - Page " + (page + 1));
 
-        // Obtenir tous les warps publics
-        List<IslandWarp> promotedWarps = plugin.getWarpManager().getPromotedWarps();
-        List<IslandWarp> popularWarps = plugin.getWarpManager().getPopularWarps();
-
-        // Combiner les listes (promotions en premier)
-        List<IslandWarp> allWarps = new ArrayList<>();
-        allWarps.addAll(promotedWarps);
-        allWarps.addAll(popularWarps);
-
-        // Pagination
+        // Page des warps publics (promotions en premier), lue dans les classements déjà triés
         int startIndex = page * ITEMS_PER_PAGE;
-        int endIndex = Math.min(startIndex + ITEMS_PER_PAGE, allWarps.size());
-        List<IslandWarp> pageWarps = allWarps.subList(startIndex, endIndex);
+        List<IslandWarp> pageWarps = plugin.getWarpManager().getPublicWarpsPage(startIndex, ITEMS_PER_PAGE);
+        int totalWarps = plugin.getWarpManager().getPublicWarpCount();
+        int endIndex = startIndex + pageWarps.size();
+
+        // Les inventaires n'exposent pas le survol : on préchauffe les premiers warps affichés
+        int prewarmRemaining = plugin.getConfig().getInt("performance.world-prewarm.warp-menu-entries", 2);
 
         // Afficher les warps
         int slot = 10;
@@ -57,6 +52,11 @@ public class WarpMenu extends BaseMenu {
             Island island = plugin.getDatabaseManager().loadIsland(warp.getIslandId());
             if (island == null) continue;
 
+            if (prewarmRemaining > 0) {
+                plugin.getWorldPrewarmManager().prewarm(island);
+                prewarmRemaining--;
+            }
+
             String ownerName = getIslandOwnerName(island);
             boolean isPromoted = plugin.getWarpManager().isIslandPromoted(warp.getIslandId());
 
@@ -90,14 +90,14 @@ public class WarpMenu extends BaseMenu {
             inv.setItem(45, createPreviousPageButton());
         }
 
-        if (endIndex < allWarps.size()) {
+        if (endIndex < totalWarps) {
             inv.setItem(53, createNextPageButton());
         }
 
         // Informations et actions
         inv.setItem(4, createItem(Material.COMPASS, ChatColor.AQUA + "Navigation des Warps",
-                ChatColor.GRAY + "Total warps publics: " + ChatColor.WHITE + allWarps.size(),
-                ChatColor.GRAY + "Warps promus: " + ChatColor.WHITE + promotedWarps.size(),
+                ChatColor.GRAY + "Total warps publics: " + ChatColor.WHITE + totalWarps,
+                ChatColor.GRAY + "Warps promus: " + ChatColor.WHITE + plugin.getWarpManager().getPromotedWarpCount(),
                 "",
                 ChatColor.YELLOW + "Explorez les îles du serveur !"));
 
@@ -126,7 +126,7 @@ public class WarpMenu extends BaseMenu {
         player.openInventory(inv);
         setPlayerMenu(player, "warp");
         setMenuData(player, "page", page);
-        setMenuData(player, "warps", allWarps);
+        setMenuData(player, "warps", pageWarps);
     }
 
     public void openPlayerWarps(Player player, String targetPlayerName) {
@@ -160,6 +160,9 @@ public class WarpMenu extends BaseMenu {
             return;
         }
 
+        // Tous les warps affichés sont sur cette île
+        plugin.getWorldPrewarmManager().prewarm(targetIsland);
+
         Inventory inv = createInventory(36, ChatColor.DARK_GREEN + "Warps de " + target.getName());
 
         // Afficher les warps
@@ -330,7 +333,8 @@ public class WarpMenu extends BaseMenu {
             default -> {
                 // Clic sur un warp
                 if (slot >= 10 && slot < 44 && warps != null && !warps.isEmpty()) {
-                    int warpIndex = calculateWarpIndex(slot, page);
+                    // Seule la page affichée est mémorisée : index relatif à la page
+                    int warpIndex = calculateWarpIndex(slot, 0);
 
                     if (warpIndex >= 0 && warpIndex < warps.size()) {
                         IslandWarp warp = warps.get(warpIndex);
@@ -2,25 +2,38 @@ package fr.skyblock.models;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class Island {
 
     private static final Gson gson = new GsonBuilder().create();
+    private static final AtomicIntegerFieldUpdater<Island> DIRTY_COLUMNS =
+            AtomicIntegerFieldUpdater.newUpdater(Island.class, "dirtyColumns");
 
     private UUID id;
     private UUID owner;
     private String name;
     private Location center;
+    // Centre lu en base dont le monde n'était pas chargé : coordonnées sans monde, résolues au premier accès
+    private transient volatile String pendingCenterWorld;
+    private transient volatile Location pendingCenter;
     private int size;
     private int level;
+    // Projection du solde : la base est mise à jour par le journal (voir IslandBankManager)
     private double bank;
+    // Valeur des blocs posés sur l'île (voir IslandWorthManager)
+    private double worth;
     private Set<UUID> members;
     private Set<UUID> visitors;
-    private Map<IslandFlag, Boolean> flags;
+    // Flags actifs, un bit par IslandFlag (IslandFlag.mask)
+    private volatile int flagBits;
     private long creationTime;
     private long lastActivity;
     
@@ -31,34 +44,124 @@ public class Island {
     private int maxPrinters = 10;
     private double printerGenerationSpeed = 1.0;
     
-    // Caisses de dépôt de l'île
+    // Caisses de dépôt de l'île (persistées dans island_deposit_boxes)
     private final Map<String, DepositBoxData> depositBoxes = new HashMap<>();
     
-    // Imprimantes de l'île
+    // Imprimantes de l'île (persistées dans island_printers)
     private final Map<String, PrinterData> printers = new HashMap<>();
 
+    // Suivi des colonnes modifiées depuis la dernière écriture (masque de Column)
+    private transient volatile int dirtyColumns;
+    // Vrai une fois que la ligne existe dans la table islands
+    private transient volatile boolean persisted;
+    // Notifié des changements de membres et de propriétaire (index du DatabaseManager)
+    private transient MembershipListener membershipListener;
+
+    /**
+     * Observateur des changements de membres et de propriétaire
+     */
+    public interface MembershipListener {
+        void onMemberAdded(Island island, UUID member);
+
+        void onMemberRemoved(Island island, UUID member);
+
+        void onOwnerChanged(Island island, UUID previousOwner, UUID newOwner);
+    }
+
+    /**
+     * Colonnes de la table islands, dans l'ordre de l'upsert complet
+     */
+    public enum Column {
+        OWNER("owner_uuid"),
+        NAME("name"),
+        LEVEL("level"),
+        // Écrite à la création seulement ; ensuite par island_bank_ledger
+        BANK("bank"),
+        SIZE("size"),
+        CENTER("center_world", "center_x", "center_y", "center_z", "center_yaw", "center_pitch"),
+        MEMBERS("members"),
+        FLAGS("flag_bits"),
+        CREATION_TIME("creation_time"),
+        LAST_ACTIVITY("last_activity"),
+        MAX_DEPOSIT_BOXES("max_deposit_boxes"),
+        MAX_HOPPERS("max_hoppers"),
+        HOPPER_TRANSFER_SPEED("hopper_transfer_speed"),
+        MAX_PRINTERS("max_printers"),
+        PRINTER_GENERATION_SPEED("printer_generation_speed"),
+        WORTH("worth");
+
+        private final String[] columnNames;
+
+        Column(String... columnNames) {
+            this.columnNames = columnNames;
+        }
+
+        public String[] getColumnNames() {
+            return columnNames;
+        }
+
+        public int mask() {
+            return 1 << ordinal();
+        }
+    }
+
+    /**
+     * Flags d'île. Chaque flag a un bit fixe, enregistré tel quel dans islands.flag_bits :
+     * un bit ne doit jamais changer ni être réutilisé, l'ordre des constantes est libre.
+     */
     public enum IslandFlag {
-        PVP("Autoriser le PvP"),
-        MOB_SPAWNING("Spawn des mobs"),
-        ANIMAL_SPAWNING("Spawn des animaux"),
-        FIRE_SPREAD("Propagation du feu"),
-        EXPLOSION_DAMAGE("Dégâts d'explosion"),
-        VISITOR_INTERACT("Interaction des visiteurs"),
-        VISITOR_PLACE("Placement des visiteurs"),
-        VISITOR_BREAK("Casse des visiteurs"),
-        VISITOR_CHEST("Accès coffres visiteurs");
+        PVP(0, "Autoriser le PvP"),
+        MOB_SPAWNING(1, "Spawn des mobs"),
+        ANIMAL_SPAWNING(2, "Spawn des animaux"),
+        FIRE_SPREAD(3, "Propagation du feu"),
+        EXPLOSION_DAMAGE(4, "Dégâts d'explosion"),
+        VISITOR_INTERACT(5, "Interaction des visiteurs"),
+        VISITOR_PLACE(6, "Placement des visiteurs"),
+        VISITOR_BREAK(7, "Casse des visiteurs"),
+        VISITOR_CHEST(8, "Accès coffres visiteurs");
+
+        static {
+            int used = 0;
+            for (IslandFlag flag : values()) {
+                if ((used & flag.mask) != 0) {
+                    throw new IllegalStateException("Bit de flag utilisé deux fois: " + flag.bit);
+                }
+                used |= flag.mask;
+            }
+        }
 
+        private final int bit;
+        private final int mask;
         private final String description;
 
-        IslandFlag(String description) {
+        IslandFlag(int bit, String description) {
+            if (bit < 0 || bit >= Integer.SIZE) {
+                throw new IllegalArgumentException("Bit de flag invalide: " + bit);
+            }
+            this.bit = bit;
+            this.mask = 1 << bit;
             this.description = description;
         }
 
         public String getDescription() {
             return description;
         }
+
+        public int getBit() {
+            return bit;
+        }
+
+        public int mask() {
+            return mask;
+        }
     }
 
+    // Flags de visiteurs : toujours accordés aux membres
+    private static final int MEMBER_GRANTED_FLAGS = IslandFlag.VISITOR_INTERACT.mask() | IslandFlag.VISITOR_PLACE.mask()
+            | IslandFlag.VISITOR_BREAK.mask() | IslandFlag.VISITOR_CHEST.mask();
+    // Flags actifs à la création d'une île
+    public static final int DEFAULT_FLAG_BITS = IslandFlag.MOB_SPAWNING.mask() | IslandFlag.ANIMAL_SPAWNING.mask();
+
     public Island(UUID id, UUID owner, String name, Location center) {
         this.id = id;
         this.owner = owner;
@@ -67,26 +170,23 @@ public class Island {
         this.size = 50; // Taille par défaut
         this.level = 1;
         this.bank = 0.0;
-        this.members = new HashSet<>();
-        this.visitors = new HashSet<>();
-        this.flags = new HashMap<>();
+        // Ensembles concurrents : l'écriture différée les sérialise hors du thread principal
+        this.members = ConcurrentHashMap.newKeySet();
+        this.visitors = ConcurrentHashMap.newKeySet();
         this.creationTime = System.currentTimeMillis();
         this.lastActivity = System.currentTimeMillis();
 
-        // Initialisation des flags par défaut
-        initializeDefaultFlags();
+        // Flags par défaut
+        this.flagBits = DEFAULT_FLAG_BITS;
     }
 
-    private void initializeDefaultFlags() {
-        flags.put(IslandFlag.PVP, false);
-        flags.put(IslandFlag.MOB_SPAWNING, true);
-        flags.put(IslandFlag.ANIMAL_SPAWNING, true);
-        flags.put(IslandFlag.FIRE_SPREAD, false);
-        flags.put(IslandFlag.EXPLOSION_DAMAGE, false);
-        flags.put(IslandFlag.VISITOR_INTERACT, false);
-        flags.put(IslandFlag.VISITOR_PLACE, false);
-        flags.put(IslandFlag.VISITOR_BREAK, false);
-        flags.put(IslandFlag.VISITOR_CHEST, false);
+    /**
+     * Vérifie un flag pour un membre ou un visiteur, sans allocation : les membres ont
+     * toujours les droits de visiteurs, les autres flags s'appliquent à tous
+     */
+    public boolean isAllowed(IslandFlag flag, boolean member) {
+        int bits = member ? flagBits | MEMBER_GRANTED_FLAGS : flagBits;
+        return (bits & flag.mask()) != 0;
     }
 
     // Méthodes utiles
@@ -100,16 +200,26 @@ public class Island {
 
     public boolean canInteract(UUID player) {
         if (isMember(player)) return true;
-        return isVisitor(player) && flags.get(IslandFlag.VISITOR_INTERACT);
+        return isVisitor(player) && getFlag(IslandFlag.VISITOR_INTERACT);
     }
 
     public void addMember(UUID player) {
-        members.add(player);
+        if (members.add(player)) {
+            markDirty(Column.MEMBERS);
+            if (membershipListener != null) {
+                membershipListener.onMemberAdded(this, player);
+            }
+        }
         visitors.remove(player); // Retire des visiteurs s'il était visiteur
     }
 
     public void removeMember(UUID player) {
-        members.remove(player);
+        if (members.remove(player)) {
+            markDirty(Column.MEMBERS);
+            if (membershipListener != null) {
+                membershipListener.onMemberRemoved(this, player);
+            }
+        }
     }
 
     public void addVisitor(UUID player) {
@@ -124,6 +234,48 @@ public class Island {
 
     public void updateActivity() {
         this.lastActivity = System.currentTimeMillis();
+        markDirty(Column.LAST_ACTIVITY);
+    }
+
+    // ==================== SUIVI DES MODIFICATIONS ====================
+
+    private void markDirty(Column column) {
+        int current;
+        do {
+            current = dirtyColumns;
+        } while (!DIRTY_COLUMNS.compareAndSet(this, current, current | column.mask()));
+    }
+
+    /**
+     * Récupère et remet à zéro le masque des colonnes modifiées
+     */
+    public int drainDirtyColumns() {
+        return DIRTY_COLUMNS.getAndSet(this, 0);
+    }
+
+    /**
+     * Remet des colonnes dans le masque (après un échec d'écriture)
+     */
+    public void restoreDirtyColumns(int mask) {
+        int current;
+        do {
+            current = dirtyColumns;
+        } while (!DIRTY_COLUMNS.compareAndSet(this, current, current | mask));
+    }
+
+    public boolean isPersisted() {
+        return persisted;
+    }
+
+    /**
+     * Vrai si l'île a des modifications pas encore écrites en base
+     */
+    public boolean hasPendingChanges() {
+        return dirtyColumns != 0 || !persisted;
+    }
+
+    public void markPersisted() {
+        this.persisted = true;
     }
 
     public String toJson() {
@@ -137,40 +289,162 @@ public class Island {
     // Getters et Setters
     public UUID getId() { return id; }
     public UUID getOwner() { return owner; }
+
+    /**
+     * Transfère la propriété de l'île
+     */
+    public void setOwner(UUID newOwner) {
+        UUID previousOwner = this.owner;
+        if (previousOwner.equals(newOwner)) return;
+        this.owner = newOwner;
+        markDirty(Column.OWNER);
+        if (membershipListener != null) {
+            membershipListener.onOwnerChanged(this, previousOwner, newOwner);
+        }
+    }
+
+    public void setMembershipListener(MembershipListener membershipListener) {
+        this.membershipListener = membershipListener;
+    }
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
-    public Location getCenter() { return center; }
-    public void setCenter(Location center) { this.center = center; }
+    public void setName(String name) {
+        this.name = name;
+        markDirty(Column.NAME);
+    }
+    public Location getCenter() {
+        if (center == null && pendingCenterWorld != null) {
+            resolvePendingCenter();
+        }
+        return center;
+    }
+    public void setCenter(Location center) {
+        this.center = center;
+        this.pendingCenterWorld = null;
+        this.pendingCenter = null;
+        markDirty(Column.CENTER);
+    }
+
+    /**
+     * Centre chargé depuis la base sans résoudre le monde : il le sera quand le monde sera chargé
+     */
+    public void setPendingCenter(String worldName, double x, double y, double z, float yaw, float pitch) {
+        this.center = null;
+        this.pendingCenter = new Location(null, x, y, z, yaw, pitch);
+        this.pendingCenterWorld = worldName;
+    }
+
+    /**
+     * Nom du monde du centre, même si ce monde n'est pas chargé
+     */
+    public String getCenterWorldName() {
+        Location resolved = getCenter();
+        if (resolved != null) {
+            World world = resolved.getWorld();
+            return world != null ? world.getName() : null;
+        }
+        return pendingCenterWorld;
+    }
+
+    /**
+     * Coordonnées du centre, même si son monde n'est pas chargé (le monde est alors null)
+     */
+    public Location getCenterPosition() {
+        Location resolved = getCenter();
+        return resolved != null ? resolved : pendingCenter;
+    }
+
+    /**
+     * Le monde du centre va être déchargé : revient aux coordonnées en attente pour ne plus
+     * référencer ce monde (le centre sera résolu à nouveau au prochain chargement)
+     */
+    public synchronized void releaseCenterWorld() {
+        Location resolved = center;
+        if (resolved == null || !resolved.isWorldLoaded()) return;
+
+        this.pendingCenter = new Location(null, resolved.getX(), resolved.getY(), resolved.getZ(),
+                resolved.getYaw(), resolved.getPitch());
+        this.pendingCenterWorld = resolved.getWorld().getName();
+        this.center = null;
+    }
+
+    private synchronized void resolvePendingCenter() {
+        String worldName = pendingCenterWorld;
+        Location position = pendingCenter;
+        if (center != null || worldName == null || position == null) return;
+
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) return;
+
+        Location resolved = position.clone();
+        resolved.setWorld(world);
+        this.center = resolved;
+        this.pendingCenterWorld = null;
+        this.pendingCenter = null;
+    }
     public int getSize() { return size; }
-    public void setSize(int size) { this.size = size; }
+    public void setSize(int size) {
+        this.size = size;
+        markDirty(Column.SIZE);
+    }
     public int getLevel() { return level; }
-    public void setLevel(int level) { this.level = level; }
-    public double getBank() { return bank; }
-    public void setBank(double bank) { this.bank = bank; }
-    public void addToBank(double amount) { this.bank += amount; }
-    public boolean removeFromBank(double amount) {
+    public void setLevel(int level) {
+        this.level = level;
+        markDirty(Column.LEVEL);
+    }
+    public synchronized double getBank() { return bank; }
+    /**
+     * Solde lu en base ; les mouvements passent par IslandBankManager
+     */
+    public synchronized void setBank(double bank) {
+        this.bank = bank;
+    }
+    public synchronized void addToBank(double amount) {
+        this.bank += amount;
+    }
+    public synchronized boolean removeFromBank(double amount) {
         if (this.bank >= amount) {
             this.bank -= amount;
             return true;
         }
         return false;
     }
+    public synchronized double drainBank() {
+        double amount = this.bank;
+        this.bank = 0;
+        return amount;
+    }
+    public double getWorth() { return worth; }
+    public void setWorth(double worth) {
+        this.worth = worth;
+        markDirty(Column.WORTH);
+    }
     public Set<UUID> getMembers() { return new HashSet<>(members); }
+    public int getMemberCount() { return members.size(); }
     public Set<UUID> getVisitors() { return new HashSet<>(visitors); }
-    public Map<IslandFlag, Boolean> getFlags() { return new HashMap<>(flags); }
-    public void setFlag(IslandFlag flag, boolean value) {
-        if (flags == null) {
-            flags = new HashMap<>();
-            initializeDefaultFlags();
+    public Map<IslandFlag, Boolean> getFlags() {
+        Map<IslandFlag, Boolean> flags = new EnumMap<>(IslandFlag.class);
+        for (IslandFlag flag : IslandFlag.values()) {
+            flags.put(flag, getFlag(flag));
         }
-        flags.put(flag, value);
+        return flags;
+    }
+    public void setFlag(IslandFlag flag, boolean value) {
+        int bits = value ? flagBits | flag.mask() : flagBits & ~flag.mask();
+        if (bits == flagBits) return;
+        this.flagBits = bits;
+        markDirty(Column.FLAGS);
     }
     public boolean getFlag(IslandFlag flag) {
-        if (flags == null) {
-            flags = new HashMap<>();
-            initializeDefaultFlags();
-        }
-        return flags.getOrDefault(flag, false);
+        return (flagBits & flag.mask()) != 0;
+    }
+
+    /**
+     * Masque des flags actifs (colonne flag_bits)
+     */
+    public int getFlagBits() { return flagBits; }
+    public void setFlagBits(int flagBits) {
+        this.flagBits = flagBits;
+        markDirty(Column.FLAGS);
     }
     public long getCreationTime() { return creationTime; }
     public long getLastActivity() {
@@ -179,6 +453,7 @@ public class Island {
 
     public void setLastActivity(long lastActivity) {
         this.lastActivity = lastActivity;
+        markDirty(Column.LAST_ACTIVITY);
     }
 
     // ==================== AMÉLIORATIONS D'ÎLE ====================
@@ -189,6 +464,7 @@ public class Island {
 
     public void setMaxDepositBoxes(int maxDepositBoxes) {
         this.maxDepositBoxes = Math.max(1, maxDepositBoxes);
+        markDirty(Column.MAX_DEPOSIT_BOXES);
     }
 
     public int getMaxHoppers() {
@@ -197,6 +473,7 @@ public class Island {
 
     public void setMaxHoppers(int maxHoppers) {
         this.maxHoppers = Math.max(5, maxHoppers);
+        markDirty(Column.MAX_HOPPERS);
     }
 
     public double getHopperTransferSpeed() {
@@ -205,6 +482,7 @@ public class Island {
 
     public void setHopperTransferSpeed(double hopperTransferSpeed) {
         this.hopperTransferSpeed = Math.max(1.0, hopperTransferSpeed);
+        markDirty(Column.HOPPER_TRANSFER_SPEED);
     }
 
     public int getMaxPrinters() {
@@ -213,6 +491,7 @@ public class Island {
 
     public void setMaxPrinters(int maxPrinters) {
         this.maxPrinters = Math.max(10, maxPrinters);
+        markDirty(Column.MAX_PRINTERS);
     }
 
     public double getPrinterGenerationSpeed() {
@@ -221,6 +500,7 @@ public class Island {
 
     public void setPrinterGenerationSpeed(double printerGenerationSpeed) {
         this.printerGenerationSpeed = Math.max(1.0, printerGenerationSpeed);
+        markDirty(Column.PRINTER_GENERATION_SPEED);
     }
     
     // ==================== GESTION DES CAISSES DE DÉPÔT ====================
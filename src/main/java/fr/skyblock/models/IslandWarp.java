@@ -105,6 +105,7 @@ public class IslandWarp {
     public void setPublic(boolean isPublic) { this.isPublic = isPublic; }
 
     public long getCreationTime() { return creationTime; }
+    public void setCreationTime(long creationTime) { this.creationTime = creationTime; }
 
     public int getVisits() { return visits; }
     public void setVisits(int visits) { this.visits = visits; }
@@ -20,6 +20,9 @@ public class SkyblockPlayer {
     private int islandResets; // Nombre de fois qu'il a reset son île
     private Map<String, Object> data; // Données supplémentaires
 
+    // Modifié depuis la dernière écriture en base
+    private transient volatile boolean dirty;
+
     public SkyblockPlayer(UUID uuid, String name) {
         this.uuid = uuid;
         this.name = name;
@@ -36,24 +39,43 @@ public class SkyblockPlayer {
     public void createIsland(UUID islandId) {
         this.islandId = islandId;
         this.hasIsland = true;
+        this.dirty = true;
     }
 
     public void deleteIsland() {
         this.islandId = null;
         this.hasIsland = false;
         this.islandResets++;
+        this.dirty = true;
     }
 
     public void joinIsland(UUID islandId) {
-        memberOfIslands.add(islandId);
+        if (memberOfIslands.add(islandId)) {
+            this.dirty = true;
+        }
     }
 
     public void leaveIsland(UUID islandId) {
-        memberOfIslands.remove(islandId);
+        if (memberOfIslands.remove(islandId)) {
+            this.dirty = true;
+        }
     }
 
     public void updateLastSeen() {
         this.lastSeen = System.currentTimeMillis();
+        this.dirty = true;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    public void clearDirty() {
+        this.dirty = false;
     }
 
     public String toJson() {
@@ -67,20 +89,21 @@ public class SkyblockPlayer {
     // Getters et Setters
     public UUID getUuid() { return uuid; }
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { this.name = name; this.dirty = true; }
     public UUID getIslandId() { return islandId; }
     public boolean hasIsland() { return hasIsland; }
     public Set<UUID> getMemberOfIslands() { return new HashSet<>(memberOfIslands); }
     public long getFirstJoin() { return firstJoin; }
-    public void setFirstJoin(long firstJoin) { this.firstJoin = firstJoin; }
+    public void setFirstJoin(long firstJoin) { this.firstJoin = firstJoin; this.dirty = true; }
     public long getLastSeen() { return lastSeen; }
-    public void setLastSeen(long lastSeen) { this.lastSeen = lastSeen; }
+    public void setLastSeen(long lastSeen) { this.lastSeen = lastSeen; this.dirty = true; }
     public int getIslandResets() { return islandResets; }
-    public void setIslandResets(int islandResets) { this.islandResets = islandResets; }
+    public void setIslandResets(int islandResets) { this.islandResets = islandResets; this.dirty = true; }
 
     // Gestion des données supplémentaires
     public void setData(String key, Object value) {
         data.put(key, value);
+        this.dirty = true;
     }
 
     public Object getData(String key) {
@@ -100,7 +123,9 @@ public class SkyblockPlayer {
     }
 
     public void removeData(String key) {
-        data.remove(key);
+        if (data.remove(key) != null) {
+            this.dirty = true;
+        }
     }
 
     // AJOUT : Getter pour toutes les données
@@ -0,0 +1,173 @@
+package fr.skyblock.utils;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.block.Block;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+
+/**
+ * Lot d'écritures de blocs regroupées par section de chunk (16x16x16), appliqué sur
+ * plusieurs ticks dans un budget de temps par tick, sans physique. Dans une section,
+ * les écritures gardent leur ordre d'ajout : la dernière écriture d'un bloc l'emporte.
+ */
+public class BlockBatch implements BlockWriter {
+
+    public interface ProgressListener {
+        /**
+         * Appelé à la fin de chaque tick où le lot n'est pas terminé
+         */
+        void onProgress(int done, int total);
+
+        /**
+         * Appelé sur le thread principal une fois toutes les écritures appliquées
+         */
+        void onComplete();
+    }
+
+    private final World world;
+    private final Map<Long, List<Write>> sections = new HashMap<>();
+    private final Map<Long, Biome> biomes = new LinkedHashMap<>();
+    private int size;
+
+    public BlockBatch(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public BlockBatch set(int x, int y, int z, Material material) {
+        return add(x, y, z, material, false);
+    }
+
+    /**
+     * Ne remplace le bloc que s'il est vide au moment de l'application
+     */
+    @Override
+    public BlockBatch setIfAir(int x, int y, int z, Material material) {
+        return add(x, y, z, material, true);
+    }
+
+    @Override
+    public BlockBatch fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, Material material) {
+        BlockWriter.super.fill(minX, minY, minZ, maxX, maxY, maxZ, material);
+        return this;
+    }
+
+    /**
+     * Biome d'une colonne ; les biomes sont stockés par cellules de 4x4, une écriture par cellule suffit
+     */
+    public BlockBatch biome(int x, int z, Biome biome) {
+        biomes.put(columnKey(x >> 2, z >> 2), biome);
+        return this;
+    }
+
+    public int size() {
+        return size + biomes.size();
+    }
+
+    /**
+     * Applique le lot à partir du prochain tick, au plus budgetMillis par tick
+     */
+    public void apply(Plugin plugin, long budgetMillis, ProgressListener listener) {
+        List<List<Write>> ordered = orderedSections();
+        List<Map.Entry<Long, Biome>> biomeWrites = new ArrayList<>(biomes.entrySet());
+        int total = size();
+        long budgetNanos = Math.max(1L, budgetMillis) * 1_000_000L;
+
+        new BukkitRunnable() {
+            private int sectionIndex;
+            private int writeIndex;
+            private int biomeIndex;
+            private int done;
+
+            @Override
+            public void run() {
+                long deadline = System.nanoTime() + budgetNanos;
+
+                while (sectionIndex < ordered.size()) {
+                    List<Write> writes = ordered.get(sectionIndex);
+                    while (writeIndex < writes.size()) {
+                        writes.get(writeIndex++).apply(world);
+                        done++;
+                        // Vérifier l'horloge toutes les 64 écritures seulement
+                        if ((done & 63) == 0 && System.nanoTime() >= deadline) {
+                            listener.onProgress(done, total);
+                            return;
+                        }
+                    }
+                    sectionIndex++;
+                    writeIndex = 0;
+                }
+
+                while (biomeIndex < biomeWrites.size()) {
+                    Map.Entry<Long, Biome> entry = biomeWrites.get(biomeIndex++);
+                    long key = entry.getKey();
+                    world.setBiome((int) (key >> 32) << 2, (int) key << 2, entry.getValue());
+                    done++;
+                    if ((done & 63) == 0 && System.nanoTime() >= deadline) {
+                        listener.onProgress(done, total);
+                        return;
+                    }
+                }
+
+                cancel();
+                listener.onComplete();
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+    }
+
+    private BlockBatch add(int x, int y, int z, Material material, boolean onlyIfAir) {
+        sections.computeIfAbsent(sectionKey(x >> 4, y >> 4, z >> 4), k -> new ArrayList<>())
+                .add(new Write(x, y, z, material, onlyIfAir));
+        size++;
+        return this;
+    }
+
+    /**
+     * Sections triées par chunk puis par hauteur : toutes les sections d'un chunk se suivent
+     */
+    private List<List<Write>> orderedSections() {
+        List<Long> keys = new ArrayList<>(sections.keySet());
+        keys.sort(Comparator.comparingInt(BlockBatch::chunkX)
+                .thenComparingInt(BlockBatch::chunkZ)
+                .thenComparingInt(BlockBatch::sectionY));
+        List<List<Write>> ordered = new ArrayList<>(keys.size());
+        for (long key : keys) {
+            ordered.add(sections.get(key));
+        }
+        return ordered;
+    }
+
+    // 22 bits pour X et Z de chunk, 20 bits pour la section Y
+    private static long sectionKey(int chunkX, int sectionY, int chunkZ) {
+        return ((long) (chunkX & 0x3FFFFF) << 42) | ((long) (chunkZ & 0x3FFFFF) << 20) | (sectionY & 0xFFFFF);
+    }
+
+    private static int chunkX(long key) {
+        return (int) (key >> 42) << 10 >> 10;
+    }
+
+    private static int chunkZ(long key) {
+        return (int) (key >> 20 & 0x3FFFFF) << 10 >> 10;
+    }
+
+    private static int sectionY(long key) {
+        return (int) (key & 0xFFFFF) << 12 >> 12;
+    }
+
+    private static long columnKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private record Write(int x, int y, int z, Material material, boolean onlyIfAir) {
+        private void apply(World world) {
+            Block block = world.getBlockAt(x, y, z);
+            Material current = block.getType();
+            if (current == material || (onlyIfAir && current != Material.AIR)) return;
+            block.setType(material, false);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package fr.skyblock.utils;
+
+import org.bukkit.Material;
+
+/**
+ * Destination d'écritures de blocs : lot appliqué au monde (BlockBatch) ou
+ * enregistrement hors monde (compilation d'un schematic, voir CompiledSchematic)
+ */
+public interface BlockWriter {
+
+    BlockWriter set(int x, int y, int z, Material material);
+
+    /**
+     * Ne remplace le bloc que s'il est vide
+     */
+    BlockWriter setIfAir(int x, int y, int z, Material material);
+
+    default BlockWriter fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, Material material) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    set(x, y, z, material);
+                }
+            }
+        }
+        return this;
+    }
+}
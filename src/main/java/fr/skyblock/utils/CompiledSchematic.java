@@ -0,0 +1,319 @@
+package fr.skyblock.utils;
+
+import org.bukkit.Material;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Schematic compilé : boîte englobante, palette de matériaux et blocs encodés par plages
+ * (RLE) dans l'ordre y, z, x. L'index 0 de la palette signifie « bloc non modifié ».
+ * Le biome et le coffre de départ sont pré-résolus. Le format est écrit une fois sur disque
+ * et relu par mappage mémoire : les plages restent dans le fichier mappé, sans copie.
+ */
+public class CompiledSchematic {
+
+    private static final int MAGIC = 0x53425331; // "SBS1"
+    private static final int FORMAT_VERSION = 1;
+
+    // Une plage = index de palette (12 bits) | longueur (20 bits)
+    private static final int LENGTH_BITS = 20;
+    private static final int MAX_RUN = (1 << LENGTH_BITS) - 1;
+    private static final int MAX_PALETTE = 1 << (32 - LENGTH_BITS);
+
+    public record ChestItem(Material material, int amount) {
+    }
+
+    private final String fingerprint;
+    private final int minX, minY, minZ;
+    private final int width, height, length;
+    private final Material[] palette;
+    private final IntBuffer runs;
+    private final String biomeKey;
+    private final int[] chestOffset;
+    private final List<ChestItem> chestItems;
+    private final int blockCount;
+
+    private CompiledSchematic(String fingerprint, int minX, int minY, int minZ, int width, int height, int length,
+                              Material[] palette, IntBuffer runs, String biomeKey, int[] chestOffset,
+                              List<ChestItem> chestItems) {
+        this.fingerprint = fingerprint;
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.width = width;
+        this.height = height;
+        this.length = length;
+        this.palette = palette;
+        this.runs = runs;
+        this.biomeKey = biomeKey;
+        this.chestOffset = chestOffset;
+        this.chestItems = chestItems;
+
+        int count = 0;
+        for (int i = 0; i < runs.limit(); i++) {
+            int run = runs.get(i);
+            if ((run >>> LENGTH_BITS) != 0) {
+                count += run & MAX_RUN;
+            }
+        }
+        this.blockCount = count;
+    }
+
+    /**
+     * Pose les blocs relativement au centre donné ; les cellules non modifiées sont ignorées
+     */
+    public void paste(BlockWriter writer, int centerX, int centerY, int centerZ) {
+        int area = width * length;
+        int position = 0;
+        for (int i = 0; i < runs.limit(); i++) {
+            int run = runs.get(i);
+            int paletteIndex = run >>> LENGTH_BITS;
+            int runLength = run & MAX_RUN;
+            if (paletteIndex != 0) {
+                Material material = palette[paletteIndex];
+                for (int k = position; k < position + runLength; k++) {
+                    int y = k / area;
+                    int rest = k - y * area;
+                    int z = rest / width;
+                    int x = rest - z * width;
+                    writer.set(centerX + minX + x, centerY + minY + y, centerZ + minZ + z, material);
+                }
+            }
+            position += runLength;
+        }
+    }
+
+    public String getFingerprint() { return fingerprint; }
+    public String getBiomeKey() { return biomeKey; }
+    public List<ChestItem> getChestItems() { return chestItems; }
+    public int getBlockCount() { return blockCount; }
+    public int getRunCount() { return runs.limit(); }
+
+    /**
+     * Position du coffre de départ relative au centre, ou null
+     */
+    public int[] getChestOffset() {
+        return chestOffset != null ? chestOffset.clone() : null;
+    }
+
+    // === ÉCRITURE / LECTURE ===
+
+    /**
+     * Écrit le fichier compilé (fichier temporaire puis remplacement atomique)
+     */
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(fingerprint);
+            out.writeInt(minX);
+            out.writeInt(minY);
+            out.writeInt(minZ);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(length);
+
+            out.writeShort(palette.length);
+            for (int i = 1; i < palette.length; i++) {
+                out.writeUTF(palette[i].name());
+            }
+
+            out.writeUTF(biomeKey != null ? biomeKey : "");
+            out.writeBoolean(chestOffset != null);
+            if (chestOffset != null) {
+                out.writeInt(chestOffset[0]);
+                out.writeInt(chestOffset[1]);
+                out.writeInt(chestOffset[2]);
+            }
+            out.writeShort(chestItems.size());
+            for (ChestItem item : chestItems) {
+                out.writeUTF(item.material().name());
+                out.writeInt(item.amount());
+            }
+
+            out.writeInt(runs.limit());
+            for (int i = 0; i < runs.limit(); i++) {
+                out.writeInt(runs.get(i));
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Relit un fichier compilé par mappage mémoire ; null s'il est absent, d'un autre format
+     * ou d'une autre empreinte (le schematic a changé)
+     */
+    public static CompiledSchematic read(Path file, String expectedFingerprint) throws IOException {
+        if (!Files.isRegularFile(file)) return null;
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Le mappage reste valide après la fermeture du canal
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) return null;
+            String fingerprint = readUTF(buffer);
+            if (!fingerprint.equals(expectedFingerprint)) return null;
+
+            int minX = buffer.getInt();
+            int minY = buffer.getInt();
+            int minZ = buffer.getInt();
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int length = buffer.getInt();
+
+            Material[] palette = new Material[buffer.getShort() & 0xFFFF];
+            for (int i = 1; i < palette.length; i++) {
+                palette[i] = Material.valueOf(readUTF(buffer));
+            }
+
+            String biomeKey = readUTF(buffer);
+            int[] chestOffset = null;
+            if (buffer.get() != 0) {
+                chestOffset = new int[]{buffer.getInt(), buffer.getInt(), buffer.getInt()};
+            }
+            int itemCount = buffer.getShort() & 0xFFFF;
+            List<ChestItem> chestItems = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                chestItems.add(new ChestItem(Material.valueOf(readUTF(buffer)), buffer.getInt()));
+            }
+
+            int runCount = buffer.getInt();
+            IntBuffer runs = buffer.slice(buffer.position(), runCount * Integer.BYTES).asIntBuffer();
+
+            return new CompiledSchematic(fingerprint, minX, minY, minZ, width, height, length, palette, runs,
+                    biomeKey.isEmpty() ? null : biomeKey, chestOffset, Collections.unmodifiableList(chestItems));
+        } catch (RuntimeException e) {
+            // Fichier tronqué ou matériau inconnu de cette version : recompiler
+            return null;
+        }
+    }
+
+    // Même encodage que DataOutputStream.writeUTF (longueur sur 2 octets)
+    private static String readUTF(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // === COMPILATION ===
+
+    /**
+     * Enregistre les écritures des générateurs hors monde, en partant d'une zone vide,
+     * puis produit le schematic compilé
+     */
+    public static class Builder implements BlockWriter {
+
+        private final Map<Long, Material> cells = new HashMap<>();
+        private int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        private int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        private String biomeKey;
+        private int[] chestOffset;
+        private final List<ChestItem> chestItems = new ArrayList<>();
+
+        @Override
+        public Builder set(int x, int y, int z, Material material) {
+            cells.put(key(x, y, z), material);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+            return this;
+        }
+
+        @Override
+        public Builder setIfAir(int x, int y, int z, Material material) {
+            Material current = cells.get(key(x, y, z));
+            if (current == null || current == Material.AIR) {
+                set(x, y, z, material);
+            }
+            return this;
+        }
+
+        public Builder biome(String biomeKey) {
+            this.biomeKey = biomeKey;
+            return this;
+        }
+
+        public Builder chest(int x, int y, int z, List<ChestItem> items) {
+            this.chestOffset = new int[]{x, y, z};
+            this.chestItems.addAll(items);
+            return this;
+        }
+
+        public CompiledSchematic build(String fingerprint) {
+            if (cells.isEmpty()) {
+                minX = minY = minZ = 0;
+                maxX = maxY = maxZ = -1;
+            }
+            int width = maxX - minX + 1;
+            int height = maxY - minY + 1;
+            int length = maxZ - minZ + 1;
+
+            List<Material> palette = new ArrayList<>();
+            palette.add(null);
+            Map<Material, Integer> indexes = new HashMap<>();
+
+            List<Integer> runs = new ArrayList<>();
+            int currentIndex = -1;
+            int currentLength = 0;
+            for (int y = 0; y < height; y++) {
+                for (int z = 0; z < length; z++) {
+                    for (int x = 0; x < width; x++) {
+                        Material material = cells.get(key(minX + x, minY + y, minZ + z));
+                        int index = 0;
+                        if (material != null) {
+                            index = indexes.computeIfAbsent(material, m -> {
+                                palette.add(m);
+                                return palette.size() - 1;
+                            });
+                            if (index >= MAX_PALETTE) {
+                                throw new IllegalStateException("Palette trop grande (" + index + " matériaux)");
+                            }
+                        }
+
+                        if (index == currentIndex && currentLength < MAX_RUN) {
+                            currentLength++;
+                        } else {
+                            if (currentLength > 0) {
+                                runs.add(currentIndex << LENGTH_BITS | currentLength);
+                            }
+                            currentIndex = index;
+                            currentLength = 1;
+                        }
+                    }
+                }
+            }
+            if (currentLength > 0) {
+                runs.add(currentIndex << LENGTH_BITS | currentLength);
+            }
+
+            IntBuffer runBuffer = IntBuffer.allocate(runs.size());
+            runs.forEach(runBuffer::put);
+            runBuffer.flip();
+
+            return new CompiledSchematic(fingerprint, minX, minY, minZ, width, height, length,
+                    palette.toArray(new Material[0]), runBuffer, biomeKey, chestOffset,
+                    Collections.unmodifiableList(new ArrayList<>(chestItems)));
+        }
+
+        private static long key(int x, int y, int z) {
+            return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+        }
+    }
+}
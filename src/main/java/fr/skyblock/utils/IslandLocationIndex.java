@@ -0,0 +1,216 @@
+package fr.skyblock.utils;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index spatial des îles : résout une Location en ID d'île sans parcourir toutes les îles.
+ * Les îles sont regroupées par monde puis par région de 512x512 blocs. Chaque monde est un
+ * instantané immuable reconstruit à chaque modification : la lecture ne prend aucun verrou
+ * et n'alloue rien.
+ */
+public class IslandLocationIndex {
+
+    private static final int REGION_SHIFT = 9;
+
+    // Source des instantanés, modifiée sous le verrou de l'index
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Map<String, Map<UUID, Entry>> entriesByWorld = new HashMap<>();
+
+    private final Map<String, WorldSnapshot> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Obtient l'ID de l'île qui contient la location, ou null
+     */
+    public UUID getIslandIdAt(Location location) {
+        World world = location.getWorld();
+        if (world == null) return null;
+
+        WorldSnapshot snapshot = worlds.get(world.getName());
+        if (snapshot == null) return null;
+        return snapshot.find(location.getX(), location.getY(), location.getZ());
+    }
+
+    /**
+     * Ajoute ou met à jour une île ; ne fait rien si sa position et sa taille n'ont pas changé
+     */
+    public synchronized void update(UUID islandId, String worldName, double x, double y, double z, int size) {
+        Entry previous = entries.get(islandId);
+        if (previous != null && previous.matches(worldName, x, y, z, size)) {
+            return;
+        }
+
+        Entry entry = new Entry(islandId, worldName, x, y, z, size);
+        entries.put(islandId, entry);
+        if (previous != null && !previous.worldName.equals(worldName)) {
+            removeFromWorld(previous);
+        }
+        entriesByWorld.computeIfAbsent(worldName, k -> new HashMap<>()).put(islandId, entry);
+        rebuild(worldName);
+    }
+
+    public synchronized void remove(UUID islandId) {
+        Entry previous = entries.remove(islandId);
+        if (previous != null) {
+            removeFromWorld(previous);
+        }
+    }
+
+    /**
+     * Retire toutes les îles d'un monde (monde déchargé)
+     */
+    public synchronized void removeWorld(String worldName) {
+        Map<UUID, Entry> worldEntries = entriesByWorld.remove(worldName);
+        if (worldEntries != null) {
+            worldEntries.keySet().forEach(entries::remove);
+        }
+        worlds.remove(worldName);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        entriesByWorld.clear();
+        worlds.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void removeFromWorld(Entry entry) {
+        Map<UUID, Entry> worldEntries = entriesByWorld.get(entry.worldName);
+        if (worldEntries == null) return;
+        worldEntries.remove(entry.islandId);
+        if (worldEntries.isEmpty()) {
+            entriesByWorld.remove(entry.worldName);
+        }
+        rebuild(entry.worldName);
+    }
+
+    private void rebuild(String worldName) {
+        Map<UUID, Entry> worldEntries = entriesByWorld.get(worldName);
+        if (worldEntries == null || worldEntries.isEmpty()) {
+            worlds.remove(worldName);
+        } else {
+            worlds.put(worldName, new WorldSnapshot(worldEntries.values()));
+        }
+    }
+
+    private static long regionKey(int regionX, int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Entry {
+        private final UUID islandId;
+        private final String worldName;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final int size;
+        private final double sizeSquared;
+
+        private Entry(UUID islandId, String worldName, double x, double y, double z, int size) {
+            this.islandId = islandId;
+            this.worldName = worldName;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.size = size;
+            this.sizeSquared = (double) size * size;
+        }
+
+        private boolean matches(String worldName, double x, double y, double z, int size) {
+            return this.worldName.equals(worldName) && this.x == x && this.y == y && this.z == z && this.size == size;
+        }
+
+        // Même règle que l'ancien parcours : distance au centre <= taille de l'île
+        private boolean contains(double px, double py, double pz) {
+            double dx = px - x;
+            double dy = py - y;
+            double dz = pz - z;
+            return dx * dx + dy * dy + dz * dz <= sizeSquared;
+        }
+    }
+
+    /**
+     * Vue immuable d'un monde. Cas courant (un monde par île) : une seule entrée testée
+     * directement. Sinon, table à adressage ouvert région -> îles qui la recouvrent.
+     */
+    private static final class WorldSnapshot {
+        private final Entry single;
+        private final long[] keys;
+        private final Entry[][] cells;
+        private final int mask;
+
+        private WorldSnapshot(Collection<Entry> worldEntries) {
+            if (worldEntries.size() == 1) {
+                this.single = worldEntries.iterator().next();
+                this.keys = null;
+                this.cells = null;
+                this.mask = 0;
+                return;
+            }
+
+            Map<Long, List<Entry>> regions = new HashMap<>();
+            for (Entry entry : worldEntries) {
+                int minX = (int) Math.floor(entry.x - entry.size) >> REGION_SHIFT;
+                int maxX = (int) Math.floor(entry.x + entry.size) >> REGION_SHIFT;
+                int minZ = (int) Math.floor(entry.z - entry.size) >> REGION_SHIFT;
+                int maxZ = (int) Math.floor(entry.z + entry.size) >> REGION_SHIFT;
+                for (int regionX = minX; regionX <= maxX; regionX++) {
+                    for (int regionZ = minZ; regionZ <= maxZ; regionZ++) {
+                        regions.computeIfAbsent(regionKey(regionX, regionZ), k -> new ArrayList<>()).add(entry);
+                    }
+                }
+            }
+
+            int capacity = 2;
+            while (capacity < regions.size() * 2) {
+                capacity <<= 1;
+            }
+            this.single = null;
+            this.keys = new long[capacity];
+            this.cells = new Entry[capacity][];
+            this.mask = capacity - 1;
+
+            for (Map.Entry<Long, List<Entry>> region : regions.entrySet()) {
+                long key = region.getKey();
+                int slot = hash(key) & mask;
+                while (cells[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                cells[slot] = region.getValue().toArray(new Entry[0]);
+            }
+        }
+
+        private UUID find(double x, double y, double z) {
+            if (single != null) {
+                return single.contains(x, y, z) ? single.islandId : null;
+            }
+
+            long key = regionKey((int) Math.floor(x) >> REGION_SHIFT, (int) Math.floor(z) >> REGION_SHIFT);
+            int slot = hash(key) & mask;
+            while (cells[slot] != null) {
+                if (keys[slot] == key) {
+                    for (Entry entry : cells[slot]) {
+                        if (entry.contains(x, y, z)) {
+                            return entry.islandId;
+                        }
+                    }
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+    }
+}
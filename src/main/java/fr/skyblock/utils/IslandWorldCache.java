@@ -0,0 +1,126 @@
+package fr.skyblock.utils;
+
+import fr.skyblock.models.Island;
+import org.bukkit.World;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Association monde -> île, indexée par l'UID du monde. Le nom du monde n'est analysé
+ * qu'une fois (chargement du monde ou premier accès) ; ensuite une lecture est une simple
+ * recherche dans la table, sans chaîne ni allocation. Les mondes qui ne sont pas des
+ * mondes d'îles sont mémorisés aussi, pour ne pas être réanalysés.
+ */
+public class IslandWorldCache {
+
+    /**
+     * Monde d'île : ID de l'île et, une fois chargée, l'instance partagée du cache d'îles
+     */
+    public static final class Entry {
+        private final UUID islandId;
+        private volatile Island island;
+
+        private Entry(UUID islandId) {
+            this.islandId = islandId;
+        }
+
+        public UUID getIslandId() {
+            return islandId;
+        }
+
+        public Island getIsland() {
+            return island;
+        }
+
+        public void setIsland(Island island) {
+            this.island = island;
+        }
+    }
+
+    private static final Entry NOT_AN_ISLAND = new Entry(null);
+
+    private final Function<String, UUID> islandIdResolver;
+    private final Map<UUID, Entry> entriesByWorld = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> entriesByIsland = new ConcurrentHashMap<>();
+
+    public IslandWorldCache(Function<String, UUID> islandIdResolver) {
+        this.islandIdResolver = islandIdResolver;
+    }
+
+    /**
+     * Entrée du monde, ou null si ce n'est pas un monde d'île
+     */
+    public Entry get(World world) {
+        Entry entry = entriesByWorld.get(world.getUID());
+        if (entry == null) {
+            entry = resolve(world);
+        }
+        return entry != NOT_AN_ISLAND ? entry : null;
+    }
+
+    /**
+     * Enregistre un monde qui vient d'être chargé ; retourne son entrée, ou null si ce n'est
+     * pas un monde d'île
+     */
+    public Entry register(World world) {
+        Entry entry = resolve(world);
+        return entry != NOT_AN_ISLAND ? entry : null;
+    }
+
+    // Analyse le nom du monde une fois et mémorise le résultat
+    private Entry resolve(World world) {
+        return entriesByWorld.computeIfAbsent(world.getUID(), uid -> {
+            UUID islandId = islandIdResolver.apply(world.getName());
+            if (islandId == null) return NOT_AN_ISLAND;
+
+            Entry entry = new Entry(islandId);
+            Entry previous = entriesByIsland.put(islandId, entry);
+            if (previous != null) {
+                entry.setIsland(previous.getIsland());
+            }
+            return entry;
+        });
+    }
+
+    public void unregister(World world) {
+        Entry entry = entriesByWorld.remove(world.getUID());
+        if (entry != null && entry != NOT_AN_ISLAND) {
+            entriesByIsland.remove(entry.getIslandId(), entry);
+        }
+    }
+
+    /**
+     * Rattache l'instance d'île (nouvellement en cache) à l'entrée de son monde, s'il est connu
+     */
+    public void attach(Island island) {
+        Entry entry = entriesByIsland.get(island.getId());
+        if (entry != null) {
+            entry.setIsland(island);
+        }
+    }
+
+    /**
+     * Oublie l'instance d'une île retirée du cache ou supprimée
+     */
+    public void detach(UUID islandId) {
+        Entry entry = entriesByIsland.get(islandId);
+        if (entry != null) {
+            entry.setIsland(null);
+        }
+    }
+
+    /**
+     * Entrées des mondes d'îles actuellement chargés
+     */
+    public Collection<Entry> entries() {
+        return entriesByIsland.values();
+    }
+
+    public int size() {
+        return entriesByIsland.size();
+    }
+}
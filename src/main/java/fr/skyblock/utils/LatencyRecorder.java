@@ -0,0 +1,53 @@
+package fr.skyblock.utils;
+
+import java.util.Arrays;
+
+/**
+ * Fenêtre glissante des dernières durées mesurées (en millisecondes).
+ * L'enregistrement est en O(1) ; les percentiles trient une copie de la fenêtre
+ * et ne sont destinés qu'à l'affichage des statistiques.
+ */
+public class LatencyRecorder {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+    private long total;
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[Math.max(1, capacity)];
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        total++;
+    }
+
+    /**
+     * Percentile (0-100) sur la fenêtre courante, ou -1 si aucune mesure
+     */
+    public synchronized long percentile(double percentile) {
+        if (count == 0) return -1;
+
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+    /**
+     * Nombre total de mesures depuis le démarrage
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized void clear() {
+        next = 0;
+        count = 0;
+    }
+}
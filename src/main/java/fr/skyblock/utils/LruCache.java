@@ -0,0 +1,177 @@
+package fr.skyblock.utils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache concurrent borné avec éviction LRU approximative.
+ * Les lectures ne prennent aucun verrou : chaque accès note un horodatage logique,
+ * et l'éviction (déclenchée explicitement) retire les entrées les moins récemment
+ * utilisées qui ne sont pas épinglées.
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, Node<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final Collection<V> valuesView = new AbstractCollection<>() {
+        @Override
+        public Iterator<V> iterator() {
+            Iterator<Node<V>> nodes = entries.values().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return nodes.hasNext();
+                }
+
+                @Override
+                public V next() {
+                    return nodes.next().value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+    };
+
+    /**
+     * Lit une entrée en comptant le hit/miss et en la marquant comme récemment utilisée
+     */
+    public V get(K key) {
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        node.lastAccess = clock.incrementAndGet();
+        return node.value;
+    }
+
+    /**
+     * Lit une entrée sans toucher aux statistiques ni à l'ordre LRU
+     */
+    public V peek(K key) {
+        Node<V> node = entries.get(key);
+        return node != null ? node.value : null;
+    }
+
+    public V put(K key, V value) {
+        Node<V> previous = entries.put(key, new Node<>(value, clock.incrementAndGet()));
+        return previous != null ? previous.value : null;
+    }
+
+    public V remove(K key) {
+        Node<V> previous = entries.remove(key);
+        return previous != null ? previous.value : null;
+    }
+
+    /**
+     * Évince l'entrée seulement si elle correspond toujours à la valeur donnée
+     */
+    public boolean evict(K key, V value) {
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(key, (k, node) -> {
+            if (node.value != value) return node;
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            evictions.incrementAndGet();
+        }
+        return removed[0];
+    }
+
+    public boolean containsKey(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Vue en lecture des valeurs (sans copie)
+     */
+    public Collection<V> values() {
+        return valuesView;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Choisit les entrées à évincer, de la moins récemment utilisée à la plus récente,
+     * jusqu'à repasser sous maxEntries et maxWeight (0 = pas de limite de poids).
+     * Les entrées épinglées ne sont jamais retenues. Rien n'est retiré du cache.
+     */
+    public List<V> selectVictims(int maxEntries, long maxWeight, ToLongFunction<V> weigher, Predicate<V> pinned) {
+        int size = entries.size();
+        long weight = 0;
+        if (maxWeight > 0) {
+            for (Node<V> node : entries.values()) {
+                weight += weigher.applyAsLong(node.value);
+            }
+        }
+        if (size <= maxEntries && (maxWeight <= 0 || weight <= maxWeight)) {
+            return Collections.emptyList();
+        }
+
+        // Horodatages copiés avant le tri : get() les modifie en parallèle, et un tri sur
+        // des clés qui changent peut violer le contrat du comparateur
+        List<Candidate<V>> candidates = new ArrayList<>();
+        for (Node<V> node : entries.values()) {
+            if (!pinned.test(node.value)) {
+                candidates.add(new Candidate<>(node.lastAccess, node.value));
+            }
+        }
+        candidates.sort(Comparator.comparingLong(Candidate::stamp));
+
+        List<V> victims = new ArrayList<>();
+        for (Candidate<V> candidate : candidates) {
+            if (size <= maxEntries && (maxWeight <= 0 || weight <= maxWeight)) break;
+            victims.add(candidate.value());
+            size--;
+            if (maxWeight > 0) {
+                weight -= weigher.applyAsLong(candidate.value());
+            }
+        }
+        return victims;
+    }
+
+    private record Candidate<V>(long stamp, V value) {
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private static final class Node<V> {
+        private final V value;
+        private volatile long lastAccess;
+
+        private Node(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package fr.skyblock.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Ensemble trié indexable (treap augmenté de la taille des sous-arbres).
+ * Ajout, retrait et accès par rang en O(log n) ; une page de k éléments à partir
+ * d'un rang quelconque en O(log n + k), sans tri ni copie de l'ensemble.
+ * Non synchronisé : l'appelant protège les accès concurrents.
+ */
+public class OrderStatisticTree<E> {
+
+    private final Comparator<? super E> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<E> root;
+
+    public OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public boolean add(E value) {
+        if (contains(value)) return false;
+
+        Node<E>[] parts = split(root, value);
+        root = merge(merge(parts[0], new Node<>(value, random.nextInt())), parts[1]);
+        return true;
+    }
+
+    public boolean remove(E value) {
+        int before = size(root);
+        root = remove(root, value);
+        return size(root) < before;
+    }
+
+    public boolean contains(E value) {
+        Node<E> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(value, node.value);
+            if (cmp == 0) return true;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Élément de rang index (0 = le premier dans l'ordre du comparateur)
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size(root)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", taille: " + size(root));
+        }
+
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Jusqu'à limit éléments à partir du rang offset, dans l'ordre
+     */
+    public List<E> page(int offset, int limit) {
+        List<E> result = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+        if (offset >= 0 && limit > 0) {
+            collect(root, offset, limit, result);
+        }
+        return result;
+    }
+
+    public List<E> toList() {
+        return page(0, size(root));
+    }
+
+    private void collect(Node<E> node, int offset, int limit, List<E> out) {
+        if (node == null || out.size() >= limit) return;
+
+        int leftSize = size(node.left);
+        if (offset < leftSize) {
+            collect(node.left, offset, limit, out);
+        }
+        if (out.size() >= limit) return;
+        if (offset <= leftSize) {
+            out.add(node.value);
+        }
+        collect(node.right, Math.max(0, offset - leftSize - 1), limit, out);
+    }
+
+    private Node<E> remove(Node<E> node, E value) {
+        if (node == null) return null;
+
+        int cmp = comparator.compare(value, node.value);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, value);
+        } else {
+            node.right = remove(node.right, value);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Sépare en [éléments < value, éléments >= value]
+     */
+    @SuppressWarnings("unchecked")
+    private Node<E>[] split(Node<E> node, E value) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+
+        if (comparator.compare(node.value, value) < 0) {
+            Node<E>[] parts = split(node.right, value);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+
+        Node<E>[] parts = split(node.left, value);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    private Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static final class Node<E> {
+        private final E value;
+        private final int priority;
+        private Node<E> left;
+        private Node<E> right;
+        private int size = 1;
+
+        private Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+
+        private void update() {
+            size = 1 + OrderStatisticTree.size(left) + OrderStatisticTree.size(right);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package fr.skyblock.utils;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie que l'index donne le même résultat que l'ancien parcours linéaire des îles
+ */
+class IslandLocationIndexTest {
+
+    private record IslandBox(UUID id, World world, double x, double y, double z, int size) {
+        boolean contains(Location location) {
+            if (location.getWorld() != world) return false;
+            double dx = location.getX() - x;
+            double dy = location.getY() - y;
+            double dz = location.getZ() - z;
+            return dx * dx + dy * dy + dz * dz <= (double) size * size;
+        }
+    }
+
+    // Référence : parcours de toutes les îles, comme avant l'index
+    private static UUID linearScan(Collection<IslandBox> islands, Location location) {
+        for (IslandBox island : islands) {
+            if (island.contains(location)) {
+                return island.id();
+            }
+        }
+        return null;
+    }
+
+    private static void assertMatchesLinearScan(IslandLocationIndex index, Map<UUID, IslandBox> islands, Location location) {
+        UUID expected = linearScan(islands.values(), location);
+        UUID actual = index.getIslandIdAt(location);
+        if (expected == null) {
+            assertNull(actual, "Aucune île ne contient " + location);
+        } else {
+            assertNotNull(actual, "Île attendue en " + location);
+            // Îles qui se chevauchent : n'importe laquelle qui contient le point est valide
+            assertTrue(islands.get(actual).contains(location), "L'île " + actual + " ne contient pas " + location);
+        }
+    }
+
+    private static Location randomPointNear(Random random, IslandBox island) {
+        double spread = island.size() * 1.5 + 1;
+        return new Location(island.world(),
+                island.x() + (random.nextDouble() * 2 - 1) * spread,
+                island.y() + (random.nextDouble() * 2 - 1) * spread,
+                island.z() + (random.nextDouble() * 2 - 1) * spread);
+    }
+
+    private static IslandBox randomIsland(Random random, World world) {
+        return new IslandBox(UUID.randomUUID(), world,
+                random.nextInt(20_000) - 10_000 + random.nextDouble(),
+                64 + random.nextInt(64),
+                random.nextInt(20_000) - 10_000 + random.nextDouble(),
+                10 + random.nextInt(600));
+    }
+
+    private static void put(IslandLocationIndex index, Map<UUID, IslandBox> islands, IslandBox island) {
+        islands.put(island.id(), island);
+        index.update(island.id(), island.world().getName(), island.x(), island.y(), island.z(), island.size());
+    }
+
+    @Test
+    void matchesLinearScanOnRandomIslands() {
+        Random random = new Random(42);
+        List<World> worlds = List.of(TestWorlds.world("island_a"), TestWorlds.world("island_b"), TestWorlds.world("island_c"));
+        World unknown = TestWorlds.world("world");
+
+        IslandLocationIndex index = new IslandLocationIndex();
+        Map<UUID, IslandBox> islands = new LinkedHashMap<>();
+        for (int i = 0; i < 300; i++) {
+            put(index, islands, randomIsland(random, worlds.get(i % worlds.size())));
+        }
+        assertEquals(islands.size(), index.size());
+
+        for (IslandBox island : islands.values()) {
+            assertMatchesLinearScan(index, islands, new Location(island.world(), island.x(), island.y(), island.z()));
+            for (int i = 0; i < 20; i++) {
+                assertMatchesLinearScan(index, islands, randomPointNear(random, island));
+            }
+        }
+        for (int i = 0; i < 2_000; i++) {
+            World world = worlds.get(random.nextInt(worlds.size()));
+            assertMatchesLinearScan(index, islands, new Location(world,
+                    random.nextInt(22_000) - 11_000, random.nextInt(256), random.nextInt(22_000) - 11_000));
+        }
+        assertNull(index.getIslandIdAt(new Location(unknown, 0, 64, 0)));
+        assertNull(index.getIslandIdAt(new Location(null, 0, 64, 0)));
+    }
+
+    @Test
+    void singleIslandWorldUsesSameBoundary() {
+        World world = TestWorlds.world("island_single");
+        UUID id = UUID.randomUUID();
+        IslandLocationIndex index = new IslandLocationIndex();
+        index.update(id, world.getName(), 0.5, 100, 0.5, 50);
+
+        assertEquals(id, index.getIslandIdAt(new Location(world, 50.5, 100, 0.5)));
+        assertNull(index.getIslandIdAt(new Location(world, 50.6, 100, 0.5)));
+        assertEquals(id, index.getIslandIdAt(new Location(world, 0.5, 50, 0.5)));
+        assertNull(index.getIslandIdAt(new Location(world, 0.5, 49, 0.5)));
+    }
+
+    @Test
+    void regionBordersAndNegativeCoordinates() {
+        World world = TestWorlds.world("island_borders");
+        IslandLocationIndex index = new IslandLocationIndex();
+        Map<UUID, IslandBox> islands = new LinkedHashMap<>();
+        // Centres sur les frontières de région (multiples de 512), de part et d'autre de 0
+        for (int rx = -2; rx <= 2; rx++) {
+            for (int rz = -2; rz <= 2; rz++) {
+                put(index, islands, new IslandBox(UUID.randomUUID(), world, rx * 512, 64, rz * 512, 100));
+            }
+        }
+
+        for (IslandBox island : islands.values()) {
+            for (double d = -101; d <= 101; d += 0.5) {
+                assertMatchesLinearScan(index, islands, new Location(world, island.x() + d, 64, island.z()));
+                assertMatchesLinearScan(index, islands, new Location(world, island.x(), 64, island.z() + d));
+            }
+        }
+    }
+
+    @Test
+    void updatesAndRemovalsStayConsistent() {
+        Random random = new Random(7);
+        List<World> worlds = List.of(TestWorlds.world("island_x"), TestWorlds.world("island_y"));
+        IslandLocationIndex index = new IslandLocationIndex();
+        Map<UUID, IslandBox> islands = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            put(index, islands, randomIsland(random, worlds.get(i % worlds.size())));
+        }
+
+        List<UUID> ids = new ArrayList<>(islands.keySet());
+        for (int step = 0; step < 200; step++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            IslandBox previous = islands.get(id);
+            if (previous == null) {
+                // Île retirée plus tôt : on la recrée
+                IslandBox created = randomIsland(random, worlds.get(random.nextInt(worlds.size())));
+                put(index, islands, new IslandBox(id, created.world(), created.x(), created.y(), created.z(), created.size()));
+                continue;
+            }
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    // Agrandissement ou déplacement dans le même monde
+                    IslandBox moved = randomIsland(random, previous.world());
+                    put(index, islands, new IslandBox(id, moved.world(), moved.x(), moved.y(), moved.z(), moved.size()));
+                }
+                case 1 -> {
+                    // Changement de monde
+                    World other = previous.world() == worlds.get(0) ? worlds.get(1) : worlds.get(0);
+                    put(index, islands, new IslandBox(id, other, previous.x(), previous.y(), previous.z(), previous.size()));
+                }
+                default -> {
+                    islands.remove(id);
+                    index.remove(id);
+                }
+            }
+            // L'ancienne position ne doit plus renvoyer l'île si elle n'y est plus
+            assertMatchesLinearScan(index, islands, new Location(previous.world(), previous.x(), previous.y(), previous.z()));
+        }
+        assertEquals(islands.size(), index.size());
+
+        for (IslandBox island : islands.values()) {
+            for (int i = 0; i < 10; i++) {
+                assertMatchesLinearScan(index, islands, randomPointNear(random, island));
+            }
+        }
+    }
+
+    @Test
+    void removeWorldDropsOnlyThatWorld() {
+        World kept = TestWorlds.world("island_kept");
+        World unloaded = TestWorlds.world("island_unloaded");
+        IslandLocationIndex index = new IslandLocationIndex();
+        UUID keptId = UUID.randomUUID();
+        UUID unloadedId = UUID.randomUUID();
+        index.update(keptId, kept.getName(), 0, 64, 0, 100);
+        index.update(unloadedId, unloaded.getName(), 0, 64, 0, 100);
+
+        index.removeWorld(unloaded.getName());
+
+        assertEquals(1, index.size());
+        assertEquals(keptId, index.getIslandIdAt(new Location(kept, 0, 64, 0)));
+        assertNull(index.getIslandIdAt(new Location(unloaded, 0, 64, 0)));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertNull(index.getIslandIdAt(new Location(kept, 0, 64, 0)));
+    }
+}
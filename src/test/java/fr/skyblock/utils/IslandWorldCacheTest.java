@@ -0,0 +1,175 @@
+package fr.skyblock.utils;
+
+import fr.skyblock.models.Island;
+import org.bukkit.World;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IslandWorldCacheTest {
+
+    private static final String PREFIX = "island_";
+
+    private final AtomicInteger resolverCalls = new AtomicInteger();
+    private IslandWorldCache cache;
+
+    @BeforeEach
+    void setUp() {
+        resolverCalls.set(0);
+        // Même analyse que WorldManager.getIslandIdFromWorldName
+        cache = new IslandWorldCache(worldName -> {
+            resolverCalls.incrementAndGet();
+            if (!worldName.startsWith(PREFIX)) return null;
+            try {
+                return UUID.fromString(worldName.substring(PREFIX.length()));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        });
+    }
+
+    private static Island island(UUID id) {
+        return new Island(id, UUID.randomUUID(), "Île de test", null);
+    }
+
+    @Test
+    void worldNameIsParsedOnce() {
+        UUID islandId = UUID.randomUUID();
+        World world = TestWorlds.world(PREFIX + islandId);
+
+        IslandWorldCache.Entry first = cache.get(world);
+        IslandWorldCache.Entry second = cache.get(world);
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(islandId, first.getIslandId());
+        assertEquals(1, resolverCalls.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void nonIslandWorldsAreRememberedAsSuch() {
+        World lobby = TestWorlds.world("world");
+        World invalid = TestWorlds.world(PREFIX + "pas-un-uuid");
+
+        assertNull(cache.get(lobby));
+        assertNull(cache.get(lobby));
+        assertNull(cache.register(invalid));
+        assertNull(cache.get(invalid));
+
+        assertEquals(2, resolverCalls.get());
+        assertEquals(0, cache.size());
+        assertTrue(cache.entries().isEmpty());
+    }
+
+    @Test
+    void attachAndDetach() {
+        UUID islandId = UUID.randomUUID();
+        World world = TestWorlds.world(PREFIX + islandId);
+        Island island = island(islandId);
+
+        // Île mise en cache avant le chargement de son monde : rien à rattacher
+        cache.attach(island);
+        IslandWorldCache.Entry entry = cache.register(world);
+        assertNotNull(entry);
+        assertNull(entry.getIsland());
+
+        cache.attach(island);
+        assertSame(island, cache.get(world).getIsland());
+
+        // Une autre île n'affecte pas cette entrée
+        cache.attach(island(UUID.randomUUID()));
+        cache.detach(UUID.randomUUID());
+        assertSame(island, cache.get(world).getIsland());
+
+        cache.detach(islandId);
+        assertNull(cache.get(world).getIsland());
+        // L'entrée du monde reste valide, seule l'instance d'île est oubliée
+        assertEquals(islandId, cache.get(world).getIslandId());
+
+        Island reloaded = island(islandId);
+        cache.attach(reloaded);
+        assertSame(reloaded, cache.get(world).getIsland());
+        assertEquals(1, resolverCalls.get());
+    }
+
+    @Test
+    void unregisterInvalidatesTheWorld() {
+        UUID islandId = UUID.randomUUID();
+        World world = TestWorlds.world(PREFIX + islandId);
+        cache.register(world);
+        cache.attach(island(islandId));
+
+        cache.unregister(world);
+        assertEquals(0, cache.size());
+
+        // Instance d'île relâchée avec le monde : attacher sans monde chargé ne fait rien
+        cache.attach(island(islandId));
+        assertEquals(0, cache.size());
+
+        // Monde rechargé (nouvel UID) : nouvelle entrée, nom réanalysé, pas d'île héritée
+        World reloaded = TestWorlds.world(PREFIX + islandId);
+        IslandWorldCache.Entry entry = cache.register(reloaded);
+        assertNotNull(entry);
+        assertNull(entry.getIsland());
+        assertEquals(2, resolverCalls.get());
+    }
+
+    @Test
+    void renamedWorldPointsToItsNewIsland() {
+        UUID oldIslandId = UUID.randomUUID();
+        UUID newIslandId = UUID.randomUUID();
+        UUID worldUid = UUID.randomUUID();
+        Island oldIsland = island(oldIslandId);
+
+        World before = TestWorlds.world(PREFIX + oldIslandId, worldUid);
+        cache.register(before);
+        cache.attach(oldIsland);
+
+        // Renommage : déchargé sous l'ancien nom, rechargé sous le nouveau avec le même UID
+        cache.unregister(before);
+        World after = TestWorlds.world(PREFIX + newIslandId, worldUid);
+        IslandWorldCache.Entry entry = cache.get(after);
+
+        assertNotNull(entry);
+        assertEquals(newIslandId, entry.getIslandId());
+        assertNull(entry.getIsland());
+        assertEquals(1, cache.size());
+
+        // L'ancienne île ne se rattache plus à aucun monde
+        cache.attach(oldIsland);
+        assertNull(cache.get(after).getIsland());
+
+        Island newIsland = island(newIslandId);
+        cache.attach(newIsland);
+        assertSame(newIsland, cache.get(after).getIsland());
+    }
+
+    @Test
+    void secondWorldOfSameIslandKeepsTheInstance() {
+        UUID islandId = UUID.randomUUID();
+        Island island = island(islandId);
+        World first = TestWorlds.world(PREFIX + islandId);
+
+        cache.register(first);
+        cache.attach(island);
+
+        // Même île rechargée sous un nouvel UID avant que l'ancien monde soit déchargé
+        World copy = TestWorlds.world(PREFIX + islandId);
+        IslandWorldCache.Entry copyEntry = cache.register(copy);
+        assertSame(island, copyEntry.getIsland());
+        assertEquals(1, cache.size());
+
+        // Décharger l'ancien monde ne retire pas l'entrée qui l'a remplacé
+        cache.unregister(first);
+        assertEquals(1, cache.size());
+        cache.detach(islandId);
+        assertNull(cache.get(copy).getIsland());
+        cache.attach(island);
+        assertSame(island, cache.get(copy).getIsland());
+    }
+}
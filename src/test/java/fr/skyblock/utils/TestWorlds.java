@@ -0,0 +1,31 @@
+package fr.skyblock.utils;
+
+import org.bukkit.World;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+/**
+ * Mondes factices pour les tests hors serveur : seuls getName et getUID sont implémentés
+ */
+public final class TestWorlds {
+
+    private TestWorlds() {
+    }
+
+    public static World world(String name) {
+        return world(name, UUID.randomUUID());
+    }
+
+    public static World world(String name, UUID uid) {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getName" -> name;
+                    case "getUID" -> uid;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "World[" + name + "]";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}